@@ -0,0 +1,23 @@
+package ru.practicum.shareit.booking;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BookingBatchDecisionDto {
+
+    @NotEmpty(message = "Field 'decisions' shouldn't be empty")
+    @Size(max = 100, message = "Field 'decisions' should have at most 100 elements")
+    private List<@Valid BookingDecisionDto> decisions;
+
+    public static BookingBatchDecisionDto of(List<BookingDecisionDto> decisions) {
+        BookingBatchDecisionDto dto = new BookingBatchDecisionDto();
+        dto.setDecisions(decisions);
+        return dto;
+    }
+
+}
@@ -0,0 +1,22 @@
+package ru.practicum.shareit.booking;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class BookingChangesDto {
+
+    private List<BookingResponseDto> bookings = new ArrayList<>();
+    private String token;
+    private boolean hasMore;
+
+    public static BookingChangesDto of(List<BookingResponseDto> bookings, String token, boolean hasMore) {
+        BookingChangesDto dto = new BookingChangesDto();
+        dto.setBookings(bookings);
+        dto.setToken(token);
+        dto.setHasMore(hasMore);
+        return dto;
+    }
+}
@@ -0,0 +1,24 @@
+package ru.practicum.shareit.booking;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.Data;
+
+@Data
+public class BookingDecisionDto {
+
+    @NotNull(message = "Field 'bookingId' shouldn't be null")
+    @Positive(message = "Field 'bookingId' should be positive")
+    private Long bookingId;
+
+    @NotNull(message = "Field 'approved' shouldn't be null")
+    private Boolean approved;
+
+    public static BookingDecisionDto of(Long bookingId, Boolean approved) {
+        BookingDecisionDto dto = new BookingDecisionDto();
+        dto.setBookingId(bookingId);
+        dto.setApproved(approved);
+        return dto;
+    }
+
+}
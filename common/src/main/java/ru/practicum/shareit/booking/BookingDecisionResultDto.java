@@ -0,0 +1,18 @@
+package ru.practicum.shareit.booking;
+
+import lombok.Data;
+
+@Data
+public class BookingDecisionResultDto {
+
+    private Long bookingId;
+    private BookingDecisionOutcome outcome;
+
+    public static BookingDecisionResultDto of(Long bookingId, BookingDecisionOutcome outcome) {
+        BookingDecisionResultDto dto = new BookingDecisionResultDto();
+        dto.setBookingId(bookingId);
+        dto.setOutcome(outcome);
+        return dto;
+    }
+
+}
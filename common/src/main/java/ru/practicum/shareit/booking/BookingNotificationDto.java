@@ -0,0 +1,42 @@
+package ru.practicum.shareit.booking;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import lombok.Data;
+import ru.practicum.shareit.serializer.OffsetDateTimeDeserializer;
+import ru.practicum.shareit.serializer.OffsetDateTimeSerializer;
+
+import java.time.OffsetDateTime;
+
+@Data
+public class BookingNotificationDto {
+
+    private Long bookingId;
+    private Long itemId;
+    private Long bookerId;
+
+    @JsonSerialize(using = OffsetDateTimeSerializer.class)
+    @JsonDeserialize(using = OffsetDateTimeDeserializer.class)
+    private OffsetDateTime start;
+
+    @JsonSerialize(using = OffsetDateTimeSerializer.class)
+    @JsonDeserialize(using = OffsetDateTimeDeserializer.class)
+    private OffsetDateTime end;
+
+    private BookingStatus previousStatus;
+    private BookingStatus status;
+
+    public static BookingNotificationDto of(Long bookingId, Long itemId, Long bookerId, OffsetDateTime start,
+                                            OffsetDateTime end, BookingStatus previousStatus, BookingStatus status) {
+        BookingNotificationDto dto = new BookingNotificationDto();
+        dto.setBookingId(bookingId);
+        dto.setItemId(itemId);
+        dto.setBookerId(bookerId);
+        dto.setStart(start);
+        dto.setEnd(end);
+        dto.setPreviousStatus(previousStatus);
+        dto.setStatus(status);
+        return dto;
+    }
+
+}
@@ -1,5 +1,6 @@
 package ru.practicum.shareit.booking;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import lombok.Data;
@@ -14,6 +15,10 @@ import java.time.OffsetDateTime;
 public class BookingResponseDto {
 
     private Long id;
+
+    @JsonIgnore
+    private Long version;
+
     private UserResponseDto booker;
     private ItemResponseDto item;
 
@@ -31,6 +36,7 @@ public class BookingResponseDto {
         if (booking == null) return null;
         BookingResponseDto dto = new BookingResponseDto();
         dto.setId(booking.getId());
+        dto.setVersion(booking.getVersion());
         dto.setBooker(UserResponseDto.from(booking.getBooker()));
         dto.setItem(ItemResponseDto.from(booking.getItem()));
         dto.setStart(booking.getStart());
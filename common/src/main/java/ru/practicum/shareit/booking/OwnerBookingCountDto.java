@@ -0,0 +1,16 @@
+package ru.practicum.shareit.booking;
+
+import lombok.Data;
+
+@Data
+public class OwnerBookingCountDto {
+
+    private long waiting;
+
+    public static OwnerBookingCountDto of(long waiting) {
+        OwnerBookingCountDto dto = new OwnerBookingCountDto();
+        dto.setWaiting(waiting);
+        return dto;
+    }
+
+}
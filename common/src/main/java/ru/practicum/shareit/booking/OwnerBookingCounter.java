@@ -0,0 +1,39 @@
+package ru.practicum.shareit.booking;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+// An owner's count is spread over several stripe rows and summed on read, so concurrent transitions for the same
+// owner seldom queue on one row lock.
+@Data
+@Entity
+@Table(name = "owner_booking_counter_stripes")
+@IdClass(OwnerBookingCounter.Key.class)
+public class OwnerBookingCounter {
+
+    @Id
+    @Column(name = "owner_id")
+    private Long ownerId;
+
+    @Id
+    @Column(name = "stripe")
+    private Integer stripe;
+
+    @Column(name = "waiting_count", nullable = false)
+    private Long waitingCount;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+
+        private Long ownerId;
+        private Integer stripe;
+
+    }
+
+}
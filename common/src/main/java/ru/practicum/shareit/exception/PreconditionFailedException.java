@@ -0,0 +1,9 @@
+package ru.practicum.shareit.exception;
+
+public class PreconditionFailedException extends RuntimeException {
+
+    public PreconditionFailedException(String message) {
+        super(message);
+    }
+
+}
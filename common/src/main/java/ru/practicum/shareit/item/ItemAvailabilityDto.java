@@ -0,0 +1,28 @@
+package ru.practicum.shareit.item;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import lombok.Data;
+import ru.practicum.shareit.serializer.OffsetDateTimeDeserializer;
+import ru.practicum.shareit.serializer.OffsetDateTimeSerializer;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+@Data
+public class ItemAvailabilityDto {
+
+    private Long itemId;
+
+    @JsonSerialize(using = OffsetDateTimeSerializer.class)
+    @JsonDeserialize(using = OffsetDateTimeDeserializer.class)
+    private OffsetDateTime from;
+
+    @JsonSerialize(using = OffsetDateTimeSerializer.class)
+    @JsonDeserialize(using = OffsetDateTimeDeserializer.class)
+    private OffsetDateTime to;
+
+    private List<TimeIntervalDto> busy;
+    private List<TimeIntervalDto> free;
+
+}
@@ -0,0 +1,35 @@
+package ru.practicum.shareit.item;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+import java.time.OffsetDateTime;
+
+@Data
+@Entity
+@Table(name = "item_booking_summaries")
+public class ItemBookingSummary {
+
+    @Id
+    @Column(name = "item_id")
+    private Long itemId;
+
+    @MapsId
+    @OneToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "item_id")
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private Item item;
+
+    @Column(name = "last_booking")
+    private OffsetDateTime lastBooking;
+
+    @Column(name = "next_booking")
+    private OffsetDateTime nextBooking;
+
+    @Column(name = "valid_until")
+    private OffsetDateTime validUntil;
+
+}
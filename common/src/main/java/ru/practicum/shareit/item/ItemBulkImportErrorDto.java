@@ -0,0 +1,18 @@
+package ru.practicum.shareit.item;
+
+import lombok.Data;
+
+@Data
+public class ItemBulkImportErrorDto {
+
+    private Long row;
+    private String message;
+
+    public static ItemBulkImportErrorDto of(Long row, String message) {
+        ItemBulkImportErrorDto dto = new ItemBulkImportErrorDto();
+        dto.setRow(row);
+        dto.setMessage(message);
+        return dto;
+    }
+
+}
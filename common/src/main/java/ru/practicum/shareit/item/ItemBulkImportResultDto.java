@@ -0,0 +1,17 @@
+package ru.practicum.shareit.item;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class ItemBulkImportResultDto {
+
+    private long received;
+    private long imported;
+    private long failed;
+    // capped, so a broken upload of any size gives a bounded report; 'failed' has the full count
+    private List<ItemBulkImportErrorDto> errors = new ArrayList<>();
+
+}
@@ -0,0 +1,18 @@
+package ru.practicum.shareit.item;
+
+import lombok.Data;
+
+@Data
+public class ItemBulkRowDto {
+
+    private Long row;
+    private ItemCreateDto item;
+
+    public static ItemBulkRowDto of(Long row, ItemCreateDto item) {
+        ItemBulkRowDto dto = new ItemBulkRowDto();
+        dto.setRow(row);
+        dto.setItem(item);
+        return dto;
+    }
+
+}
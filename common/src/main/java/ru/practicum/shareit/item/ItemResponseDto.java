@@ -1,11 +1,17 @@
 package ru.practicum.shareit.item;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Data;
 
 @Data
 public class ItemResponseDto {
 
     private Long id;
+
+    // exposed as the ETag header rather than in the body
+    @JsonIgnore
+    private Long version;
+
     private String name;
     private String description;
     private Boolean available;
@@ -15,6 +21,7 @@ public class ItemResponseDto {
         if (item == null) return null;
         ItemResponseDto dto = new ItemResponseDto();
         dto.setId(item.getId());
+        dto.setVersion(item.getVersion());
         dto.setName(item.getName());
         dto.setDescription(item.getDescription());
         dto.setAvailable(item.getAvailable());
@@ -18,4 +18,12 @@ public class ItemResponseDtoForItemRequests {
         return dto;
     }
 
+    public static ItemResponseDtoForItemRequests of(Long id, String name, Long ownerId) {
+        ItemResponseDtoForItemRequests dto = new ItemResponseDtoForItemRequests();
+        dto.setId(id);
+        dto.setName(name);
+        dto.setOwnerId(ownerId);
+        return dto;
+    }
+
 }
\ No newline at end of file
@@ -28,6 +28,11 @@ public class ItemResponseExtendedViewDto {
     private OffsetDateTime nextBooking;
 
     public static ItemResponseExtendedViewDto from(Item item) {
+        if (item == null) return null;
+        return from(item, item.getComments());
+    }
+
+    public static ItemResponseExtendedViewDto from(Item item, List<Comment> comments) {
         if (item == null) return null;
         ItemResponseExtendedViewDto dto = new ItemResponseExtendedViewDto();
         dto.setId(item.getId());
@@ -35,7 +40,7 @@ public class ItemResponseExtendedViewDto {
         dto.setDescription(item.getDescription());
         dto.setAvailable(item.getAvailable());
         dto.setComments(
-                item.getComments().stream()
+                comments.stream()
                         .map(CommentResponseDto::from)
                         .toList()
         );
@@ -0,0 +1,29 @@
+package ru.practicum.shareit.item;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import lombok.Data;
+import ru.practicum.shareit.serializer.OffsetDateTimeDeserializer;
+import ru.practicum.shareit.serializer.OffsetDateTimeSerializer;
+
+import java.time.OffsetDateTime;
+
+@Data
+public class TimeIntervalDto {
+
+    @JsonSerialize(using = OffsetDateTimeSerializer.class)
+    @JsonDeserialize(using = OffsetDateTimeDeserializer.class)
+    private OffsetDateTime start;
+
+    @JsonSerialize(using = OffsetDateTimeSerializer.class)
+    @JsonDeserialize(using = OffsetDateTimeDeserializer.class)
+    private OffsetDateTime end;
+
+    public static TimeIntervalDto of(OffsetDateTime start, OffsetDateTime end) {
+        TimeIntervalDto dto = new TimeIntervalDto();
+        dto.setStart(start);
+        dto.setEnd(end);
+        return dto;
+    }
+
+}
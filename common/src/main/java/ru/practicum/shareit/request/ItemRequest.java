@@ -11,18 +11,25 @@ import java.util.List;
 
 @Data
 @Entity
+@Cacheable
 @Table(name = "requests")
 public class ItemRequest {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "requests_seq")
+    @SequenceGenerator(name = "requests_seq", sequenceName = "requests_seq", allocationSize = 50)
     @Column(name = "id")
     private Long id;
 
+    // requests themselves are immutable; the version moves with the items offered for them, see ItemRequestRepository
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     @Column(name = "description", length = 255, nullable = false)
     private String description;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "requestor_id")
     private User requestor;
 
@@ -0,0 +1,37 @@
+package ru.practicum.shareit.request;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+@Data
+@Entity
+@Table(name = "request_notifications")
+public class ItemRequestNotification {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "request_notifications_seq")
+    @SequenceGenerator(name = "request_notifications_seq", sequenceName = "request_notifications_seq",
+            allocationSize = 50)
+    @Column(name = "id")
+    private Long id;
+
+    @Column(name = "requestor_id", nullable = false)
+    private Long requestorId;
+
+    // numbered per requestor in commit order, this is the SSE event id the requestor sees
+    @Column(name = "seq", nullable = false)
+    private Long seq;
+
+    @Column(name = "request_id", nullable = false)
+    private Long requestId;
+
+    @Column(name = "item_id", nullable = false)
+    private Long itemId;
+
+    @Column(name = "item_name", length = 100, nullable = false)
+    private String itemName;
+
+    @Column(name = "owner_id", nullable = false)
+    private Long ownerId;
+
+}
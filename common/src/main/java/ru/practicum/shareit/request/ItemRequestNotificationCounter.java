@@ -0,0 +1,18 @@
+package ru.practicum.shareit.request;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+@Data
+@Entity
+@Table(name = "request_notification_counters")
+public class ItemRequestNotificationCounter {
+
+    @Id
+    @Column(name = "requestor_id")
+    private Long requestorId;
+
+    @Column(name = "last_seq", nullable = false)
+    private Long lastSeq;
+
+}
@@ -0,0 +1,22 @@
+package ru.practicum.shareit.request;
+
+import lombok.Data;
+
+@Data
+public class ItemRequestNotificationDto {
+
+    private Long requestId;
+    private Long itemId;
+    private String itemName;
+    private Long ownerId;
+
+    public static ItemRequestNotificationDto of(Long requestId, Long itemId, String itemName, Long ownerId) {
+        ItemRequestNotificationDto dto = new ItemRequestNotificationDto();
+        dto.setRequestId(requestId);
+        dto.setItemId(itemId);
+        dto.setItemName(itemName);
+        dto.setOwnerId(ownerId);
+        return dto;
+    }
+
+}
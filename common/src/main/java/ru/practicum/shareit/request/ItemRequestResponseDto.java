@@ -24,19 +24,24 @@ public class ItemRequestResponseDto {
     private List<ItemResponseDtoForItemRequests> items;
 
     public static ItemRequestResponseDto from(ItemRequest request) {
+        if (request == null) return null;
+        if (request.getItems() == null) return from(request, null);
+        return from(
+                request,
+                request.getItems().stream()
+                        .filter(Objects::nonNull)
+                        .map(ItemResponseDtoForItemRequests::from)
+                        .toList()
+        );
+    }
+
+    public static ItemRequestResponseDto from(ItemRequest request, List<ItemResponseDtoForItemRequests> items) {
         if (request == null) return null;
         ItemRequestResponseDto dto = new ItemRequestResponseDto();
         dto.setId(request.getId());
         dto.setDescription(request.getDescription());
         dto.setCreated(request.getCreated());
-        if (request.getItems() != null) {
-            dto.setItems(
-                    request.getItems().stream()
-                            .filter(Objects::nonNull)
-                            .map(ItemResponseDtoForItemRequests::from)
-                            .toList()
-            );
-        }
+        dto.setItems(items);
         return dto;
     }
 
@@ -5,18 +5,28 @@ import lombok.Data;
 
 @Data
 @Entity
+@Cacheable
 @Table(name = "users")
 public class User {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = 50)
     @Column(name = "id")
     private Long id;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     @Column(name = "name", length = 100, nullable = false)
     private String name;
 
     @Column(name = "email", length = 100, nullable = false, unique = true)
     private String email;
 
+    // drawn from users_change_seq by the column default and by every update, see UserRepository
+    @Column(name = "change_seq", insertable = false, updatable = false)
+    private Long changeSeq;
+
 }
\ No newline at end of file
@@ -1,11 +1,16 @@
 package ru.practicum.shareit.user;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Data;
 
 @Data
 public class UserResponseDto {
 
     private Long id;
+
+    @JsonIgnore
+    private Long version;
+
     private String name;
     private String email;
 
@@ -13,6 +18,7 @@ public class UserResponseDto {
         if (user == null) return null;
         UserResponseDto dto = new UserResponseDto();
         dto.setId(user.getId());
+        dto.setVersion(user.getVersion());
         dto.setName(user.getName());
         dto.setEmail(user.getEmail());
         return dto;
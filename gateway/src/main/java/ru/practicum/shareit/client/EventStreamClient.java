@@ -0,0 +1,87 @@
+package ru.practicum.shareit.client;
+
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+// Event streams stay open for minutes, so they get their own connections from the JDK client instead of
+// holding slots in the RestTemplate pool. Copying blocks the request thread, which is a virtual thread.
+@Slf4j
+@Component
+public class EventStreamClient {
+
+    public static final String LAST_EVENT_ID = "Last-Event-ID";
+
+    private static final String EVENT_STREAM_ACCEPT = "text/event-stream, application/json";
+
+    private final HttpClient httpClient;
+    private final String serverUrl;
+    private final String userIdHeader;
+
+    public EventStreamClient(
+            @Value("${shareit-server.url}") String serverUrl,
+            @Value("${shareit.api.auth.userheader}") String userIdHeader,
+            @Value("${shareit.event-stream.connect-timeout}") Duration connectTimeout
+    ) {
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(connectTimeout)
+                .build();
+        this.serverUrl = serverUrl;
+        this.userIdHeader = userIdHeader;
+    }
+
+    public void relay(String endPoint, Long userId, HttpServletResponse target) {
+        relay(endPoint, userId, null, target);
+    }
+
+    // error statuses are copied through like any other response, the server already renders them as JSON
+    public void relay(String endPoint, Long userId, String lastEventId, HttpServletResponse target) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(serverUrl + endPoint))
+                .header(HttpHeaders.ACCEPT, EVENT_STREAM_ACCEPT)
+                .GET();
+        if (userId != null) request.header(userIdHeader, String.valueOf(userId));
+        if (lastEventId != null) request.header(LAST_EVENT_ID, lastEventId);
+
+        HttpResponse<InputStream> response;
+        try {
+            response = httpClient.send(request.build(), HttpResponse.BodyHandlers.ofInputStream());
+        } catch (IOException e) {
+            throw new ResourceAccessException("I/O error on GET request for \"" + endPoint + "\": " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ResourceAccessException("Interrupted on GET request for \"" + endPoint + "\"");
+        }
+
+        try (InputStream body = response.body()) {
+            target.setStatus(response.statusCode());
+            response.headers().firstValue(HttpHeaders.CONTENT_TYPE).ifPresent(target::setContentType);
+            target.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+            target.setHeader("X-Accel-Buffering", "no");
+            OutputStream out = target.getOutputStream();
+            target.flushBuffer();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = body.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+                out.flush();
+            }
+        } catch (IOException e) {
+            // either side hanging up ends the relay; closing the body releases the server connection
+            log.debug("EVENT STREAM {} FOR USER {} CLOSED: {}", endPoint, userId, e.getMessage());
+        }
+    }
+
+}
@@ -1,5 +1,6 @@
 package ru.practicum.shareit.client;
 
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
@@ -16,9 +17,15 @@ public class HttpClientService {
     private String userIdHeader;
 
     public ResponseEntity<Object> get(String endPoint, Long userId) {
+        return get(endPoint, userId, null);
+    }
+
+    // a 304 from the server is not an error for RestTemplate and is relayed as is, together with its ETag
+    public ResponseEntity<Object> get(String endPoint, Long userId, String ifNoneMatch) {
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.APPLICATION_JSON);
         if (userId != null) headers.set(userIdHeader, String.valueOf(userId));
+        if (ifNoneMatch != null) headers.set(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
         HttpEntity<String> request = new HttpEntity<>("", headers);
         return restTemplate.exchange(endPoint, HttpMethod.GET, request, Object.class);
     }
@@ -32,9 +39,15 @@ public class HttpClientService {
     }
 
     public ResponseEntity<Object> patch(String endPoint, Long userId, Object object) {
+        return patch(endPoint, userId, object, null);
+    }
+
+    // If-Match is passed through untouched so the server can reject writes against a stale version
+    public ResponseEntity<Object> patch(String endPoint, Long userId, Object object, String ifMatch) {
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.APPLICATION_JSON);
         if (userId != null) headers.set(userIdHeader, String.valueOf(userId));
+        if (ifMatch != null) headers.set(HttpHeaders.IF_MATCH, ifMatch);
         HttpEntity<Object> request = new HttpEntity<>(object, headers);
         return restTemplate.exchange(endPoint, HttpMethod.PATCH, request, Object.class);
     }
@@ -47,5 +60,34 @@ public class HttpClientService {
         return restTemplate.exchange(endPoint, HttpMethod.DELETE, request, Object.class);
     }
 
+    // the body is written straight to the connection instead of being buffered, so uploads of any size
+    // pass through in constant memory
+    public <T> ResponseEntity<T> postStream(String endPoint, Long userId, MediaType contentType,
+                                            StreamingHttpOutputMessage.Body body, Class<T> responseType) {
+        return restTemplate.execute(endPoint, HttpMethod.POST, request -> {
+            request.getHeaders().setContentType(contentType);
+            if (userId != null) request.getHeaders().set(userIdHeader, String.valueOf(userId));
+            if (request instanceof StreamingHttpOutputMessage streamingRequest) {
+                streamingRequest.setBody(body);
+            } else {
+                body.writeTo(request.getBody());
+            }
+        }, restTemplate.responseEntityExtractor(responseType));
+    }
+
+    // copies the server response to the client as it arrives; error statuses are still raised as
+    // HttpClientErrorException before anything is written
+    public void getStream(String endPoint, Long userId, HttpServletResponse target) {
+        restTemplate.execute(endPoint, HttpMethod.GET, request -> {
+            if (userId != null) request.getHeaders().set(userIdHeader, String.valueOf(userId));
+        }, response -> {
+            target.setStatus(response.getStatusCode().value());
+            MediaType contentType = response.getHeaders().getContentType();
+            if (contentType != null) target.setContentType(contentType.toString());
+            response.getBody().transferTo(target.getOutputStream());
+            target.flushBuffer();
+            return null;
+        });
+    }
 
-}
\ No newline at end of file
+}
@@ -1,14 +1,18 @@
 package ru.practicum.shareit.controllers;
 
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Positive;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.booking.BookingApiState;
+import ru.practicum.shareit.booking.BookingBatchDecisionDto;
 import ru.practicum.shareit.booking.BookingCreateDto;
+import ru.practicum.shareit.client.EventStreamClient;
 import ru.practicum.shareit.client.HttpClientService;
 import ru.practicum.shareit.validation.UserIdHeader;
 
@@ -19,6 +23,7 @@ import ru.practicum.shareit.validation.UserIdHeader;
 public class BookingController {
 
     private final HttpClientService httpClientService;
+    private final EventStreamClient eventStreamClient;
 
     @PostMapping
     public ResponseEntity<Object> post(
@@ -28,13 +33,31 @@ public class BookingController {
         return httpClientService.post("/bookings", userId, bookingCreateDto);
     }
 
+    @PatchMapping("/batch")
+    public ResponseEntity<Object> patchBatch(
+            @UserIdHeader @Positive(message = "User Id not valid") Long userId,
+            @Valid @RequestBody BookingBatchDecisionDto batchDecisionDto
+    ) {
+        return httpClientService.patch("/bookings/batch", userId, batchDecisionDto);
+    }
+
     @PatchMapping("/{bookingId}")
     public ResponseEntity<Object> patch(
             @UserIdHeader @Positive(message = "User Id not valid") Long userId,
             @PathVariable @Positive(message = "Booking Id not valid") Long bookingId,
-            @RequestParam(required = true) @Pattern(regexp = "(?i)true|false") String approved
+            @RequestParam(required = true) @Pattern(regexp = "(?i)true|false") String approved,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
     ) {
-        return httpClientService.patch("/bookings/" + bookingId + "?approved=" + approved, userId, null);
+        return httpClientService.patch("/bookings/" + bookingId + "?approved=" + approved, userId, null, ifMatch);
+    }
+
+    @PatchMapping("/{bookingId}/cancel")
+    public ResponseEntity<Object> cancel(
+            @UserIdHeader @Positive(message = "User Id not valid") Long userId,
+            @PathVariable @Positive(message = "Booking Id not valid") Long bookingId,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
+    ) {
+        return httpClientService.patch("/bookings/" + bookingId + "/cancel", userId, null, ifMatch);
     }
 
     @GetMapping("/{bookingId}")
@@ -61,4 +84,49 @@ public class BookingController {
         return httpClientService.get("/bookings/owner?state=" + state.toString(), userId);
     }
 
-}
\ No newline at end of file
+    @GetMapping("/owner/count")
+    public ResponseEntity<Object> getOwnerBookingCount(
+            @UserIdHeader @Positive(message = "User Id not valid") Long userId
+    ) {
+        return httpClientService.get("/bookings/owner/count", userId);
+    }
+
+    @GetMapping("/changes")
+    public ResponseEntity<Object> getBookerChanges(
+            @UserIdHeader @Positive(message = "User Id not valid") Long userId,
+            @RequestParam(required = false)
+            @Pattern(regexp = "\\d{1,18}", message = "Change token not valid") String since
+    ) {
+        return httpClientService.get("/bookings/changes" + sinceQuery(since), userId);
+    }
+
+    @GetMapping("/owner/changes")
+    public ResponseEntity<Object> getOwnerChanges(
+            @UserIdHeader @Positive(message = "User Id not valid") Long userId,
+            @RequestParam(required = false)
+            @Pattern(regexp = "\\d{1,18}", message = "Change token not valid") String since
+    ) {
+        return httpClientService.get("/bookings/owner/changes" + sinceQuery(since), userId);
+    }
+
+    @GetMapping("/notifications")
+    public void notifications(
+            @UserIdHeader @Positive(message = "User Id not valid") Long userId,
+            HttpServletResponse response
+    ) {
+        eventStreamClient.relay("/bookings/notifications", userId, response);
+    }
+
+    @GetMapping("/owner/export")
+    public void exportOwnerBookings(
+            @UserIdHeader @Positive(message = "User Id not valid") Long userId,
+            HttpServletResponse response
+    ) {
+        httpClientService.getStream("/bookings/owner/export", userId, response);
+    }
+
+    private static String sinceQuery(String since) {
+        return since == null ? "" : "?since=" + since;
+    }
+
+}
@@ -3,16 +3,23 @@ package ru.practicum.shareit.controllers;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Positive;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.client.HttpClientService;
 import ru.practicum.shareit.item.CommentCreateDto;
+import ru.practicum.shareit.item.ItemBulkImportService;
 import ru.practicum.shareit.item.ItemCreateDto;
 import ru.practicum.shareit.item.ItemUpdateDto;
 import ru.practicum.shareit.validation.UserIdHeader;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -22,6 +29,7 @@ import java.util.List;
 public class ItemController {
 
     private final HttpClientService httpClientService;
+    private final ItemBulkImportService itemBulkImportService;
 
     @PostMapping
     public ResponseEntity<Object> create(
@@ -31,13 +39,30 @@ public class ItemController {
         return httpClientService.post("/items", userId, itemCreateDto);
     }
 
+    @PostMapping(path = "/bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<Object> bulkImportNdjson(
+            @UserIdHeader @Positive(message = "User Id not valid") Long userId,
+            InputStream body
+    ) {
+        return itemBulkImportService.importNdjson(userId, body);
+    }
+
+    @PostMapping(path = "/bulk", consumes = "text/csv")
+    public ResponseEntity<Object> bulkImportCsv(
+            @UserIdHeader @Positive(message = "User Id not valid") Long userId,
+            InputStream body
+    ) throws IOException {
+        return itemBulkImportService.importCsv(userId, body);
+    }
+
     @PatchMapping("/{itemId}")
     public ResponseEntity<Object> update(
             @UserIdHeader @Positive(message = "User Id not valid") Long userId,
             @PathVariable @Positive(message = "Item Id not valid") Long itemId,
-            @Valid @RequestBody ItemUpdateDto itemUpdateDto
+            @Valid @RequestBody ItemUpdateDto itemUpdateDto,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
     ) {
-        return httpClientService.patch("/items/" + itemId, userId, itemUpdateDto);
+        return httpClientService.patch("/items/" + itemId, userId, itemUpdateDto, ifMatch);
     }
 
     @DeleteMapping("/{itemId}")
@@ -51,9 +76,10 @@ public class ItemController {
     @GetMapping("/{itemId}")
     public ResponseEntity<Object> getById(
             @UserIdHeader @Positive(message = "User Id not valid") Long userId,
-            @PathVariable @Positive(message = "Item Id not valid") Long itemId
+            @PathVariable @Positive(message = "Item Id not valid") Long itemId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
     ) {
-        return httpClientService.get("/items/" + itemId, userId);
+        return httpClientService.get("/items/" + itemId, userId, ifNoneMatch);
     }
 
     @GetMapping
@@ -71,6 +97,17 @@ public class ItemController {
         return httpClientService.get("/items/search?text=" + text, null);
     }
 
+    @GetMapping("/{itemId}/availability")
+    public ResponseEntity<Object> getAvailability(
+            @UserIdHeader @Positive(message = "User Id not valid") Long userId,
+            @PathVariable @Positive(message = "Item Id not valid") Long itemId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to
+    ) {
+        if (!from.isBefore(to)) throw new IllegalArgumentException("Parameter 'from' should be before 'to'");
+        return httpClientService.get("/items/" + itemId + "/availability?from=" + from + "&to=" + to, userId);
+    }
+
     @PostMapping("/{itemId}/comment")
     public ResponseEntity<Object> addComment(
             @UserIdHeader @Positive(message = "User Id not valid") Long userId,
@@ -1,11 +1,15 @@
 package ru.practicum.shareit.controllers;
 
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Positive;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.client.EventStreamClient;
 import ru.practicum.shareit.client.HttpClientService;
 import ru.practicum.shareit.request.ItemRequestCreateDto;
 import ru.practicum.shareit.validation.UserIdHeader;
@@ -17,6 +21,7 @@ import ru.practicum.shareit.validation.UserIdHeader;
 public class ItemRequestController {
 
     private final HttpClientService httpClientService;
+    private final EventStreamClient eventStreamClient;
 
     @PostMapping
     public ResponseEntity<Object> create(
@@ -29,9 +34,10 @@ public class ItemRequestController {
     @GetMapping("/{requestId}")
     public ResponseEntity<Object> getById(
             @UserIdHeader @Positive(message = "User Id not valid") Long userId,
-            @PathVariable @Positive(message = "Request Id not valid") Long requestId
+            @PathVariable @Positive(message = "Request Id not valid") Long requestId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
     ) {
-        return httpClientService.get("/requests/" + requestId, userId);
+        return httpClientService.get("/requests/" + requestId, userId, ifNoneMatch);
     }
 
     @GetMapping
@@ -41,6 +47,16 @@ public class ItemRequestController {
         return httpClientService.get("/requests", userId);
     }
 
+    @GetMapping("/notifications")
+    public void notifications(
+            @UserIdHeader @Positive(message = "User Id not valid") Long userId,
+            @RequestHeader(value = EventStreamClient.LAST_EVENT_ID, required = false)
+            @Pattern(regexp = "[\\w-]{1,64}", message = "Last event id not valid") String lastEventId,
+            HttpServletResponse response
+    ) {
+        eventStreamClient.relay("/requests/notifications", userId, lastEventId, response);
+    }
+
     @GetMapping("/all")
     public ResponseEntity<Object> getOthersRequests(
             @UserIdHeader @Positive(message = "User Id not valid") Long userId
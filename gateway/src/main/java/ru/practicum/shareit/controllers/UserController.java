@@ -3,6 +3,7 @@ package ru.practicum.shareit.controllers;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Positive;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
@@ -25,9 +26,10 @@ public class UserController {
 
     @GetMapping("/{id}")
     public ResponseEntity<Object> getById(
-            @PathVariable @Positive(message = "User Id not valid") Long id
+            @PathVariable @Positive(message = "User Id not valid") Long id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
     ) {
-        return httpClientService.get("/users/" + id, null);
+        return httpClientService.get("/users/" + id, null, ifNoneMatch);
     }
 
     @PostMapping
@@ -40,9 +42,10 @@ public class UserController {
     @PatchMapping("/{id}")
     public ResponseEntity<Object> patch(
             @Valid @RequestBody UserUpdateDto userUpdateDto,
-            @PathVariable @Positive(message = "User Id not valid") Long id
+            @PathVariable @Positive(message = "User Id not valid") Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
     ) {
-        return httpClientService.patch("/users/" + id, null, userUpdateDto);
+        return httpClientService.patch("/users/" + id, null, userUpdateDto, ifMatch);
     }
 
     @DeleteMapping("/{id}")
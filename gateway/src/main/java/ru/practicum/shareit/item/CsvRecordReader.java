@@ -0,0 +1,59 @@
+package ru.practicum.shareit.item;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+// Minimal RFC 4180 reader: quoted fields may contain commas, doubled quotes and line breaks.
+// Reads one record at a time, so memory use does not depend on the size of the input.
+class CsvRecordReader {
+
+    private final Reader reader;
+    private int pending = -1;
+
+    CsvRecordReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    List<String> next() throws IOException {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean inQuotes = false;
+        boolean empty = true;
+        int c;
+        while ((c = read()) != -1) {
+            empty = false;
+            if (inQuotes) {
+                if (c != '"') {
+                    field.append((char) c);
+                } else if ((c = read()) == '"') {
+                    field.append('"');
+                } else {
+                    inQuotes = false;
+                    pending = c;
+                }
+            } else if (c == '"' && field.isEmpty()) {
+                inQuotes = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n') {
+                break;
+            } else if (c != '\r') {
+                field.append((char) c);
+            }
+        }
+        if (empty) return null;
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private int read() throws IOException {
+        if (pending == -1) return reader.read();
+        int c = pending;
+        pending = -1;
+        return c;
+    }
+
+}
@@ -0,0 +1,179 @@
+package ru.practicum.shareit.item;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import ru.practicum.shareit.client.HttpClientService;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// Parses and validates the upload row by row while forwarding the valid rows to the server as NDJSON,
+// so neither the upload nor the forwarded body is ever held in memory.
+@Service
+@RequiredArgsConstructor
+public class ItemBulkImportService {
+
+    private static final List<String> REQUIRED_CSV_COLUMNS = List.of("name", "description", "available");
+
+    private final HttpClientService httpClientService;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+
+    @Value("${shareit.item.bulk-import.max-reported-errors}")
+    private int maxReportedErrors;
+
+    public ResponseEntity<Object> importNdjson(Long userId, InputStream body) {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        long[] lineNumber = {0};
+        return forward(userId, () -> {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber[0]++;
+                if (line.isBlank()) continue;
+                try {
+                    return ParsedRow.valid(lineNumber[0], objectMapper.readValue(line, ItemCreateDto.class));
+                } catch (JsonProcessingException e) {
+                    return ParsedRow.invalid(lineNumber[0], "Malformed JSON");
+                }
+            }
+            return null;
+        });
+    }
+
+    public ResponseEntity<Object> importCsv(Long userId, InputStream body) throws IOException {
+        CsvRecordReader reader = new CsvRecordReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        List<String> header = reader.next();
+        if (header == null) throw new IllegalArgumentException("CSV header is missing");
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        for (String column : REQUIRED_CSV_COLUMNS) {
+            if (!columns.containsKey(column)) throw new IllegalArgumentException("CSV column '" + column + "' is missing");
+        }
+
+        long[] rowNumber = {0};
+        return forward(userId, () -> {
+            List<String> record;
+            while ((record = reader.next()) != null) {
+                rowNumber[0]++;
+                if (record.size() == 1 && record.getFirst().isBlank()) continue;
+                if (record.size() != header.size()) {
+                    return ParsedRow.invalid(rowNumber[0], "Expected " + header.size() + " columns but got "
+                            + record.size());
+                }
+                return parseCsvRecord(rowNumber[0], record, columns);
+            }
+            return null;
+        });
+    }
+
+    private ParsedRow parseCsvRecord(long row, List<String> record, Map<String, Integer> columns) {
+        ItemCreateDto dto = new ItemCreateDto();
+        dto.setName(record.get(columns.get("name")));
+        dto.setDescription(record.get(columns.get("description")));
+
+        String available = record.get(columns.get("available")).trim();
+        if (!available.isEmpty()) {
+            if (!available.equalsIgnoreCase("true") && !available.equalsIgnoreCase("false")) {
+                return ParsedRow.invalid(row, "Field 'available' should be true or false");
+            }
+            dto.setAvailable(Boolean.parseBoolean(available));
+        }
+
+        Integer requestIdColumn = columns.get("requestid");
+        String requestId = requestIdColumn == null ? "" : record.get(requestIdColumn).trim();
+        if (!requestId.isEmpty()) {
+            try {
+                dto.setRequestId(Long.parseLong(requestId));
+            } catch (NumberFormatException e) {
+                return ParsedRow.invalid(row, "Field 'requestId' should be a number");
+            }
+        }
+        return ParsedRow.valid(row, dto);
+    }
+
+    private ResponseEntity<Object> forward(Long userId, RowReader rows) {
+        ItemBulkImportResultDto gatewayResult = new ItemBulkImportResultDto();
+        ResponseEntity<ItemBulkImportResultDto> response = httpClientService.postStream("/items/bulk", userId,
+                MediaType.APPLICATION_NDJSON, out -> writeValidRows(rows, out, gatewayResult),
+                ItemBulkImportResultDto.class);
+
+        ItemBulkImportResultDto serverResult = response.getBody() == null ? new ItemBulkImportResultDto()
+                : response.getBody();
+        ItemBulkImportResultDto result = new ItemBulkImportResultDto();
+        result.setReceived(gatewayResult.getReceived());
+        result.setImported(serverResult.getImported());
+        result.setFailed(gatewayResult.getFailed() + serverResult.getFailed());
+        result.setErrors(mergeErrors(gatewayResult.getErrors(), serverResult.getErrors()));
+        return ResponseEntity.status(response.getStatusCode()).body(result);
+    }
+
+    private void writeValidRows(RowReader rows, OutputStream out, ItemBulkImportResultDto result) throws IOException {
+        ParsedRow row;
+        while ((row = rows.next()) != null) {
+            result.setReceived(result.getReceived() + 1);
+            String error = row.error() != null ? row.error() : validate(row.item());
+            if (error != null) {
+                result.setFailed(result.getFailed() + 1);
+                if (result.getErrors().size() < maxReportedErrors) {
+                    result.getErrors().add(ItemBulkImportErrorDto.of(row.row(), error));
+                }
+                continue;
+            }
+            out.write(objectMapper.writeValueAsBytes(ItemBulkRowDto.of(row.row(), row.item())));
+            out.write('\n');
+        }
+    }
+
+    private String validate(ItemCreateDto dto) {
+        return validator.validate(dto).stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .collect(Collectors.collectingAndThen(Collectors.joining("; "), s -> s.isEmpty() ? null : s));
+    }
+
+    private List<ItemBulkImportErrorDto> mergeErrors(List<ItemBulkImportErrorDto> first,
+                                                     List<ItemBulkImportErrorDto> second) {
+        return Stream.concat(first.stream(), second.stream())
+                .sorted(Comparator.comparing(ItemBulkImportErrorDto::getRow))
+                .limit(maxReportedErrors)
+                .toList();
+    }
+
+    private interface RowReader {
+        // null once the upload is exhausted
+        ParsedRow next() throws IOException;
+    }
+
+    private record ParsedRow(long row, ItemCreateDto item, String error) {
+
+        static ParsedRow valid(long row, ItemCreateDto item) {
+            return new ParsedRow(row, item, null);
+        }
+
+        static ParsedRow invalid(long row, String error) {
+            return new ParsedRow(row, null, error);
+        }
+
+    }
+
+}
@@ -0,0 +1,98 @@
+package ru.practicum.shareit.client;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class EventStreamClientTest {
+
+    private HttpServer server;
+    private EventStreamClient client;
+    private final AtomicReference<String> receivedUserId = new AtomicReference<>();
+    private final AtomicReference<String> receivedLastEventId = new AtomicReference<>();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/stream", exchange -> {
+            receivedUserId.set(exchange.getRequestHeaders().getFirst("X-Sharer-User-Id"));
+            receivedLastEventId.set(exchange.getRequestHeaders().getFirst("Last-Event-ID"));
+            exchange.getResponseHeaders().set("Content-Type", "text/event-stream");
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write("event:created\ndata:{\"bookingId\":1}\n\n".getBytes(StandardCharsets.UTF_8));
+                out.flush();
+                out.write(":heartbeat\n\n".getBytes(StandardCharsets.UTF_8));
+            }
+        });
+        server.createContext("/missing", exchange -> {
+            byte[] body = "{\"error\":\"Not Found\"}".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(404, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+        client = new EventStreamClient("http://localhost:" + server.getAddress().getPort(), "X-Sharer-User-Id",
+                Duration.ofSeconds(5));
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    void relay() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        client.relay("/stream", 1L, response);
+
+        assertEquals("1", receivedUserId.get());
+        assertNull(receivedLastEventId.get());
+        assertEquals(200, response.getStatus());
+        assertEquals("text/event-stream", response.getContentType());
+        assertEquals("no-cache", response.getHeader("Cache-Control"));
+        assertEquals("event:created\ndata:{\"bookingId\":1}\n\n:heartbeat\n\n", response.getContentAsString());
+    }
+
+    @Test
+    void relayLastEventId() {
+        client.relay("/stream", 1L, "1700000000000-42", new MockHttpServletResponse());
+
+        assertEquals("1700000000000-42", receivedLastEventId.get());
+    }
+
+    @Test
+    void relayError() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        client.relay("/missing", 1L, response);
+
+        assertEquals(404, response.getStatus());
+        assertEquals("{\"error\":\"Not Found\"}", response.getContentAsString());
+    }
+
+    @Test
+    void serverDown() {
+        server.stop(0);
+
+        assertThrows(ResourceAccessException.class, () -> client.relay("/stream", 1L, new MockHttpServletResponse()));
+    }
+
+}
@@ -6,10 +6,17 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.client.RequestCallback;
+import org.springframework.web.client.ResponseExtractor;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.web.client.RestTemplate;
 
+import java.nio.charset.StandardCharsets;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.when;
@@ -71,4 +78,22 @@ class HttpClientServiceTest {
         assertEquals("DELETE OK", response.getBody());
     }
 
-}
\ No newline at end of file
+    @Test
+    void getStream() throws Exception {
+        when(restTemplate.execute(eq("/test"), eq(HttpMethod.GET), any(RequestCallback.class),
+                any(ResponseExtractor.class))).thenAnswer(invocation -> {
+                    MockClientHttpResponse serverResponse = new MockClientHttpResponse(
+                            "{\"id\":1}\n{\"id\":2}\n".getBytes(StandardCharsets.UTF_8), HttpStatus.OK);
+                    serverResponse.getHeaders().setContentType(MediaType.APPLICATION_NDJSON);
+                    return invocation.getArgument(3, ResponseExtractor.class).extractData(serverResponse);
+                });
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        httpClientService.getStream("/test", 1L, response);
+
+        assertEquals(HttpStatus.OK.value(), response.getStatus());
+        assertEquals(MediaType.APPLICATION_NDJSON_VALUE, response.getContentType());
+        assertEquals("{\"id\":1}\n{\"id\":2}\n", response.getContentAsString());
+    }
+
+}
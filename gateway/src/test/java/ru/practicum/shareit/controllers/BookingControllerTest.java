@@ -15,9 +15,16 @@ import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultHandlers;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.context.WebApplicationContext;
+import ru.practicum.shareit.booking.BookingBatchDecisionDto;
+import ru.practicum.shareit.booking.BookingChangesDto;
 import ru.practicum.shareit.booking.BookingCreateDto;
+import ru.practicum.shareit.booking.BookingDecisionDto;
+import ru.practicum.shareit.booking.BookingDecisionOutcome;
+import ru.practicum.shareit.booking.BookingDecisionResultDto;
 import ru.practicum.shareit.booking.BookingResponseDto;
 import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.OwnerBookingCountDto;
+import ru.practicum.shareit.client.EventStreamClient;
 import ru.practicum.shareit.client.HttpClientService;
 import ru.practicum.shareit.exception.ErrorResponse;
 import ru.practicum.shareit.item.ItemResponseDto;
@@ -34,6 +41,7 @@ import java.util.List;
 import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
@@ -45,6 +53,9 @@ public class BookingControllerTest {
     @MockitoBean
     private HttpClientService httpClientService;
 
+    @MockitoBean
+    private EventStreamClient eventStreamClient;
+
     @Autowired
     private WebApplicationContext context;
 
@@ -138,6 +149,63 @@ public class BookingControllerTest {
                 .andExpect(jsonPath("$.error", is("Validation Failed")));
     }
 
+    @Test
+    void batchValidation() throws Exception {
+        mvc.perform(patch("/bookings/batch").content(mapper.writeValueAsString(BookingBatchDecisionDto.of(List.of()))))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error", is("Validation Failed")));
+        mvc.perform(patch("/bookings/batch").content(mapper.writeValueAsString(
+                        BookingBatchDecisionDto.of(List.of(BookingDecisionDto.of(0L, true))))))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error", is("Validation Failed")));
+        mvc.perform(patch("/bookings/batch").content(mapper.writeValueAsString(
+                        BookingBatchDecisionDto.of(List.of(BookingDecisionDto.of(1L, null))))))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error", is("Validation Failed")));
+
+        when(httpClientService.patch(eq("/bookings/batch"), eq(1L), any()))
+                .thenReturn(ResponseEntity.ok(List.of(BookingDecisionResultDto.of(1L, BookingDecisionOutcome.APPROVED))));
+        mvc.perform(patch("/bookings/batch").content(mapper.writeValueAsString(
+                        BookingBatchDecisionDto.of(List.of(BookingDecisionDto.of(1L, true))))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].outcome", is("APPROVED")));
+    }
+
+    @Test
+    void ownerCount() throws Exception {
+        when(httpClientService.get(eq("/bookings/owner/count"), eq(1L)))
+                .thenReturn(ResponseEntity.ok(OwnerBookingCountDto.of(3)));
+        mvc.perform(get("/bookings/owner/count"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.waiting", is(3)));
+    }
+
+    @Test
+    void changes() throws Exception {
+        mvc.perform(get("/bookings/changes?since=abc"))
+                .andExpect(status().isBadRequest());
+
+        when(httpClientService.get(eq("/bookings/changes?since=42"), eq(1L)))
+                .thenReturn(ResponseEntity.ok(BookingChangesDto.of(List.of(), "42", false)));
+        mvc.perform(get("/bookings/changes?since=42"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.token", is("42")))
+                .andExpect(jsonPath("$.hasMore", is(false)));
+
+        when(httpClientService.get(eq("/bookings/owner/changes"), eq(1L)))
+                .thenReturn(ResponseEntity.ok(BookingChangesDto.of(List.of(), "0", false)));
+        mvc.perform(get("/bookings/owner/changes"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.token", is("0")));
+    }
+
+    @Test
+    void notifications() throws Exception {
+        mvc.perform(get("/bookings/notifications"))
+                .andExpect(status().isOk());
+        verify(eventStreamClient).relay(eq("/bookings/notifications"), eq(1L), any());
+    }
+
     @Test
     void endValidation() throws Exception {
         BookingCreateDto bookingCreateDto = new BookingCreateDto();
@@ -170,7 +238,7 @@ public class BookingControllerTest {
                 .andExpect(status().isNotFound())
                 .andExpect(jsonPath("$.error", is("Not Found")));
 
-        when(httpClientService.patch(eq("/bookings/1?approved=false"), eq(1L), any())).thenReturn(responseEntity);
+        when(httpClientService.patch(eq("/bookings/1?approved=false"), eq(1L), any(), any())).thenReturn(responseEntity);
         ItemUpdateDto itemUpdateDto = new ItemUpdateDto();
         itemUpdateDto.setName("new name");
         mvc.perform(patch("/bookings/1?approved=false").content(mapper.writeValueAsString(itemUpdateDto)))
@@ -222,7 +290,7 @@ public class BookingControllerTest {
                 .andExpect(jsonPath("$.end", is(bookingResponseDto.getEnd().atZoneSameInstant(zoneId).format(formatter))))
                 .andExpect(jsonPath("$.status", is(bookingResponseDto.getStatus().toString())));
 
-        when(httpClientService.patch(eq("/bookings/1?approved=true"), eq(1L), any()))
+        when(httpClientService.patch(eq("/bookings/1?approved=true"), eq(1L), any(), any()))
                 .thenReturn(ResponseEntity.status(HttpStatus.OK).body(bookingResponseDto));
 
         mvc.perform(patch("/bookings/1?approved=true"))
@@ -240,6 +308,13 @@ public class BookingControllerTest {
                 .andExpect(jsonPath("$.end", is(bookingResponseDto.getEnd().atZoneSameInstant(zoneId).format(formatter))))
                 .andExpect(jsonPath("$.status", is(bookingResponseDto.getStatus().toString())));
 
+        when(httpClientService.patch(eq("/bookings/1/cancel"), eq(1L), any(), any()))
+                .thenReturn(ResponseEntity.status(HttpStatus.OK).body(bookingResponseDto));
+
+        mvc.perform(patch("/bookings/1/cancel"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id", is(bookingResponseDto.getId().intValue())));
+
         when(httpClientService.get(eq("/bookings/1"), eq(1L)))
                 .thenReturn(ResponseEntity.status(HttpStatus.OK).body(bookingResponseDto));
 
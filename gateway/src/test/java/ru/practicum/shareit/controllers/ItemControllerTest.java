@@ -6,6 +6,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -31,6 +32,7 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -40,6 +42,9 @@ public class ItemControllerTest {
     @MockitoBean
     private HttpClientService httpClientService;
 
+    @MockitoBean
+    private ItemBulkImportService itemBulkImportService;
+
     @Autowired
     private WebApplicationContext context;
 
@@ -110,6 +115,34 @@ public class ItemControllerTest {
                 .andExpect(jsonPath("$.error", is("Illegal Argument")));
     }
 
+    @Test
+    void availabilityValidation() throws Exception {
+        mvc.perform(get("/items/1/availability?from=2030-01-02T00:00:00&to=2030-01-01T00:00:00"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error", is("Illegal Argument")));
+        mvc.perform(get("/items/1/availability?from=2030-01-01T00:00:00&to=tomorrow"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error", is("Illegal Argument")));
+    }
+
+    @Test
+    void bulkImport() throws Exception {
+        when(itemBulkImportService.importNdjson(eq(1L), any()))
+                .thenReturn(ResponseEntity.ok(new ItemBulkImportResultDto()));
+        when(itemBulkImportService.importCsv(eq(1L), any()))
+                .thenReturn(ResponseEntity.ok(new ItemBulkImportResultDto()));
+
+        mvc.perform(post("/items/bulk").contentType(MediaType.APPLICATION_NDJSON).content("{}\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported", is(0)));
+        mvc.perform(post("/items/bulk").contentType("text/csv").content("name,description,available\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported", is(0)));
+        mvc.perform(post("/items/bulk").contentType(MediaType.APPLICATION_NDJSON).content("")
+                        .header(userIdHeader, "0"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void nameValidation() throws Exception {
         ItemCreateDto itemCreateDto = new ItemCreateDto();
@@ -192,7 +225,7 @@ public class ItemControllerTest {
                 .build();
         ResponseEntity<Object> responseEntity = ResponseEntity.status(HttpStatus.NOT_FOUND).body(notFoundResponse);
 
-        when(httpClientService.get(eq("/items/1"), eq(1L))).thenReturn(responseEntity);
+        when(httpClientService.get(eq("/items/1"), eq(1L), any())).thenReturn(responseEntity);
         mvc.perform(get("/items/1").content(""))
                 .andExpect(status().isNotFound())
                 .andExpect(jsonPath("$.error", is("Not Found")));
@@ -203,7 +236,7 @@ public class ItemControllerTest {
                 .andExpect(status().isNotFound())
                 .andExpect(jsonPath("$.error", is("Not Found")));
 
-        when(httpClientService.patch(eq("/items/1"), eq(1L), any())).thenReturn(responseEntity);
+        when(httpClientService.patch(eq("/items/1"), eq(1L), any(), any())).thenReturn(responseEntity);
         ItemUpdateDto itemUpdateDto = new ItemUpdateDto();
         itemUpdateDto.setName("new name");
         mvc.perform(patch("/items/1").content(mapper.writeValueAsString(itemUpdateDto)))
@@ -253,7 +286,7 @@ public class ItemControllerTest {
                 .andExpect(jsonPath("$.name", is(itemResponseDto.getName())))
                 .andExpect(jsonPath("$.description", is(itemResponseDto.getDescription())));
 
-        when(httpClientService.patch(eq("/items/1"), eq(1L), any()))
+        when(httpClientService.patch(eq("/items/1"), eq(1L), any(), any()))
                 .thenReturn(ResponseEntity.status(HttpStatus.OK).body(itemResponseDto));
 
         mvc.perform(patch("/items/1").content(mapper.writeValueAsString(itemUpdateDto)))
@@ -262,6 +295,14 @@ public class ItemControllerTest {
                 .andExpect(jsonPath("$.name", is(itemResponseDto.getName())))
                 .andExpect(jsonPath("$.description", is(itemResponseDto.getDescription())));
 
+        when(httpClientService.patch(eq("/items/1"), eq(1L), any(), eq("\"3\"")))
+                .thenReturn(ResponseEntity.status(HttpStatus.OK).eTag("\"4\"").body(itemResponseDto));
+
+        mvc.perform(patch("/items/1").header(HttpHeaders.IF_MATCH, "\"3\"")
+                        .content(mapper.writeValueAsString(itemUpdateDto)))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"4\""));
+
         when(httpClientService.delete(eq("/items/1"), eq(1L)))
                 .thenReturn(ResponseEntity.status(HttpStatus.OK).body(null));
 
@@ -269,7 +310,7 @@ public class ItemControllerTest {
                 .andDo(MockMvcResultHandlers.print())
                 .andExpect(status().isOk());
 
-        when(httpClientService.get(eq("/items/1"), eq(1L)))
+        when(httpClientService.get(eq("/items/1"), eq(1L), any()))
                 .thenReturn(ResponseEntity.status(HttpStatus.OK).body(itemResponseExtendedViewDto));
 
         mvc.perform(get("/items/1"))
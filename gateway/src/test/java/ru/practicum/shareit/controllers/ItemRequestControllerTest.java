@@ -6,6 +6,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -15,6 +16,7 @@ import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultHandlers;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.context.WebApplicationContext;
+import ru.practicum.shareit.client.EventStreamClient;
 import ru.practicum.shareit.client.HttpClientService;
 import ru.practicum.shareit.exception.ErrorResponse;
 import ru.practicum.shareit.item.ItemResponseDtoForItemRequests;
@@ -32,9 +34,12 @@ import java.util.List;
 import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -44,6 +49,9 @@ public class ItemRequestControllerTest {
     @MockitoBean
     private HttpClientService httpClientService;
 
+    @MockitoBean
+    private EventStreamClient eventStreamClient;
+
     @Autowired
     private WebApplicationContext context;
 
@@ -122,7 +130,7 @@ public class ItemRequestControllerTest {
                 .build();
         ResponseEntity<Object> responseEntity = ResponseEntity.status(HttpStatus.NOT_FOUND).body(notFoundResponse);
 
-        when(httpClientService.get(eq("/requests/1"), eq(1L))).thenReturn(responseEntity);
+        when(httpClientService.get(eq("/requests/1"), eq(1L), any())).thenReturn(responseEntity);
         mvc.perform(get("/requests/1").content(""))
                 .andExpect(status().isNotFound())
                 .andExpect(jsonPath("$.error", is("Not Found")));
@@ -157,7 +165,7 @@ public class ItemRequestControllerTest {
                 .andExpect(jsonPath("$.id", is(itemRequestResponseDto.getId().intValue())))
                 .andExpect(jsonPath("$.description", is(itemRequestResponseDto.getDescription())));
 
-        when(httpClientService.get(eq("/requests/1"), eq(1L)))
+        when(httpClientService.get(eq("/requests/1"), eq(1L), any()))
                 .thenReturn(ResponseEntity.status(HttpStatus.OK).body(itemRequestResponseDto));
 
         mvc.perform(get("/requests/1"))
@@ -170,6 +178,13 @@ public class ItemRequestControllerTest {
                 .andExpect(jsonPath("$.items[0].name", is(itemRequestResponseDto.getItems().getFirst().getName())))
                 .andExpect(jsonPath("$.items[0].ownerId", is(itemRequestResponseDto.getItems().getFirst().getOwnerId().intValue())));
 
+        when(httpClientService.get(eq("/requests/1"), eq(1L), eq("\"1-2-0\"")))
+                .thenReturn(ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag("\"1-2-0\"").build());
+
+        mvc.perform(get("/requests/1").header(HttpHeaders.IF_NONE_MATCH, "\"1-2-0\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1-2-0\""));
+
         when(httpClientService.get(eq("/requests"), eq(1L)))
                 .thenReturn(ResponseEntity.status(HttpStatus.OK).body(List.of(itemRequestResponseDto)));
 
@@ -221,4 +236,19 @@ public class ItemRequestControllerTest {
                 .andExpect(status().isBadRequest())
                 .andExpect(jsonPath("$.error", is("Missing Header")));
     }
-}
\ No newline at end of file
+
+    @Test
+    void notifications() throws Exception {
+        mvc.perform(get("/requests/notifications").header("Last-Event-ID", "1700000000000-42"))
+                .andExpect(status().isOk());
+        verify(eventStreamClient).relay(eq("/requests/notifications"), eq(1L), eq("1700000000000-42"), any());
+    }
+
+    @Test
+    void notificationsLastEventIdValidation() throws Exception {
+        mvc.perform(get("/requests/notifications").header("Last-Event-ID", "bad id"))
+                .andExpect(status().isBadRequest());
+        verifyNoInteractions(eventStreamClient);
+    }
+
+}
@@ -144,7 +144,7 @@ public class UserControllerTest {
                 .build();
         ResponseEntity<Object> responseEntity = ResponseEntity.status(HttpStatus.NOT_FOUND).body(notFoundResponse);
 
-        when(httpClientService.get(eq("/users/1"), eq(null))).thenReturn(responseEntity);
+        when(httpClientService.get(eq("/users/1"), eq(null), any())).thenReturn(responseEntity);
         mvc.perform(get("/users/1").content(""))
                 .andExpect(status().isNotFound())
                 .andExpect(jsonPath("$.error", is("Not Found")));
@@ -155,7 +155,7 @@ public class UserControllerTest {
                 .andExpect(status().isNotFound())
                 .andExpect(jsonPath("$.error", is("Not Found")));
 
-        when(httpClientService.patch(eq("/users/1"), eq(null), any())).thenReturn(responseEntity);
+        when(httpClientService.patch(eq("/users/1"), eq(null), any(), any())).thenReturn(responseEntity);
         UserUpdateDto userUpdateDto = new UserUpdateDto();
         userUpdateDto.setEmail("not.found2@test.ru");
         mvc.perform(patch("/users/1").content(mapper.writeValueAsString(userUpdateDto)))
@@ -187,7 +187,7 @@ public class UserControllerTest {
         userUpdateDto.setEmail("new@email.com");
         userResponseDto.setEmail("new@email.com");
 
-        when(httpClientService.patch(eq("/users/1"), eq(null), any()))
+        when(httpClientService.patch(eq("/users/1"), eq(null), any(), any()))
                 .thenReturn(ResponseEntity.status(HttpStatus.OK).body(userResponseDto));
 
         mvc.perform(patch("/users/1").content(mapper.writeValueAsString(userUpdateDto)))
@@ -196,7 +196,7 @@ public class UserControllerTest {
                 .andExpect(jsonPath("$.email", is(userResponseDto.getEmail())))
                 .andExpect(jsonPath("$.name", is(userResponseDto.getName())));
 
-        when(httpClientService.get(eq("/users/1"), eq(null)))
+        when(httpClientService.get(eq("/users/1"), eq(null), any()))
                 .thenReturn(ResponseEntity.status(HttpStatus.OK).body(userResponseDto));
 
         mvc.perform(get("/users/1"))
@@ -0,0 +1,134 @@
+package ru.practicum.shareit.item;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.StreamingHttpOutputMessage;
+import org.springframework.test.util.ReflectionTestUtils;
+import ru.practicum.shareit.client.HttpClientService;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ItemBulkImportServiceTest {
+
+    @Mock
+    private HttpClientService httpClientService;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private ItemBulkImportService service;
+
+    private final List<ItemBulkRowDto> forwarded = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        service = new ItemBulkImportService(httpClientService, mapper,
+                Validation.buildDefaultValidatorFactory().getValidator());
+        ReflectionTestUtils.setField(service, "maxReportedErrors", 2);
+    }
+
+    private void mockServer(ItemBulkImportResultDto serverResult) {
+        when(httpClientService.postStream(eq("/items/bulk"), eq(1L), any(), any(),
+                eq(ItemBulkImportResultDto.class))).thenAnswer(invocation -> {
+                    ByteArrayOutputStream out = new ByteArrayOutputStream();
+                    invocation.getArgument(3, StreamingHttpOutputMessage.Body.class).writeTo(out);
+                    for (String line : out.toString(StandardCharsets.UTF_8).split("\n")) {
+                        if (!line.isEmpty()) forwarded.add(mapper.readValue(line, ItemBulkRowDto.class));
+                    }
+                    serverResult.setImported(forwarded.size() - serverResult.getFailed());
+                    return ResponseEntity.ok(serverResult);
+                });
+    }
+
+    private static ByteArrayInputStream body(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void importNdjsonForwardsOnlyValidRows() {
+        mockServer(new ItemBulkImportResultDto());
+
+        ResponseEntity<Object> response = service.importNdjson(1L, body(String.join("\n",
+                "{\"name\":\"saw\",\"description\":\"real saw\",\"available\":true}",
+                "{\"name\":\" \",\"description\":\"no name\",\"available\":true}",
+                "",
+                "not json",
+                "{\"name\":\"knife\",\"description\":\"real knife\",\"available\":false,\"requestId\":7}")));
+
+        ItemBulkImportResultDto result = (ItemBulkImportResultDto) response.getBody();
+        assertThat(result).isNotNull();
+        assertThat(result.getReceived()).isEqualTo(4);
+        assertThat(result.getImported()).isEqualTo(2);
+        assertThat(result.getFailed()).isEqualTo(2);
+        assertThat(result.getErrors()).extracting(ItemBulkImportErrorDto::getRow).containsExactly(2L, 4L);
+        assertThat(result.getErrors().getLast().getMessage()).isEqualTo("Malformed JSON");
+
+        assertThat(forwarded).extracting(ItemBulkRowDto::getRow).containsExactly(1L, 5L);
+        assertThat(forwarded.getLast().getItem().getRequestId()).isEqualTo(7L);
+    }
+
+    @Test
+    void importCsvParsesQuotedFieldsAndMergesServerErrors() throws Exception {
+        ItemBulkImportResultDto serverResult = new ItemBulkImportResultDto();
+        serverResult.setFailed(1);
+        serverResult.getErrors().add(ItemBulkImportErrorDto.of(1L, "Item Request 99 not found"));
+        mockServer(serverResult);
+
+        ResponseEntity<Object> response = service.importCsv(1L, body("""
+                Name,Description,Available,RequestId\r
+                "saw, big","says ""hi""
+                twice",true,99\r
+                knife,sharp,maybe,\r
+                axe,heavy,false,\r
+                """));
+
+        ItemBulkImportResultDto result = (ItemBulkImportResultDto) response.getBody();
+        assertThat(result).isNotNull();
+        assertThat(result.getReceived()).isEqualTo(3);
+        assertThat(result.getImported()).isEqualTo(1);
+        assertThat(result.getFailed()).isEqualTo(2);
+        assertThat(result.getErrors()).extracting(ItemBulkImportErrorDto::getMessage)
+                .containsExactly("Item Request 99 not found", "Field 'available' should be true or false");
+
+        assertThat(forwarded).hasSize(2);
+        assertThat(forwarded.getFirst().getItem().getName()).isEqualTo("saw, big");
+        assertThat(forwarded.getFirst().getItem().getDescription()).isEqualTo("says \"hi\"\ntwice");
+        assertThat(forwarded.getLast().getItem().getAvailable()).isFalse();
+    }
+
+    @Test
+    void importReportsBoundedErrors() {
+        mockServer(new ItemBulkImportResultDto());
+
+        ResponseEntity<Object> response = service.importNdjson(1L, body("{}\n{}\n{}\n{}\n"));
+
+        ItemBulkImportResultDto result = (ItemBulkImportResultDto) response.getBody();
+        assertThat(result).isNotNull();
+        assertThat(result.getFailed()).isEqualTo(4);
+        assertThat(result.getErrors()).hasSize(2);
+        assertThat(forwarded).isEmpty();
+    }
+
+    @Test
+    void importCsvWithoutRequiredColumns() {
+        assertThrows(IllegalArgumentException.class, () -> service.importCsv(1L, body("name,available\n")));
+        assertThrows(IllegalArgumentException.class, () -> service.importCsv(1L, body("")));
+    }
+
+}
@@ -2,6 +2,7 @@ package ru.practicum.shareit;
 
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -95,6 +96,32 @@ public class GlobalExceptionHandler {
                 .build();
     }
 
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ErrorResponse handleOptimisticLockingFailure(OptimisticLockingFailureException e, HttpServletRequest request) {
+        log.debug("VERSION CONFLICT: {}", e.getMessage());
+        return ErrorResponse.builder()
+                .timestamp(Instant.now())
+                .status(HttpStatus.CONFLICT)
+                .error("Conflict")
+                .message("Resource was modified concurrently, reload and retry")
+                .path(request.getRequestURI())
+                .build();
+    }
+
+    @ExceptionHandler(PreconditionFailedException.class)
+    @ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+    public ErrorResponse handlePreconditionFailedException(PreconditionFailedException e, HttpServletRequest request) {
+        log.debug("PRECONDITION FAILED: {}", e.getMessage());
+        return ErrorResponse.builder()
+                .timestamp(Instant.now())
+                .status(HttpStatus.PRECONDITION_FAILED)
+                .error("Precondition Failed")
+                .message(e.getMessage())
+                .path(request.getRequestURI())
+                .build();
+    }
+
     @ExceptionHandler(ForbiddenException.class)
     @ResponseStatus(HttpStatus.FORBIDDEN)
     public ErrorResponse handleForbiddenException(ForbiddenException e, HttpServletRequest request) {
@@ -1,11 +1,19 @@
 package ru.practicum.shareit.booking;
 
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.etag.ETags;
 import ru.practicum.shareit.validation.UserIdHeader;
 
+import java.io.IOException;
 import java.util.Collection;
+import java.util.List;
 
 @RestController
 @RequestMapping("/bookings")
@@ -14,23 +22,46 @@ import java.util.Collection;
 public class BookingController {
 
     private final BookingService bookingService;
+    private final BookingNotificationHub bookingNotificationHub;
 
     @PostMapping
-    public BookingResponseDto post(
+    public ResponseEntity<BookingResponseDto> post(
             @UserIdHeader Long userId,
             @RequestBody BookingCreateDto bookingCreateDto
     ) {
-        return bookingService.create(userId, bookingCreateDto);
+        BookingResponseDto created = bookingService.create(userId, bookingCreateDto);
+        return ETags.ok(created, created.getVersion());
+    }
+
+    @PatchMapping("/batch")
+    public List<BookingDecisionResultDto> patchBatch(
+            @UserIdHeader Long userId,
+            @RequestBody BookingBatchDecisionDto batchDecisionDto
+    ) {
+        return bookingService.approveRejectBatch(userId, batchDecisionDto);
     }
 
     @PatchMapping("/{bookingId}")
-    public BookingResponseDto patch(
+    public ResponseEntity<BookingResponseDto> patch(
             @UserIdHeader Long userId,
             @PathVariable Long bookingId,
-            @RequestParam(required = true) String approved
+            @RequestParam(required = true) String approved,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
     ) {
         boolean isApproved = Boolean.parseBoolean(approved);
-        return bookingService.approveReject(userId, bookingId, isApproved);
+        BookingResponseDto updated = bookingService.approveReject(userId, bookingId, isApproved,
+                ETags.parseIfMatch(ifMatch));
+        return ETags.ok(updated, updated.getVersion());
+    }
+
+    @PatchMapping("/{bookingId}/cancel")
+    public ResponseEntity<BookingResponseDto> cancel(
+            @UserIdHeader Long userId,
+            @PathVariable Long bookingId,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
+    ) {
+        BookingResponseDto canceled = bookingService.cancel(userId, bookingId, ETags.parseIfMatch(ifMatch));
+        return ETags.ok(canceled, canceled.getVersion());
     }
 
     @GetMapping("/{bookingId}")
@@ -57,4 +88,43 @@ public class BookingController {
         return bookingService.getOwnerBookings(userId, state);
     }
 
-}
\ No newline at end of file
+    @GetMapping("/owner/count")
+    public OwnerBookingCountDto getOwnerBookingCount(
+            @UserIdHeader Long userId
+    ) {
+        return bookingService.getOwnerBookingCount(userId);
+    }
+
+    @GetMapping("/changes")
+    public BookingChangesDto getBookerChanges(
+            @UserIdHeader Long userId,
+            @RequestParam(required = false) String since
+    ) {
+        return bookingService.getBookerChanges(userId, since);
+    }
+
+    @GetMapping("/owner/changes")
+    public BookingChangesDto getOwnerChanges(
+            @UserIdHeader Long userId,
+            @RequestParam(required = false) String since
+    ) {
+        return bookingService.getOwnerChanges(userId, since);
+    }
+
+    @GetMapping("/notifications")
+    public SseEmitter notifications(
+            @UserIdHeader Long userId
+    ) {
+        return bookingNotificationHub.subscribe(userId);
+    }
+
+    @GetMapping("/owner/export")
+    public void exportOwnerBookings(
+            @UserIdHeader Long userId,
+            HttpServletResponse response
+    ) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        bookingService.exportOwnerBookings(userId, response.getOutputStream());
+    }
+
+}
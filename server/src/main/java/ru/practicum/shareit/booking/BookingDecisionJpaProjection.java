@@ -0,0 +1,23 @@
+package ru.practicum.shareit.booking;
+
+import java.time.OffsetDateTime;
+
+public interface BookingDecisionJpaProjection {
+
+    Long getId();
+
+    Long getItemId();
+
+    Long getOwnerId();
+
+    Long getBookerId();
+
+    OffsetDateTime getStart();
+
+    OffsetDateTime getEnd();
+
+    BookingStatus getStatus();
+
+    Long getVersion();
+
+}
@@ -0,0 +1,42 @@
+package ru.practicum.shareit.booking;
+
+import java.time.OffsetDateTime;
+
+public record BookingEvent(
+        Long bookingId,
+        Long itemId,
+        Long ownerId,
+        Long bookerId,
+        OffsetDateTime start,
+        OffsetDateTime end,
+        BookingStatus previousStatus,
+        BookingStatus status
+) {
+
+    public static BookingEvent of(Booking booking, BookingStatus previousStatus) {
+        return new BookingEvent(
+                booking.getId(),
+                booking.getItem().getId(),
+                booking.getItem().getOwner().getId(),
+                booking.getBooker().getId(),
+                booking.getStart(),
+                booking.getEnd(),
+                previousStatus,
+                booking.getStatus()
+        );
+    }
+
+    public static BookingEvent of(BookingDecisionJpaProjection booking, BookingStatus status) {
+        return new BookingEvent(
+                booking.getId(),
+                booking.getItemId(),
+                booking.getOwnerId(),
+                booking.getBookerId(),
+                booking.getStart(),
+                booking.getEnd(),
+                booking.getStatus(),
+                status
+        );
+    }
+
+}
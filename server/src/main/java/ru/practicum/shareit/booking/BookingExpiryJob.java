@@ -0,0 +1,121 @@
+package ru.practicum.shareit.booking;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Cancels WAITING bookings whose start has passed, one chunk per transaction, oldest first. Each chunk takes a
+// transaction-level advisory lock so only one instance works at a time, and skips rows held by user transitions.
+// Every expired booking goes through the regular BookingEvent, so counters and summaries follow along.
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "shareit.booking.expiry.enabled", havingValue = "true")
+public class BookingExpiryJob {
+
+    private final BookingRepository bookingRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+    private final int chunkSize;
+    private final int maxChunksPerRun;
+    private final boolean advisoryLockEnabled;
+    private final long advisoryLockKey;
+    private final Counter processedCounter;
+    private final AtomicLong lagMillis = new AtomicLong();
+
+    public BookingExpiryJob(
+            BookingRepository bookingRepository,
+            ApplicationEventPublisher eventPublisher,
+            TransactionTemplate transactionTemplate,
+            EntityManager entityManager,
+            MeterRegistry meterRegistry,
+            @Value("${shareit.booking.expiry.chunk-size}") int chunkSize,
+            @Value("${shareit.booking.expiry.max-chunks-per-run}") int maxChunksPerRun,
+            @Value("${shareit.booking.expiry.advisory-lock-enabled}") boolean advisoryLockEnabled,
+            @Value("${shareit.booking.expiry.advisory-lock-key}") long advisoryLockKey
+    ) {
+        this.bookingRepository = bookingRepository;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = transactionTemplate;
+        this.entityManager = entityManager;
+        this.chunkSize = chunkSize;
+        this.maxChunksPerRun = maxChunksPerRun;
+        this.advisoryLockEnabled = advisoryLockEnabled;
+        this.advisoryLockKey = advisoryLockKey;
+        this.processedCounter = Counter.builder("shareit.booking.expiry.processed")
+                .description("WAITING bookings canceled because their start has passed")
+                .register(meterRegistry);
+        TimeGauge.builder("shareit.booking.expiry.lag", lagMillis, TimeUnit.MILLISECONDS, AtomicLong::get)
+                .description("How long the oldest expired WAITING booking has been waiting since its start")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(
+            fixedDelayString = "${shareit.booking.expiry.interval-millis}",
+            initialDelayString = "${shareit.booking.expiry.initial-delay-millis}"
+    )
+    public int expireWaitingBookings() {
+        OffsetDateTime nowTime = OffsetDateTime.now();
+        int expired = 0;
+        for (int chunk = 0; chunk < maxChunksPerRun; chunk++) {
+            Integer chunkExpired = transactionTemplate.execute(status -> expireChunk(nowTime));
+            if (chunkExpired == null || chunkExpired < 0) break;
+            expired += chunkExpired;
+            if (chunkExpired < chunkSize) break;
+        }
+        updateLag(OffsetDateTime.now());
+        if (expired > 0) log.info("EXPIRED {} WAITING BOOKINGS", expired);
+        return expired;
+    }
+
+    // returns -1 when another instance holds the lock
+    private int expireChunk(OffsetDateTime nowTime) {
+        if (advisoryLockEnabled && !tryAdvisoryLock()) {
+            log.debug("BOOKING EXPIRY LOCK IS HELD ELSEWHERE, SKIPPING RUN");
+            return -1;
+        }
+        List<BookingDecisionJpaProjection> bookings = bookingRepository.findForExpiry(BookingStatus.WAITING,
+                nowTime, Limit.of(chunkSize));
+        if (bookings.isEmpty()) return 0;
+
+        List<Long> ids = bookings.stream().map(BookingDecisionJpaProjection::getId).toList();
+        bookingRepository.updateStatusWhereStatus(ids, BookingStatus.WAITING, BookingStatus.CANCELED,
+                OffsetDateTime.now());
+        for (BookingDecisionJpaProjection booking : bookings) {
+            eventPublisher.publishEvent(BookingEvent.of(booking, BookingStatus.CANCELED));
+        }
+        processedCounter.increment(bookings.size());
+        return bookings.size();
+    }
+
+    private boolean tryAdvisoryLock() {
+        Object locked = entityManager.createNativeQuery("SELECT pg_try_advisory_xact_lock(:key)")
+                .setParameter("key", advisoryLockKey)
+                .getSingleResult();
+        return Objects.equals(locked, Boolean.TRUE);
+    }
+
+    private void updateLag(OffsetDateTime nowTime) {
+        long lag = bookingRepository.findOldestStartByStatusAndStartBefore(BookingStatus.WAITING, nowTime)
+                .map(start -> Duration.between(start, nowTime).toMillis())
+                .orElse(0L);
+        lagMillis.set(lag);
+    }
+
+}
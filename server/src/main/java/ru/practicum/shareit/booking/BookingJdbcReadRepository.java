@@ -0,0 +1,108 @@
+package ru.practicum.shareit.booking;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.item.ItemResponseDto;
+import ru.practicum.shareit.user.UserResponseDto;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+
+@Repository
+@RequiredArgsConstructor
+public class BookingJdbcReadRepository {
+
+    private static final String SELECT_BOOKINGS = """
+            SELECT b.id, b.version, b.start_at, b.end_at, b.status,
+                   u.id AS booker_id, u.version AS booker_version, u.name AS booker_name, u.email AS booker_email,
+                   i.id AS item_id, i.version AS item_version, i.name AS item_name, i.description AS item_description,
+                   i.available AS item_available, i.request_id AS item_request_id
+            FROM bookings AS b
+            JOIN users AS u ON u.id = b.booker_id
+            JOIN items AS i ON i.id = b.item_id
+            """;
+
+    private static final RowMapper<BookingResponseDto> BOOKING_ROW_MAPPER = (rs, rowNum) -> {
+        UserResponseDto booker = new UserResponseDto();
+        booker.setId(rs.getLong("booker_id"));
+        booker.setVersion(rs.getLong("booker_version"));
+        booker.setName(rs.getString("booker_name"));
+        booker.setEmail(rs.getString("booker_email"));
+
+        ItemResponseDto item = new ItemResponseDto();
+        item.setId(rs.getLong("item_id"));
+        item.setVersion(rs.getLong("item_version"));
+        item.setName(rs.getString("item_name"));
+        item.setDescription(rs.getString("item_description"));
+        item.setAvailable(rs.getBoolean("item_available"));
+        item.setRequestId(rs.getObject("item_request_id", Long.class));
+
+        BookingResponseDto dto = new BookingResponseDto();
+        dto.setId(rs.getLong("id"));
+        dto.setVersion(rs.getLong("version"));
+        dto.setBooker(booker);
+        dto.setItem(item);
+        dto.setStart(rs.getObject("start_at", OffsetDateTime.class));
+        dto.setEnd(rs.getObject("end_at", OffsetDateTime.class));
+        dto.setStatus(BookingStatus.valueOf(rs.getString("status")));
+        return dto;
+    };
+
+    private final JdbcClient jdbcClient;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${shareit.booking.export-fetch-size}")
+    private int exportFetchSize;
+
+    public List<BookingResponseDto> findByBookerId(Long userId, BookingApiState state, OffsetDateTime time) {
+        return find("b.booker_id = :userId", userId, state, time);
+    }
+
+    public List<BookingResponseDto> findByItemOwnerId(Long userId, BookingApiState state, OffsetDateTime time) {
+        return find("i.owner_id = :userId", userId, state, time);
+    }
+
+    private List<BookingResponseDto> find(String userCondition, Long userId, BookingApiState state,
+                                          OffsetDateTime time) {
+        String stateCondition = switch (state) {
+            case CURRENT -> " AND b.status = :status AND b.start_at < :time AND b.end_at > :time";
+            case PAST -> " AND b.status = :status AND b.end_at < :time";
+            case FUTURE -> " AND b.status = :status AND b.start_at > :time";
+            case WAITING, REJECTED -> " AND b.status = :status";
+            default -> "";
+        };
+        BookingStatus status = switch (state) {
+            case WAITING -> BookingStatus.WAITING;
+            case REJECTED -> BookingStatus.REJECTED;
+            default -> BookingStatus.APPROVED;
+        };
+
+        JdbcClient.StatementSpec statement = jdbcClient
+                .sql(SELECT_BOOKINGS + "WHERE " + userCondition + stateCondition + "\nORDER BY b.start_at DESC")
+                .param("userId", userId);
+        if (stateCondition.contains(":status")) statement = statement.param("status", status.name());
+        if (stateCondition.contains(":time")) statement = statement.param("time", time);
+        return statement.query(BOOKING_ROW_MAPPER).list();
+    }
+
+    // Hands rows to the consumer as they are fetched. Inside a transaction the PostgreSQL driver turns the
+    // forward-only statement with a fetch size into a server-side cursor, so only one fetch is held in memory.
+    public void streamByItemOwnerId(Long userId, Consumer<BookingResponseDto> consumer) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                    SELECT_BOOKINGS + "WHERE i.owner_id = ?\nORDER BY b.id",
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(exportFetchSize);
+            statement.setLong(1, userId);
+            return statement;
+        }, (ResultSet rs) -> consumer.accept(BOOKING_ROW_MAPPER.mapRow(rs, rs.getRow())));
+    }
+
+}
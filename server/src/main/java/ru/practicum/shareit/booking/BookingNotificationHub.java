@@ -0,0 +1,80 @@
+package ru.practicum.shareit.booking;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.sse.SseBroadcaster;
+import ru.practicum.shareit.user.UserLookupCache;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Objects;
+
+// Pushes committed booking transitions to the owner and the booker. Each instance pushes to the connections it
+// holds: its own transitions after commit, the others' as they arrive over the cache invalidation channel.
+// Nothing is replayed on reconnect, clients resync through /bookings/changes.
+@Component
+public class BookingNotificationHub {
+
+    private final UserLookupCache userLookupCache;
+    private final SseBroadcaster broadcaster;
+
+    public BookingNotificationHub(
+            UserLookupCache userLookupCache,
+            MeterRegistry meterRegistry,
+            @Value("${shareit.booking.notifications.buffer-size}") int bufferSize,
+            @Value("${shareit.booking.notifications.timeout}") Duration timeout
+    ) {
+        this.userLookupCache = userLookupCache;
+        this.broadcaster = new SseBroadcaster("BOOKINGS", bufferSize, timeout);
+        Gauge.builder("shareit.sse.connections", broadcaster, SseBroadcaster::getConnectionCount)
+                .tag("stream", "bookings")
+                .register(meterRegistry);
+    }
+
+    public SseEmitter subscribe(Long userId) {
+        if (!userLookupCache.exists(userId)) throw new NotFoundException("User " + userId + " not found");
+        return broadcaster.subscribe(userId);
+    }
+
+    @TransactionalEventListener
+    public void onBookingEvent(BookingEvent event) {
+        push(event);
+    }
+
+    @EventListener
+    public void onRemoteBookingEvent(RemoteBookingEvent event) {
+        push(event.event());
+    }
+
+    // also how dead connections are found: a write to a closed socket fails and the connection is dropped
+    @Scheduled(fixedDelayString = "${shareit.booking.notifications.heartbeat-interval-millis}")
+    public void heartbeat() {
+        broadcaster.heartbeat();
+    }
+
+    @PreDestroy
+    public void close() {
+        broadcaster.close();
+    }
+
+    private void push(BookingEvent event) {
+        BookingNotificationDto notification = BookingNotificationDto.of(event.bookingId(), event.itemId(),
+                event.bookerId(), event.start(), event.end(), event.previousStatus(), event.status());
+        String name = event.previousStatus() == null ? "created" : event.status().name().toLowerCase(Locale.ROOT);
+        broadcaster.send(event.ownerId(), SseEmitter.event().name(name).data(notification, MediaType.APPLICATION_JSON));
+        if (!Objects.equals(event.ownerId(), event.bookerId())) {
+            broadcaster.send(event.bookerId(),
+                    SseEmitter.event().name(name).data(notification, MediaType.APPLICATION_JSON));
+        }
+    }
+
+}
@@ -1,27 +1,43 @@
 package ru.practicum.shareit.booking;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
 import java.time.OffsetDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 
 public interface BookingRepository extends JpaRepository<Booking, Long> {
 
+    @Override
+    @EntityGraph(attributePaths = {"item", "booker"})
+    Optional<Booking> findById(Long id);
+
+    @EntityGraph(attributePaths = {"item", "booker"})
     List<Booking> findByBookerId(
             Long userId,
             Sort sort
     );
 
+    @EntityGraph(attributePaths = {"item", "booker"})
     List<Booking> findByBookerIdAndStatus(
             Long userId,
             BookingStatus status,
             Sort sort
     );
 
+    @EntityGraph(attributePaths = {"item", "booker"})
     List<Booking> findByBookerIdAndStatusAndEndBefore(
             Long userId,
             BookingStatus status,
@@ -29,6 +45,7 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
             Sort sort
     );
 
+    @EntityGraph(attributePaths = {"item", "booker"})
     List<Booking> findByBookerIdAndStatusAndStartAfter(
             Long userId,
             BookingStatus status,
@@ -36,6 +53,7 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
             Sort sort
     );
 
+    @EntityGraph(attributePaths = {"item", "booker"})
     List<Booking> findByBookerIdAndStatusAndStartBeforeAndEndAfter(
             Long userId,
             BookingStatus status,
@@ -44,17 +62,52 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
             Sort sort
     );
 
+    @EntityGraph(attributePaths = {"item", "booker"})
     List<Booking> findByItemOwnerId(
             Long userId,
             Sort sort
     );
 
+    @EntityGraph(attributePaths = {"item", "booker"})
+    @Query("""
+            select b from Booking as b
+            where b.booker.id = :userId
+              and (b.changeXid > :changeXid or (b.changeXid = :changeXid and b.changeSeq > :changeSeq))
+            order by b.changeXid, b.changeSeq
+            """)
+    List<Booking> findBookerChangesAfter(
+            @Param("userId") Long userId,
+            @Param("changeXid") long changeXid,
+            @Param("changeSeq") long changeSeq,
+            Limit limit
+    );
+
+    @EntityGraph(attributePaths = {"item", "booker"})
+    @Query("""
+            select b from Booking as b
+            where b.item.owner.id = :userId
+              and (b.changeXid > :changeXid or (b.changeXid = :changeXid and b.changeSeq > :changeSeq))
+            order by b.changeXid, b.changeSeq
+            """)
+    List<Booking> findOwnerChangesAfter(
+            @Param("userId") Long userId,
+            @Param("changeXid") long changeXid,
+            @Param("changeSeq") long changeSeq,
+            Limit limit
+    );
+
+    // every transaction with a lower id has finished, so rows it wrote are either visible now or never will be
+    @Query(value = "SELECT CAST(CAST(pg_snapshot_xmin(pg_current_snapshot()) AS TEXT) AS BIGINT)", nativeQuery = true)
+    long findSnapshotXmin();
+
+    @EntityGraph(attributePaths = {"item", "booker"})
     List<Booking> findByItemOwnerIdAndStatus(
             Long userId,
             BookingStatus status,
             Sort sort
     );
 
+    @EntityGraph(attributePaths = {"item", "booker"})
     List<Booking> findByItemOwnerIdAndStatusAndEndBefore(
             Long userId,
             BookingStatus status,
@@ -62,6 +115,7 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
             Sort sort
     );
 
+    @EntityGraph(attributePaths = {"item", "booker"})
     List<Booking> findByItemOwnerIdAndStatusAndStartAfter(
             Long userId,
             BookingStatus status,
@@ -69,6 +123,7 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
             Sort sort
     );
 
+    @EntityGraph(attributePaths = {"item", "booker"})
     List<Booking> findByItemOwnerIdAndStatusAndStartBeforeAndEndAfter(
             Long userId,
             BookingStatus status,
@@ -84,46 +139,209 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
             OffsetDateTime time
     );
 
-    @Query(value = """
-            select max(b.end) from Booking as b
-            where b.item.id = :itemId
-            and b.end < :time
+    @Query("""
+            select exists (
+              select 1 from Booking as b
+              where b.item.id = :itemId
+                and b.status = :status
+                and b.start < :end
+                and b.end > :start
+            )
             """)
-    OffsetDateTime getLastBookingDate(
+    boolean existsOverlappingBooking(
             @Param("itemId") Long itemId,
-            @Param("time") OffsetDateTime time
+            @Param("status") BookingStatus status,
+            @Param("start") OffsetDateTime start,
+            @Param("end") OffsetDateTime end
     );
 
-    @Query(value = """
-            select min(b.start) from Booking as b
+    @Query("""
+            select b.start as start, b.end as end from Booking as b
             where b.item.id = :itemId
-            and b.start > :time
+              and b.status = :status
+              and b.end > :time
             """)
-    OffsetDateTime getNextBookingDate(
+    List<TimeIntervalJpaProjection> findIntervalsByItemIdAndStatusAndEndAfter(
             @Param("itemId") Long itemId,
+            @Param("status") BookingStatus status,
             @Param("time") OffsetDateTime time
     );
 
-    @Query(value = """
-            select b.item.id as id, max(b.end) as time from Booking as b
+    @Query("""
+            select b.item.id as id,
+                   max(case when b.end < :time then b.end end) as lastBooking,
+                   min(case when b.start > :time then b.start end) as nextBooking,
+                   min(case when b.start <= :time and b.end > :time then b.end end) as currentBookingEnd
+            from Booking as b
             where b.item.id in :itemIdSet
-            and b.end < :time
+              and b.status = :status
             group by b.item.id
             """)
-    List<IdAndTimeJpaProjection> getListOfLastBookingDates(
+    List<LastAndNextBookingJpaProjection> getLastAndNextBookingDates(
             @Param("itemIdSet") Set<Long> itemIdSet,
+            @Param("status") BookingStatus status,
             @Param("time") OffsetDateTime time
     );
 
-    @Query(value = """
-            select b.item.id as id, min(b.start) as time from Booking as b
-            where b.item.id in :itemIdSet
-            and b.start > :time
-            group by b.item.id
+    // locks the rows of the batch (in id order, so concurrent batches cannot deadlock) for the duration of the
+    // conditional updates that follow
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("""
+            select b.id as id, b.item.id as itemId, b.item.owner.id as ownerId, b.booker.id as bookerId,
+                   b.start as start, b.end as end, b.status as status, b.version as version
+            from Booking as b
+            where b.id in :ids
+            order by b.id
             """)
-    List<IdAndTimeJpaProjection> getListOfNextBookingDates1(
-            @Param("itemIdSet") Set<Long> itemIdSet,
+    List<BookingDecisionJpaProjection> findForDecisionByIds(@Param("ids") Collection<Long> ids);
+
+    // skips rows a user transition is holding, so the expiry job never waits on (or deadlocks with) a request
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("""
+            select b.id as id, b.item.id as itemId, b.item.owner.id as ownerId, b.booker.id as bookerId,
+                   b.start as start, b.end as end, b.status as status, b.version as version
+            from Booking as b
+            where b.status = :status
+              and b.start < :time
+            order by b.start
+            """)
+    List<BookingDecisionJpaProjection> findForExpiry(
+            @Param("status") BookingStatus status,
+            @Param("time") OffsetDateTime time,
+            Limit limit
+    );
+
+    @Query("""
+            select min(b.start) from Booking as b
+            where b.status = :status
+              and b.start < :time
+            """)
+    Optional<OffsetDateTime> findOldestStartByStatusAndStartBefore(
+            @Param("status") BookingStatus status,
+            @Param("time") OffsetDateTime time
+    );
+
+    @Modifying
+    @Query("""
+            update Booking as b
+            set b.status = :status, b.version = b.version + 1,
+                b.changeSeq = function('nextval', 'bookings_change_seq'), b.changedAt = :time
+            where b.id in :ids
+              and b.status = :expectedStatus
+            """)
+    int updateStatusWhereStatus(
+            @Param("ids") Collection<Long> ids,
+            @Param("expectedStatus") BookingStatus expectedStatus,
+            @Param("status") BookingStatus status,
+            @Param("time") OffsetDateTime time
+    );
+
+    @Modifying
+    @Query("""
+            update Booking as b
+            set b.status = :approved, b.version = b.version + 1,
+                b.changeSeq = function('nextval', 'bookings_change_seq'), b.changedAt = :time
+            where b.id in :ids
+              and b.status = :waiting
+              and not exists (
+                select 1 from Booking as o
+                where o.item.id = b.item.id
+                  and o.status = :approved
+                  and o.start < b.end
+                  and o.end > b.start
+              )
+            """)
+    int approveWhereWaitingAndNotOverlapping(
+            @Param("ids") Collection<Long> ids,
+            @Param("waiting") BookingStatus waiting,
+            @Param("approved") BookingStatus approved,
+            @Param("time") OffsetDateTime time
+    );
+
+    @Query("""
+            select b.id from Booking as b
+            where b.id in :ids
+              and b.status = :status
+            """)
+    Set<Long> findIdsByIdInAndStatus(
+            @Param("ids") Collection<Long> ids,
+            @Param("status") BookingStatus status
+    );
+
+    @Query("""
+            select b.id as id, b.item.id as itemId, b.item.owner.id as ownerId, b.booker.id as bookerId,
+                   b.start as start, b.end as end, b.status as status, b.version as version
+            from Booking as b
+            where b.id = :bookingId
+            """)
+    Optional<BookingDecisionJpaProjection> findDecisionById(@Param("bookingId") Long bookingId);
+
+    // Single-statement transitions: the owner/booker, status and (optional If-Match) version predicates live in
+    // the WHERE clause, so a concurrent transition simply finds no row to update instead of being overwritten
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+            update Booking as b
+            set b.status = :status, b.version = b.version + 1,
+                b.changeSeq = function('nextval', 'bookings_change_seq'), b.changedAt = :time
+            where b.id = :bookingId
+              and b.status = :expectedStatus
+              and b.version = coalesce(:version, b.version)
+              and exists (select 1 from Item as i where i.id = b.item.id and i.owner.id = :ownerId)
+            """)
+    int updateStatusByOwner(
+            @Param("bookingId") Long bookingId,
+            @Param("ownerId") Long ownerId,
+            @Param("expectedStatus") BookingStatus expectedStatus,
+            @Param("status") BookingStatus status,
+            @Param("version") Long version,
             @Param("time") OffsetDateTime time
     );
 
-}
\ No newline at end of file
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+            update Booking as b
+            set b.status = :approved, b.version = b.version + 1,
+                b.changeSeq = function('nextval', 'bookings_change_seq'), b.changedAt = :time
+            where b.id = :bookingId
+              and b.status = :waiting
+              and b.version = coalesce(:version, b.version)
+              and exists (select 1 from Item as i where i.id = b.item.id and i.owner.id = :ownerId)
+              and not exists (
+                select 1 from Booking as o
+                where o.item.id = b.item.id
+                  and o.status = :approved
+                  and o.start < b.end
+                  and o.end > b.start
+              )
+            """)
+    int approveByOwner(
+            @Param("bookingId") Long bookingId,
+            @Param("ownerId") Long ownerId,
+            @Param("waiting") BookingStatus waiting,
+            @Param("approved") BookingStatus approved,
+            @Param("version") Long version,
+            @Param("time") OffsetDateTime time
+    );
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+            update Booking as b
+            set b.status = :status, b.version = b.version + 1,
+                b.changeSeq = function('nextval', 'bookings_change_seq'), b.changedAt = :time
+            where b.id = :bookingId
+              and b.booker.id = :bookerId
+              and b.version = coalesce(:version, b.version)
+              and b.status = :expectedStatus
+              and b.start > :time
+            """)
+    int updateStatusByBooker(
+            @Param("bookingId") Long bookingId,
+            @Param("bookerId") Long bookerId,
+            @Param("expectedStatus") BookingStatus expectedStatus,
+            @Param("status") BookingStatus status,
+            @Param("time") OffsetDateTime time,
+            @Param("version") Long version
+    );
+
+}
@@ -1,6 +1,9 @@
 package ru.practicum.shareit.booking;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.Collection;
+import java.util.List;
 
 public interface BookingService {
 
@@ -17,7 +20,19 @@ public interface BookingService {
     BookingResponseDto approveReject(
             Long userId,
             Long bookingId,
-            boolean isApproved
+            boolean isApproved,
+            Long expectedVersion
+    );
+
+    BookingResponseDto cancel(
+            Long userId,
+            Long bookingId,
+            Long expectedVersion
+    );
+
+    List<BookingDecisionResultDto> approveRejectBatch(
+            Long userId,
+            BookingBatchDecisionDto batchDecisionDto
     );
 
     Collection<BookingResponseDto> getBookerBookings(
@@ -30,4 +45,23 @@ public interface BookingService {
             BookingApiState state
     );
 
-}
\ No newline at end of file
+    OwnerBookingCountDto getOwnerBookingCount(
+            Long userId
+    );
+
+    BookingChangesDto getBookerChanges(
+            Long userId,
+            String since
+    );
+
+    BookingChangesDto getOwnerChanges(
+            Long userId,
+            String since
+    );
+
+    void exportOwnerBookings(
+            Long userId,
+            OutputStream out
+    ) throws IOException;
+
+}
@@ -1,21 +1,32 @@
 package ru.practicum.shareit.booking;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.exception.BadRequestException;
+import ru.practicum.shareit.exception.ConflictException;
 import ru.practicum.shareit.exception.ForbiddenException;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.exception.PreconditionFailedException;
 import ru.practicum.shareit.item.Item;
 import ru.practicum.shareit.item.ItemRepository;
 import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserLookupCache;
 import ru.practicum.shareit.user.UserRepository;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.time.OffsetDateTime;
-import java.util.Collection;
-import java.util.List;
-import java.util.Objects;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -24,17 +35,30 @@ public class BookingServiceImpl implements BookingService {
 
     private final BookingRepository bookingRepository;
     private final UserRepository userRepository;
+    private final UserLookupCache userLookupCache;
     private final ItemRepository itemRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final BookingJdbcReadRepository bookingJdbcReadRepository;
+    private final ObjectMapper objectMapper;
+    private final OwnerBookingCounterService ownerBookingCounterService;
+
+    @Value("${shareit.jdbc-read-path.enabled}")
+    private boolean jdbcReadPath;
+
+    @Value("${shareit.booking.changes.page-size}")
+    private int changesPageSize;
+
+    @Value("${shareit.booking.changes.transaction-watermark-enabled}")
+    private boolean changesTransactionWatermark;
 
     @Override
     public BookingResponseDto getById(Long userId, Long bookingId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new NotFoundException("User " + userId + " not found"));
+        if (!userLookupCache.exists(userId)) throw new NotFoundException("User " + userId + " not found");
         Booking existingBooking = bookingRepository.findById(bookingId)
                 .orElseThrow(() -> new NotFoundException("Booking " + bookingId + " not found"));
 
-        boolean userIsBooker = Objects.equals(user, existingBooking.getBooker());
-        boolean userIsItemOwner = Objects.equals(user, existingBooking.getItem().getOwner());
+        boolean userIsBooker = Objects.equals(userId, existingBooking.getBooker().getId());
+        boolean userIsItemOwner = Objects.equals(userId, existingBooking.getItem().getOwner().getId());
         if (!userIsBooker && !userIsItemOwner)
             throw new ForbiddenException("User # " + userId + " has no rights to see booking # " + bookingId);
 
@@ -56,9 +80,13 @@ public class BookingServiceImpl implements BookingService {
         if (!item.getAvailable()) {
             throw new BadRequestException("Item " + dto.getItemId() + " is not available for booking");
         }
-        if (Objects.equals(booker, item.getOwner())) {
+        if (Objects.equals(booker.getId(), item.getOwner().getId())) {
             throw new ForbiddenException("User can not book his own item");
         }
+        if (bookingRepository.existsOverlappingBooking(item.getId(), BookingStatus.APPROVED, dto.getStart(),
+                dto.getEnd())) {
+            throw new ConflictException("Item " + item.getId() + " is already booked for the requested period");
+        }
 
         Booking newBooking = new Booking();
         newBooking.setStart(dto.getStart());
@@ -68,39 +96,157 @@ public class BookingServiceImpl implements BookingService {
         newBooking.setStatus(BookingStatus.WAITING);
 
         Booking createdBooking = bookingRepository.save(newBooking);
+        eventPublisher.publishEvent(BookingEvent.of(createdBooking, null));
         return BookingResponseDto.from(createdBooking);
     }
 
     @Override
     @Transactional(readOnly = false)
-    public BookingResponseDto approveReject(Long userId, Long bookingId, boolean isApproved) {
-        Booking existingBooking = bookingRepository.findById(bookingId)
+    public BookingResponseDto approveReject(Long userId, Long bookingId, boolean isApproved, Long expectedVersion) {
+        int updated;
+        // the exclusion constraint on approved bookings catches approvals racing past the NOT EXISTS predicate
+        try {
+            updated = isApproved
+                    ? bookingRepository.approveByOwner(bookingId, userId, BookingStatus.WAITING, BookingStatus.APPROVED,
+                    expectedVersion, OffsetDateTime.now())
+                    : bookingRepository.updateStatusByOwner(bookingId, userId, BookingStatus.WAITING,
+                    BookingStatus.REJECTED, expectedVersion, OffsetDateTime.now());
+        } catch (DataIntegrityViolationException e) {
+            throw new ConflictException("Booking " + bookingId + " overlaps an approved booking of the item");
+        }
+
+        if (updated == 0) {
+            BookingDecisionJpaProjection booking = bookingRepository.findDecisionById(bookingId)
+                    .orElseThrow(() -> new NotFoundException("Booking " + bookingId + " not found"));
+            if (!Objects.equals(booking.getOwnerId(), userId)) throw new ForbiddenException("User is not owner of Item");
+            checkVersion(booking, expectedVersion);
+            if (booking.getStatus() != BookingStatus.WAITING) {
+                throw new ConflictException("Booking status should be WAITING");
+            }
+            throw new ConflictException("Booking " + bookingId + " overlaps an approved booking of the item");
+        }
+
+        Booking updatedBooking = bookingRepository.findById(bookingId).orElseThrow();
+        eventPublisher.publishEvent(BookingEvent.of(updatedBooking, BookingStatus.WAITING));
+        return BookingResponseDto.from(updatedBooking);
+    }
+
+    @Override
+    @Transactional(readOnly = false)
+    public BookingResponseDto cancel(Long userId, Long bookingId, Long expectedVersion) {
+        OffsetDateTime nowTime = OffsetDateTime.now();
+        for (BookingStatus previousStatus : List.of(BookingStatus.WAITING, BookingStatus.APPROVED)) {
+            if (bookingRepository.updateStatusByBooker(bookingId, userId, previousStatus, BookingStatus.CANCELED,
+                    nowTime, expectedVersion) == 1) {
+                Booking canceledBooking = bookingRepository.findById(bookingId).orElseThrow();
+                eventPublisher.publishEvent(BookingEvent.of(canceledBooking, previousStatus));
+                return BookingResponseDto.from(canceledBooking);
+            }
+        }
+
+        BookingDecisionJpaProjection booking = bookingRepository.findDecisionById(bookingId)
                 .orElseThrow(() -> new NotFoundException("Booking " + bookingId + " not found"));
+        if (!Objects.equals(booking.getBookerId(), userId)) throw new ForbiddenException("User is not booker");
+        checkVersion(booking, expectedVersion);
+        throw new ConflictException("Only WAITING or APPROVED bookings that have not started can be canceled");
+    }
 
-        boolean userIsItemOwner = Objects.equals(userId, existingBooking.getItem().getOwner().getId());
-        if (!userIsItemOwner) throw new ForbiddenException("User is not owner of Item");
+    private static void checkVersion(BookingDecisionJpaProjection booking, Long expectedVersion) {
+        if (expectedVersion != null && !expectedVersion.equals(booking.getVersion())) {
+            throw new PreconditionFailedException("Booking " + booking.getId() + " was modified, current version is "
+                    + booking.getVersion());
+        }
+    }
 
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new NotFoundException("User " + userId + " not found"));
+    @Override
+    @Transactional(readOnly = false)
+    public List<BookingDecisionResultDto> approveRejectBatch(Long userId, BookingBatchDecisionDto batchDecisionDto) {
+        if (!userLookupCache.exists(userId)) throw new NotFoundException("User " + userId + " not found");
+
+        Map<Long, Boolean> decisions = new LinkedHashMap<>();
+        for (BookingDecisionDto decision : batchDecisionDto.getDecisions()) {
+            if (decisions.put(decision.getBookingId(), decision.getApproved()) != null) {
+                throw new BadRequestException("Booking " + decision.getBookingId() + " is listed more than once");
+            }
+        }
 
-        boolean statusIsWaiting = BookingStatus.WAITING.equals(existingBooking.getStatus());
-        if (!statusIsWaiting) throw new ForbiddenException("Booking status should be WAITING");
+        Map<Long, BookingDecisionJpaProjection> bookings = bookingRepository.findForDecisionByIds(decisions.keySet())
+                .stream()
+                .collect(Collectors.toMap(BookingDecisionJpaProjection::getId, Function.identity()));
 
-        if (isApproved) {
-            existingBooking.setStatus(BookingStatus.APPROVED);
-        } else {
-            existingBooking.setStatus(BookingStatus.REJECTED);
+        Map<Long, BookingDecisionOutcome> outcomes = new HashMap<>();
+        List<BookingDecisionJpaProjection> toReject = new ArrayList<>();
+        List<BookingDecisionJpaProjection> toApprove = new ArrayList<>();
+        Map<Long, List<BookingDecisionJpaProjection>> approvedByItem = new HashMap<>();
+        decisions.forEach((bookingId, approved) -> {
+            BookingDecisionJpaProjection booking = bookings.get(bookingId);
+            if (booking == null) {
+                outcomes.put(bookingId, BookingDecisionOutcome.NOT_FOUND);
+            } else if (!Objects.equals(booking.getOwnerId(), userId)) {
+                outcomes.put(bookingId, BookingDecisionOutcome.FORBIDDEN);
+            } else if (booking.getStatus() != BookingStatus.WAITING) {
+                outcomes.put(bookingId, BookingDecisionOutcome.NOT_WAITING);
+            } else if (!approved) {
+                toReject.add(booking);
+            } else {
+                // the conditional update below only sees bookings approved before it, so approvals within
+                // the batch are checked against each other here, first come first served
+                List<BookingDecisionJpaProjection> itemApprovals = approvedByItem
+                        .computeIfAbsent(booking.getItemId(), id -> new ArrayList<>());
+                boolean overlaps = itemApprovals.stream().anyMatch(other ->
+                        other.getStart().isBefore(booking.getEnd()) && other.getEnd().isAfter(booking.getStart()));
+                if (overlaps) {
+                    outcomes.put(bookingId, BookingDecisionOutcome.OVERLAPS_APPROVED);
+                } else {
+                    itemApprovals.add(booking);
+                    toApprove.add(booking);
+                }
+            }
+        });
+
+        if (!toReject.isEmpty()) {
+            bookingRepository.updateStatusWhereStatus(ids(toReject), BookingStatus.WAITING, BookingStatus.REJECTED,
+                    OffsetDateTime.now());
+            for (BookingDecisionJpaProjection booking : toReject) {
+                outcomes.put(booking.getId(), BookingDecisionOutcome.REJECTED);
+                eventPublisher.publishEvent(BookingEvent.of(booking, BookingStatus.REJECTED));
+            }
+        }
+        if (!toApprove.isEmpty()) {
+            Set<Long> notApproved;
+            try {
+                int approvedCount = bookingRepository.approveWhereWaitingAndNotOverlapping(ids(toApprove),
+                        BookingStatus.WAITING, BookingStatus.APPROVED, OffsetDateTime.now());
+                notApproved = approvedCount == toApprove.size() ? Set.of()
+                        : bookingRepository.findIdsByIdInAndStatus(ids(toApprove), BookingStatus.WAITING);
+            } catch (DataIntegrityViolationException e) {
+                throw new ConflictException("Bookings of the batch overlap an approved booking");
+            }
+            for (BookingDecisionJpaProjection booking : toApprove) {
+                if (notApproved.contains(booking.getId())) {
+                    outcomes.put(booking.getId(), BookingDecisionOutcome.OVERLAPS_APPROVED);
+                } else {
+                    outcomes.put(booking.getId(), BookingDecisionOutcome.APPROVED);
+                    eventPublisher.publishEvent(BookingEvent.of(booking, BookingStatus.APPROVED));
+                }
+            }
         }
 
-        return BookingResponseDto.from(existingBooking);
+        return decisions.keySet().stream()
+                .map(bookingId -> BookingDecisionResultDto.of(bookingId, outcomes.get(bookingId)))
+                .toList();
+    }
+
+    private static List<Long> ids(List<BookingDecisionJpaProjection> bookings) {
+        return bookings.stream().map(BookingDecisionJpaProjection::getId).toList();
     }
 
     @Override
     public Collection<BookingResponseDto> getBookerBookings(Long userId, BookingApiState state) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new NotFoundException("User " + userId + " not found"));
+        if (!userLookupCache.exists(userId)) throw new NotFoundException("User " + userId + " not found");
 
         OffsetDateTime nowTime = OffsetDateTime.now();
+        if (jdbcReadPath) return bookingJdbcReadRepository.findByBookerId(userId, state, nowTime);
         Sort sort = Sort.by("start").descending();
 
         List<Booking> bookings = switch (state) {
@@ -125,10 +271,10 @@ public class BookingServiceImpl implements BookingService {
 
     @Override
     public Collection<BookingResponseDto> getOwnerBookings(Long userId, BookingApiState state) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new NotFoundException("User " + userId + " not found"));
+        if (!userLookupCache.exists(userId)) throw new NotFoundException("User " + userId + " not found");
 
         OffsetDateTime nowTime = OffsetDateTime.now();
+        if (jdbcReadPath) return bookingJdbcReadRepository.findByItemOwnerId(userId, state, nowTime);
         Sort sort = Sort.by("start").descending();
 
         List<Booking> bookings = switch (state) {
@@ -148,4 +294,90 @@ public class BookingServiceImpl implements BookingService {
         return bookings.stream().filter(Objects::nonNull).map(BookingResponseDto::from).toList();
     }
 
-}
\ No newline at end of file
+    @Override
+    public OwnerBookingCountDto getOwnerBookingCount(Long userId) {
+        if (!userLookupCache.exists(userId)) throw new NotFoundException("User " + userId + " not found");
+        return OwnerBookingCountDto.of(ownerBookingCounterService.getWaitingCount(userId));
+    }
+
+    @Override
+    public BookingChangesDto getBookerChanges(Long userId, String since) {
+        if (!userLookupCache.exists(userId)) throw new NotFoundException("User " + userId + " not found");
+        ChangeToken sinceToken = ChangeToken.parse(since);
+        long watermark = changesWatermark();
+        return toChanges(sinceToken, watermark, bookingRepository.findBookerChangesAfter(userId, sinceToken.xid(),
+                sinceToken.seq(), Limit.of(changesPageSize)));
+    }
+
+    @Override
+    public BookingChangesDto getOwnerChanges(Long userId, String since) {
+        if (!userLookupCache.exists(userId)) throw new NotFoundException("User " + userId + " not found");
+        ChangeToken sinceToken = ChangeToken.parse(since);
+        long watermark = changesWatermark();
+        return toChanges(sinceToken, watermark, bookingRepository.findOwnerChangesAfter(userId, sinceToken.xid(),
+                sinceToken.seq(), Limit.of(changesPageSize)));
+    }
+
+    // Read before the rows: a transaction that commits in between has an id at or above it. Without transaction
+    // ids (H2 in tests) every row counts as settled.
+    private long changesWatermark() {
+        return changesTransactionWatermark ? bookingRepository.findSnapshotXmin() : Long.MAX_VALUE;
+    }
+
+    private BookingChangesDto toChanges(ChangeToken sinceToken, long watermark, List<Booking> changed) {
+        // Rows come ordered by the transaction that wrote them. A running transaction has an id at or above the
+        // watermark, so the token only moves over rows below it: nothing ordered before those can still appear.
+        // Newer rows are sent again on the next call, which is harmless for an upsert-style sync.
+        ChangeToken token = sinceToken;
+        for (Booking booking : changed) {
+            if (booking.getChangeXid() >= watermark) break;
+            token = new ChangeToken(booking.getChangeXid(), booking.getChangeSeq());
+        }
+        boolean hasMore = changed.size() == changesPageSize && !token.equals(sinceToken);
+        return BookingChangesDto.of(changed.stream().map(BookingResponseDto::from).toList(), token.toString(),
+                hasMore);
+    }
+
+    @Override
+    public void exportOwnerBookings(Long userId, OutputStream out) throws IOException {
+        if (!userLookupCache.exists(userId)) throw new NotFoundException("User " + userId + " not found");
+
+        try {
+            bookingJdbcReadRepository.streamByItemOwnerId(userId, booking -> {
+                try {
+                    out.write(objectMapper.writeValueAsBytes(booking));
+                    out.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        out.flush();
+    }
+
+    private record ChangeToken(long xid, long seq) {
+
+        static ChangeToken parse(String since) {
+            if (since == null || since.isBlank()) return new ChangeToken(0, 0);
+            int separator = since.indexOf('-');
+            if (separator < 0) throw new BadRequestException("Invalid change token " + since);
+            try {
+                ChangeToken token = new ChangeToken(Long.parseLong(since.substring(0, separator)),
+                        Long.parseLong(since.substring(separator + 1)));
+                if (token.xid() >= 0 && token.seq() >= 0) return token;
+            } catch (NumberFormatException ignored) {
+                // reported below
+            }
+            throw new BadRequestException("Invalid change token " + since);
+        }
+
+        @Override
+        public String toString() {
+            return xid + "-" + seq;
+        }
+
+    }
+
+}
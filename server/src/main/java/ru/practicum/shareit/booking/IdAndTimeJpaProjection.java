@@ -1,11 +0,0 @@
-package ru.practicum.shareit.booking;
-
-import java.time.OffsetDateTime;
-
-public interface IdAndTimeJpaProjection {
-
-    Long getId();
-
-    OffsetDateTime getTime();
-
-}
\ No newline at end of file
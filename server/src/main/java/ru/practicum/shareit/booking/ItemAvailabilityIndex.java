@@ -0,0 +1,142 @@
+package ru.practicum.shareit.booking;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.practicum.shareit.datasource.PrimaryReads;
+import ru.practicum.shareit.item.TimeIntervalDto;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Approved bookings of an item never overlap, so each timeline is a sorted map of disjoint intervals keyed by start.
+// Timelines only hold intervals that have not ended yet; they are loaded from the primary on first lookup and then
+// kept in sync from committed booking events. Lookups are for windows that start no earlier than now.
+@Component
+public class ItemAvailabilityIndex {
+
+    private static final int STAMP_STRIPES = 64;
+
+    private final BookingRepository bookingRepository;
+    private final PrimaryReads primaryReads;
+    private final Cache<Long, ConcurrentSkipListMap<Instant, Instant>> timelines;
+    // bumped by every event, so a load that raced with one does not cache what it read
+    private final AtomicLongArray stamps = new AtomicLongArray(STAMP_STRIPES);
+
+    public ItemAvailabilityIndex(
+            BookingRepository bookingRepository,
+            PrimaryReads primaryReads,
+            MeterRegistry meterRegistry,
+            @Value("${shareit.item-availability.maximum-size}") long maximumSize,
+            @Value("${shareit.item-availability.expire-after-access}") Duration expireAfterAccess
+    ) {
+        this.bookingRepository = bookingRepository;
+        this.primaryReads = primaryReads;
+        this.timelines = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterAccess(expireAfterAccess)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, timelines, "item-availability");
+    }
+
+    public List<TimeIntervalDto> getBusyIntervals(Long itemId, OffsetDateTime from, OffsetDateTime to) {
+        Instant nowInstant = Instant.now();
+        Instant fromInstant = from.toInstant();
+        Instant toInstant = to.toInstant();
+        ConcurrentSkipListMap<Instant, Instant> timeline = timeline(itemId, nowInstant);
+
+        List<TimeIntervalDto> busy = new ArrayList<>();
+        Map.Entry<Instant, Instant> preceding = timeline.lowerEntry(fromInstant);
+        if (preceding != null && preceding.getValue().isAfter(fromInstant)) {
+            busy.add(clip(preceding.getKey(), preceding.getValue(), fromInstant, toInstant));
+        }
+        for (Map.Entry<Instant, Instant> entry : timeline.subMap(fromInstant, true, toInstant, false).entrySet()) {
+            busy.add(clip(entry.getKey(), entry.getValue(), fromInstant, toInstant));
+        }
+        return busy;
+    }
+
+    @TransactionalEventListener
+    public void onBookingEvent(BookingEvent event) {
+        if (event.status() != BookingStatus.APPROVED && event.previousStatus() != BookingStatus.APPROVED) return;
+        stamps.incrementAndGet(stripe(event.itemId()));
+
+        Instant start = event.start().toInstant();
+        Instant end = event.end().toInstant();
+        timelines.asMap().computeIfPresent(event.itemId(), (id, timeline) -> {
+            if (event.status() == BookingStatus.APPROVED) {
+                timeline.put(start, end);
+            } else {
+                timeline.remove(start, end);
+            }
+            return timeline;
+        });
+    }
+
+    public void evict(Long itemId) {
+        stamps.incrementAndGet(stripe(itemId));
+        timelines.invalidate(itemId);
+    }
+
+    public void evictAll() {
+        for (int i = 0; i < STAMP_STRIPES; i++) {
+            stamps.incrementAndGet(i);
+        }
+        timelines.invalidateAll();
+    }
+
+    private ConcurrentSkipListMap<Instant, Instant> timeline(Long itemId, Instant nowInstant) {
+        ConcurrentSkipListMap<Instant, Instant> timeline = timelines.getIfPresent(itemId);
+        if (timeline != null) {
+            // intervals never overlap, so ends are sorted like starts and finished ones sit at the head
+            Map.Entry<Instant, Instant> first;
+            while ((first = timeline.firstEntry()) != null && !first.getValue().isAfter(nowInstant)) {
+                timeline.remove(first.getKey(), first.getValue());
+            }
+            return timeline;
+        }
+
+        // the query runs outside any cache lock; the stamp is checked again after publishing, because an event
+        // that lands between the check and the put would have found nothing to update
+        int stripe = stripe(itemId);
+        long stamp = stamps.get(stripe);
+        ConcurrentSkipListMap<Instant, Instant> loaded = primaryReads.load(() -> load(itemId, nowInstant));
+        if (stamps.get(stripe) != stamp) return loaded;
+        ConcurrentSkipListMap<Instant, Instant> existing = timelines.asMap().putIfAbsent(itemId, loaded);
+        if (existing != null) return existing;
+        if (stamps.get(stripe) != stamp) timelines.asMap().remove(itemId, loaded);
+        return loaded;
+    }
+
+    private ConcurrentSkipListMap<Instant, Instant> load(Long itemId, Instant endAfter) {
+        ConcurrentSkipListMap<Instant, Instant> timeline = new ConcurrentSkipListMap<>();
+        for (TimeIntervalJpaProjection interval : bookingRepository.findIntervalsByItemIdAndStatusAndEndAfter(itemId,
+                BookingStatus.APPROVED, endAfter.atOffset(ZoneOffset.UTC))) {
+            timeline.put(interval.getStart().toInstant(), interval.getEnd().toInstant());
+        }
+        return timeline;
+    }
+
+    private static int stripe(Long itemId) {
+        return Math.floorMod(itemId.hashCode(), STAMP_STRIPES);
+    }
+
+    private static TimeIntervalDto clip(Instant start, Instant end, Instant from, Instant to) {
+        Instant clippedStart = start.isBefore(from) ? from : start;
+        Instant clippedEnd = end.isAfter(to) ? to : end;
+        return TimeIntervalDto.of(clippedStart.atOffset(ZoneOffset.UTC), clippedEnd.atOffset(ZoneOffset.UTC));
+    }
+
+}
@@ -0,0 +1,15 @@
+package ru.practicum.shareit.booking;
+
+import java.time.OffsetDateTime;
+
+public interface LastAndNextBookingJpaProjection {
+
+    Long getId();
+
+    OffsetDateTime getLastBooking();
+
+    OffsetDateTime getNextBooking();
+
+    OffsetDateTime getCurrentBookingEnd();
+
+}
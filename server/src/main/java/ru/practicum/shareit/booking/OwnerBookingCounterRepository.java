@@ -0,0 +1,64 @@
+package ru.practicum.shareit.booking;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface OwnerBookingCounterRepository extends JpaRepository<OwnerBookingCounter, OwnerBookingCounter.Key> {
+
+    @Query("""
+            select sum(c.waitingCount) from OwnerBookingCounter as c
+            where c.ownerId = :ownerId
+            """)
+    Optional<Long> findWaitingCountByOwnerId(
+            @Param("ownerId") Long ownerId
+    );
+
+    @Modifying
+    @Query("""
+            update OwnerBookingCounter as c
+            set c.waitingCount = c.waitingCount + :waitingDelta
+            where c.ownerId = :ownerId
+              and c.stripe = :stripe
+            """)
+    int addToWaitingCount(
+            @Param("ownerId") Long ownerId,
+            @Param("stripe") int stripe,
+            @Param("waitingDelta") long waitingDelta
+    );
+
+    @Modifying
+    @Query("""
+            update OwnerBookingCounter as c
+            set c.waitingCount = c.waitingCount - (
+                select count(b) from Booking as b
+                where b.item.id = :itemId and b.status = :status
+            )
+            where c.ownerId = :ownerId
+              and c.stripe = :stripe
+            """)
+    int subtractItemBookings(
+            @Param("ownerId") Long ownerId,
+            @Param("stripe") int stripe,
+            @Param("itemId") Long itemId,
+            @Param("status") BookingStatus status
+    );
+
+    @Query("""
+            select b.item.owner.id as ownerId, count(b) as waitingCount
+            from Booking as b
+            where b.booker.id = :bookerId
+              and b.status = :status
+            group by b.item.owner.id
+            order by b.item.owner.id
+            """)
+    List<OwnerWaitingCountJpaProjection> countBookerBookingsByOwner(
+            @Param("bookerId") Long bookerId,
+            @Param("status") BookingStatus status
+    );
+
+}
@@ -0,0 +1,91 @@
+package ru.practicum.shareit.booking;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.user.User;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Per-owner count of bookings awaiting approval, moved by every status transition inside the booking's own
+// transaction. Deletes cascade bookings away in the database without events, so they adjust the counts up front.
+// Each count is kept in STRIPES rows summed on read. A transaction writes one randomly chosen stripe, so it holds
+// one row per owner however many transitions it makes, and concurrent transactions mostly miss that row.
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class OwnerBookingCounterService {
+
+    static final int STRIPES = 8;
+    private static final Object STRIPE_KEY = new Object();
+
+    private final OwnerBookingCounterRepository ownerBookingCounterRepository;
+
+    @Transactional(readOnly = false)
+    public void create(User owner) {
+        List<OwnerBookingCounter> counters = new ArrayList<>(STRIPES);
+        for (int stripe = 0; stripe < STRIPES; stripe++) {
+            OwnerBookingCounter counter = new OwnerBookingCounter();
+            counter.setOwnerId(owner.getId());
+            counter.setStripe(stripe);
+            counter.setWaitingCount(0L);
+            counters.add(counter);
+        }
+        ownerBookingCounterRepository.saveAll(counters);
+    }
+
+    public long getWaitingCount(Long ownerId) {
+        return ownerBookingCounterRepository.findWaitingCountByOwnerId(ownerId).orElse(0L);
+    }
+
+    @EventListener
+    @Transactional(readOnly = false)
+    public void onBookingEvent(BookingEvent event) {
+        long waitingDelta = 0;
+        if (event.previousStatus() == BookingStatus.WAITING) waitingDelta--;
+        if (event.status() == BookingStatus.WAITING) waitingDelta++;
+        if (waitingDelta != 0) {
+            ownerBookingCounterRepository.addToWaitingCount(event.ownerId(), stripe(), waitingDelta);
+        }
+    }
+
+    @Transactional(readOnly = false)
+    public void beforeItemDeleted(Long ownerId, Long itemId) {
+        ownerBookingCounterRepository.subtractItemBookings(ownerId, stripe(), itemId, BookingStatus.WAITING);
+    }
+
+    @Transactional(readOnly = false)
+    public void beforeUserDeleted(Long userId) {
+        // owner by owner in id order, so concurrent deletes lock the rows they share in the same order
+        int stripe = stripe();
+        for (OwnerWaitingCountJpaProjection waiting
+                : ownerBookingCounterRepository.countBookerBookingsByOwner(userId, BookingStatus.WAITING)) {
+            ownerBookingCounterRepository.addToWaitingCount(waiting.getOwnerId(), stripe, -waiting.getWaitingCount());
+        }
+    }
+
+    // picked once per transaction: stripes chosen per write could be locked in opposite orders by two transactions
+    private static int stripe() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return ThreadLocalRandom.current().nextInt(STRIPES);
+        }
+        Integer stripe = (Integer) TransactionSynchronizationManager.getResource(STRIPE_KEY);
+        if (stripe == null) {
+            stripe = ThreadLocalRandom.current().nextInt(STRIPES);
+            TransactionSynchronizationManager.bindResource(STRIPE_KEY, stripe);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(STRIPE_KEY);
+                }
+            });
+        }
+        return stripe;
+    }
+
+}
@@ -0,0 +1,9 @@
+package ru.practicum.shareit.booking;
+
+public interface OwnerWaitingCountJpaProjection {
+
+    Long getOwnerId();
+
+    Long getWaitingCount();
+
+}
@@ -0,0 +1,7 @@
+package ru.practicum.shareit.booking;
+
+// A booking transition committed on another server instance, relayed so this one can notify its own clients.
+public record RemoteBookingEvent(
+        BookingEvent event
+) {
+}
@@ -0,0 +1,11 @@
+package ru.practicum.shareit.booking;
+
+import java.time.OffsetDateTime;
+
+public interface TimeIntervalJpaProjection {
+
+    OffsetDateTime getStart();
+
+    OffsetDateTime getEnd();
+
+}
@@ -0,0 +1,7 @@
+package ru.practicum.shareit.cache;
+
+public record CacheInvalidationEvent(
+        CacheRegion region,
+        Long id
+) {
+}
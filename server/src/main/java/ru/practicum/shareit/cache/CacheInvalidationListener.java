@@ -0,0 +1,160 @@
+package ru.practicum.shareit.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.BookingEvent;
+import ru.practicum.shareit.booking.RemoteBookingEvent;
+import ru.practicum.shareit.request.ItemRequestNotificationEvent;
+import ru.practicum.shareit.request.RemoteItemRequestNotificationEvent;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.function.Function;
+
+// Listens on a dedicated connection outside the pool. Notifications sent while the connection was down are lost,
+// so every reconnect starts with a full flush of local caches. Booking transitions and item request notifications
+// from other instances are republished here as remote events; those lost while disconnected are not recovered here,
+// clients catch up through their own resync paths.
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "shareit.cache-invalidation.enabled", havingValue = "true")
+public class CacheInvalidationListener implements SmartLifecycle {
+
+    private final DataSourceProperties dataSourceProperties;
+    private final CacheInvalidationNotifier cacheInvalidationNotifier;
+    private final LocalCacheEvictor localCacheEvictor;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+    private final String channel;
+    private final int pollTimeoutMillis;
+    private final long reconnectDelayMillis;
+
+    private volatile boolean running;
+    private Thread thread;
+
+    public CacheInvalidationListener(
+            DataSourceProperties dataSourceProperties,
+            CacheInvalidationNotifier cacheInvalidationNotifier,
+            LocalCacheEvictor localCacheEvictor,
+            ApplicationEventPublisher eventPublisher,
+            ObjectMapper objectMapper,
+            @Value("${shareit.cache-invalidation.channel}") String channel,
+            @Value("${shareit.cache-invalidation.poll-timeout-millis}") int pollTimeoutMillis,
+            @Value("${shareit.cache-invalidation.reconnect-delay-millis}") long reconnectDelayMillis
+    ) {
+        this.dataSourceProperties = dataSourceProperties;
+        this.cacheInvalidationNotifier = cacheInvalidationNotifier;
+        this.localCacheEvictor = localCacheEvictor;
+        this.eventPublisher = eventPublisher;
+        this.objectMapper = objectMapper;
+        this.channel = channel;
+        this.pollTimeoutMillis = pollTimeoutMillis;
+        this.reconnectDelayMillis = reconnectDelayMillis;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        thread = new Thread(this::listen, "cache-invalidation-listener");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (thread != null) thread.interrupt();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void listen() {
+        boolean connectedBefore = false;
+        while (running) {
+            try (Connection connection = connect()) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + channel);
+                }
+                if (connectedBefore) {
+                    localCacheEvictor.requireCurrentPrimaryPosition();
+                    localCacheEvictor.evictAll();
+                }
+                connectedBefore = true;
+                log.info("LISTENING FOR CACHE INVALIDATIONS ON {}", channel);
+
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(pollTimeoutMillis);
+                    if (notifications == null) continue;
+                    // the senders have committed, so the primary's position now is past every change announced
+                    localCacheEvictor.requireCurrentPrimaryPosition();
+                    for (PGNotification notification : notifications) {
+                        handle(notification.getParameter());
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) return;
+                log.warn("CACHE INVALIDATION LISTENER DISCONNECTED: {}", e.getMessage());
+                try {
+                    Thread.sleep(reconnectDelayMillis);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    Connection connect() throws SQLException {
+        return DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword());
+    }
+
+    void handle(String payload) {
+        String[] parts = payload.split("\\|", 3);
+        if (parts.length != 3) {
+            log.warn("MALFORMED CACHE INVALIDATION: {}", payload);
+            return;
+        }
+        if (cacheInvalidationNotifier.getNodeId().equals(parts[0])) return;
+        if (CacheInvalidationNotifier.BOOKING_MESSAGE.equals(parts[1])) {
+            relay(parts[2], BookingEvent.class, RemoteBookingEvent::new);
+            return;
+        }
+        if (CacheInvalidationNotifier.ITEM_REQUEST_MESSAGE.equals(parts[1])) {
+            relay(parts[2], ItemRequestNotificationEvent.class, RemoteItemRequestNotificationEvent::new);
+            return;
+        }
+        try {
+            localCacheEvictor.evict(CacheRegion.valueOf(parts[1]), Long.valueOf(parts[2]));
+        } catch (IllegalArgumentException e) {
+            log.warn("MALFORMED CACHE INVALIDATION: {}", payload);
+        }
+    }
+
+    private <T> void relay(String body, Class<T> type, Function<T, Object> remote) {
+        T event;
+        try {
+            event = objectMapper.readValue(body, type);
+        } catch (JsonProcessingException e) {
+            log.warn("MALFORMED {}: {}", type.getSimpleName(), body);
+            return;
+        }
+        eventPublisher.publishEvent(remote.apply(event));
+    }
+
+}
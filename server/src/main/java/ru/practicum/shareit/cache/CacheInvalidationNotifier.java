@@ -0,0 +1,77 @@
+package ru.practicum.shareit.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.BookingEvent;
+import ru.practicum.shareit.request.ItemRequestNotificationEvent;
+
+import java.util.UUID;
+
+// NOTIFY issued inside a transaction is delivered by Postgres only when that transaction commits,
+// so other instances never see an invalidation for a write that was rolled back. Booking transitions and item
+// request notifications travel the same way, so every instance can push them to the clients connected to it.
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "shareit.cache-invalidation.enabled", havingValue = "true")
+public class CacheInvalidationNotifier {
+
+    static final String BOOKING_MESSAGE = "BOOKING";
+    static final String ITEM_REQUEST_MESSAGE = "ITEM_REQUEST_NOTIFICATION";
+
+    @Getter
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final String channel;
+
+    public CacheInvalidationNotifier(
+            JdbcTemplate jdbcTemplate,
+            ObjectMapper objectMapper,
+            @Value("${shareit.cache-invalidation.channel}") String channel
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.channel = channel;
+    }
+
+    @EventListener
+    public void onCacheInvalidationEvent(CacheInvalidationEvent event) {
+        notify(event.region(), event.id());
+    }
+
+    @EventListener
+    public void onBookingEvent(BookingEvent event) {
+        notify(CacheRegion.ITEM_BOOKINGS, event.itemId());
+        relay(BOOKING_MESSAGE, event);
+    }
+
+    @EventListener
+    public void onItemRequestNotificationEvent(ItemRequestNotificationEvent event) {
+        relay(ITEM_REQUEST_MESSAGE, event);
+    }
+
+    private void relay(String kind, Object event) {
+        try {
+            send(kind, objectMapper.writeValueAsString(event));
+        } catch (JsonProcessingException e) {
+            log.warn("COULD NOT RELAY {}: {}", event, e.getMessage());
+        }
+    }
+
+    private void notify(CacheRegion region, Long id) {
+        send(region.name(), id.toString());
+    }
+
+    private void send(String kind, String body) {
+        jdbcTemplate.queryForList("SELECT pg_notify(?, ?)", channel, nodeId + "|" + kind + "|" + body);
+    }
+
+}
@@ -0,0 +1,10 @@
+package ru.practicum.shareit.cache;
+
+public enum CacheRegion {
+    USER,
+    USER_DELETED,
+    ITEM,
+    OWNER_ITEMS,
+    ITEM_REQUEST,
+    ITEM_BOOKINGS
+}
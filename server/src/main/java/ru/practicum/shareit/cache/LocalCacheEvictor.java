@@ -0,0 +1,75 @@
+package ru.practicum.shareit.cache;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Cache;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.practicum.shareit.booking.ItemAvailabilityIndex;
+import ru.practicum.shareit.datasource.ReplicaRoutingDataSource;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.request.ItemRequest;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserLookupCache;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LocalCacheEvictor {
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final UserLookupCache userLookupCache;
+    private final ItemAvailabilityIndex itemAvailabilityIndex;
+    private final ObjectProvider<ReplicaRoutingDataSource> replicaRoutingDataSource;
+
+    // the database cascades some deletes behind Hibernate's back, so local caches are evicted after commit as well
+    @TransactionalEventListener
+    public void onCacheInvalidationEvent(CacheInvalidationEvent event) {
+        requireCurrentPrimaryPosition();
+        evict(event.region(), event.id());
+    }
+
+    // reloads after an eviction must not come from a replica that has not replayed the change yet
+    public void requireCurrentPrimaryPosition() {
+        replicaRoutingDataSource.ifAvailable(ReplicaRoutingDataSource::requireCurrentPrimaryPosition);
+    }
+
+    public void evict(CacheRegion region, Long id) {
+        Cache secondLevelCache = entityManagerFactory.getCache().unwrap(Cache.class);
+        switch (region) {
+            case USER -> {
+                userLookupCache.invalidateLocally(id);
+                secondLevelCache.evictEntityData(User.class, id);
+            }
+            case USER_DELETED -> {
+                userLookupCache.invalidateLocally(id);
+                secondLevelCache.evictEntityData(User.class, id);
+                secondLevelCache.evictEntityData(Item.class);
+                secondLevelCache.evictEntityData(ItemRequest.class);
+                secondLevelCache.evictDefaultQueryRegion();
+                itemAvailabilityIndex.evictAll();
+            }
+            case ITEM -> {
+                secondLevelCache.evictEntityData(Item.class, id);
+                secondLevelCache.evictDefaultQueryRegion();
+            }
+            // new items of an owner are in no entity cache yet, only cached queries can miss them
+            case OWNER_ITEMS -> secondLevelCache.evictDefaultQueryRegion();
+            case ITEM_REQUEST -> {
+                secondLevelCache.evictEntityData(ItemRequest.class, id);
+                secondLevelCache.evictDefaultQueryRegion();
+            }
+            case ITEM_BOOKINGS -> itemAvailabilityIndex.evict(id);
+        }
+    }
+
+    public void evictAll() {
+        log.info("EVICTING ALL LOCAL CACHES");
+        userLookupCache.invalidateAll();
+        entityManagerFactory.getCache().evictAll();
+        itemAvailabilityIndex.evictAll();
+    }
+
+}
@@ -0,0 +1,72 @@
+package ru.practicum.shareit.datasource;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+public class PostgresReplicationProbe implements ReplicationProbe {
+
+    private static final String PRIMARY_POSITION = "SELECT pg_wal_lsn_diff(pg_current_wal_lsn(), '0/0')::bigint";
+
+    // the replay timestamp stands still while the primary is idle, so a replica that has replayed everything
+    // it received counts as having no lag
+    private static final String REPLICA_STATE = """
+            SELECT pg_wal_lsn_diff(pg_last_wal_replay_lsn(), '0/0')::bigint,
+                   CASE WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                        ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000, 0)
+                   END::bigint
+            """;
+
+    private static final String MARK_WRITE = """
+            INSERT INTO user_write_marks (user_id, write_seq) VALUES (?, 1)
+            ON CONFLICT (user_id) DO UPDATE SET write_seq = user_write_marks.write_seq + 1
+            RETURNING write_seq
+            """;
+
+    private static final String WRITE_MARK = "SELECT write_seq FROM user_write_marks WHERE user_id = ?";
+
+    @Override
+    public long primaryPosition(Connection primary) throws SQLException {
+        try (Statement statement = primary.createStatement();
+             ResultSet resultSet = statement.executeQuery(PRIMARY_POSITION)) {
+            resultSet.next();
+            return resultSet.getLong(1);
+        }
+    }
+
+    @Override
+    public ReplicaState replicaState(Connection replica) throws SQLException {
+        try (Statement statement = replica.createStatement();
+             ResultSet resultSet = statement.executeQuery(REPLICA_STATE)) {
+            resultSet.next();
+            long replayedPosition = resultSet.getLong(1);
+            // a server that is not in recovery has no replay position and is no replica of ours
+            if (resultSet.wasNull()) throw new SQLException("Not a streaming replica");
+            return new ReplicaState(replayedPosition, resultSet.getLong(2));
+        }
+    }
+
+    @Override
+    public long markWrite(Connection primary, Long userId) throws SQLException {
+        try (PreparedStatement statement = primary.prepareStatement(MARK_WRITE)) {
+            statement.setLong(1, userId);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                resultSet.next();
+                return resultSet.getLong(1);
+            }
+        }
+    }
+
+    @Override
+    public long writeMark(Connection connection, Long userId) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(WRITE_MARK)) {
+            statement.setLong(1, userId);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next() ? resultSet.getLong(1) : 0;
+            }
+        }
+    }
+
+}
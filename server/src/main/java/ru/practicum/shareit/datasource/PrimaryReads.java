@@ -0,0 +1,50 @@
+package ru.practicum.shareit.datasource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.function.Supplier;
+
+// Loads that fill long-lived local caches read from the primary, so a lagging replica can not put rows older than
+// the last invalidation back into them. A read-only caller is suspended for the load; a writing caller is on the
+// primary already and may hold uncommitted rows the load has to see, so it loads in place.
+@Component
+public class PrimaryReads {
+
+    private static final ThreadLocal<Boolean> ACTIVE = new ThreadLocal<>();
+
+    private final TransactionTemplate transactionTemplate;
+    private final boolean routingEnabled;
+
+    public PrimaryReads(
+            PlatformTransactionManager transactionManager,
+            @Value("${shareit.datasource.routing-enabled}") boolean routingEnabled
+    ) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.routingEnabled = routingEnabled;
+    }
+
+    public <T> T load(Supplier<T> loader) {
+        boolean writing = TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+        if (!routingEnabled || writing || isActive()) return loader.get();
+
+        ACTIVE.set(Boolean.TRUE);
+        try {
+            return transactionTemplate.execute(status -> loader.get());
+        } finally {
+            ACTIVE.remove();
+        }
+    }
+
+    static boolean isActive() {
+        return Boolean.TRUE.equals(ACTIVE.get());
+    }
+
+}
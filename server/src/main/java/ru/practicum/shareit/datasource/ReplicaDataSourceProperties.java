@@ -0,0 +1,40 @@
+package ru.practicum.shareit.datasource;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "shareit.datasource")
+public class ReplicaDataSourceProperties {
+
+    private Pool writePool = new Pool();
+    private Pool readPool = new Pool();
+    private List<Replica> replicas = new ArrayList<>();
+    private Duration maxReplicaLag = Duration.ofSeconds(2);
+    private int healthCheckTimeoutSeconds = 2;
+    private WriteMarks writeMarks = new WriteMarks();
+
+    @Data
+    public static class Pool {
+        private int maximumPoolSize = 10;
+        private Duration connectionTimeout = Duration.ofSeconds(30);
+    }
+
+    @Data
+    public static class WriteMarks {
+        private long maximumSize = 100_000;
+        private Duration expireAfterWrite = Duration.ofSeconds(5);
+    }
+
+    @Data
+    public static class Replica {
+        private String url;
+        private String username;
+        private String password;
+    }
+
+}
@@ -0,0 +1,86 @@
+package ru.practicum.shareit.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Configuration
+@ConditionalOnProperty(name = "shareit.datasource.routing-enabled", havingValue = "true")
+@EnableConfigurationProperties(ReplicaDataSourceProperties.class)
+public class ReplicaRoutingConfig {
+
+    private ReplicaRoutingDataSource routingDataSource;
+    private int healthCheckTimeoutSeconds;
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(
+            DataSourceProperties primaryProperties,
+            ReplicaDataSourceProperties routingProperties,
+            MeterRegistry meterRegistry
+    ) {
+        MicrometerMetricsTrackerFactory metricsTrackerFactory = new MicrometerMetricsTrackerFactory(meterRegistry);
+
+        HikariDataSource primary = pool(ReplicaRoutingDataSource.PRIMARY, primaryProperties.determineUrl(),
+                primaryProperties.determineUsername(), primaryProperties.determinePassword(),
+                routingProperties.getWritePool(), metricsTrackerFactory);
+        HikariDataSource primaryRead = pool(ReplicaRoutingDataSource.PRIMARY_READ, primaryProperties.determineUrl(),
+                primaryProperties.determineUsername(), primaryProperties.determinePassword(),
+                routingProperties.getReadPool(), metricsTrackerFactory);
+        primaryRead.setReadOnly(true);
+
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        List<ReplicaDataSourceProperties.Replica> replicaList = routingProperties.getReplicas();
+        for (int i = 0; i < replicaList.size(); i++) {
+            ReplicaDataSourceProperties.Replica replica = replicaList.get(i);
+            HikariDataSource replicaDataSource = pool("replica-" + i, replica.getUrl(), replica.getUsername(),
+                    replica.getPassword(), routingProperties.getReadPool(), metricsTrackerFactory);
+            replicaDataSource.setReadOnly(true);
+            replicas.put(replicaDataSource.getPoolName(), replicaDataSource);
+        }
+
+        routingDataSource = new ReplicaRoutingDataSource(primary, primaryRead, replicas,
+                new PostgresReplicationProbe(), routingProperties.getMaxReplicaLag(),
+                routingProperties.getWriteMarks());
+        healthCheckTimeoutSeconds = routingProperties.getHealthCheckTimeoutSeconds();
+        return routingDataSource;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.datasource.health-check-interval-millis}")
+    public void checkReplicaHealth() {
+        if (routingDataSource != null) routingDataSource.checkReplicaHealth(healthCheckTimeoutSeconds);
+    }
+
+    private static HikariDataSource pool(String name, String url, String username, String password,
+                                         ReplicaDataSourceProperties.Pool poolProperties,
+                                         MicrometerMetricsTrackerFactory metricsTrackerFactory) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName(name);
+        dataSource.setJdbcUrl(url);
+        dataSource.setUsername(username);
+        dataSource.setPassword(password);
+        dataSource.setMaximumPoolSize(poolProperties.getMaximumPoolSize());
+        dataSource.setConnectionTimeout(poolProperties.getConnectionTimeout().toMillis());
+        dataSource.setMetricsTrackerFactory(metricsTrackerFactory);
+        return dataSource;
+    }
+
+}
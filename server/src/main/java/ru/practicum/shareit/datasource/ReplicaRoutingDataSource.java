@@ -0,0 +1,201 @@
+package ru.practicum.shareit.datasource;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Read-only transactions go to a healthy replica in round-robin order, but only to one that has replayed the
+// requesting user's last write and every cache invalidation this instance has applied; otherwise they use the
+// primary's separate read pool. Everything else goes to the primary's write pool. A user's last write mark is
+// remembered locally once this instance has committed or looked it up, so the primary is asked only for users
+// it holds no mark for; an entry expires shortly, after which a write made through another instance is seen.
+// Must be wrapped in a
+// LazyConnectionDataSourceProxy so the connection is picked after the transaction's read-only flag is known.
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    public static final String PRIMARY = "primary";
+    public static final String PRIMARY_READ = "primary-read";
+
+    private final DataSource primary;
+    private final DataSource primaryRead;
+    private final Map<String, DataSource> replicas;
+    private final List<String> replicaKeys;
+    // last position seen replayed by each healthy replica; a replica missing here takes no reads
+    private final Map<String, Long> replayedPositions = new ConcurrentHashMap<>();
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    private final AtomicLong requiredPosition = new AtomicLong();
+    private final Cache<Long, Long> userWriteMarks;
+    private final ReplicationProbe replicationProbe;
+    private final long maxReplicaLagMillis;
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource primaryRead, Map<String, DataSource> replicas,
+                                    ReplicationProbe replicationProbe, Duration maxReplicaLag,
+                                    ReplicaDataSourceProperties.WriteMarks writeMarks) {
+        this.primary = primary;
+        this.primaryRead = primaryRead;
+        this.replicas = replicas;
+        this.replicaKeys = List.copyOf(replicas.keySet());
+        this.replicationProbe = replicationProbe;
+        this.maxReplicaLagMillis = maxReplicaLag.toMillis();
+        this.userWriteMarks = Caffeine.newBuilder()
+                .maximumSize(writeMarks.getMaximumSize())
+                .expireAfterWrite(writeMarks.getExpireAfterWrite())
+                .build();
+
+        Map<Object, Object> targetDataSources = new HashMap<>(replicas);
+        targetDataSources.put(PRIMARY, primary);
+        targetDataSources.put(PRIMARY_READ, primaryRead);
+        setTargetDataSources(targetDataSources);
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    // replica reads need a position check on the connection itself, so only getConnection() picks replicas
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return TransactionSynchronizationManager.isCurrentTransactionReadOnly() ? PRIMARY_READ : PRIMARY;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            Connection connection = primary.getConnection();
+            markWriteBeforeCommit(connection, RequestUserContext.getUserId());
+            return connection;
+        }
+        if (replicaKeys.isEmpty() || PrimaryReads.isActive()) return primaryRead.getConnection();
+
+        Long userId = RequestUserContext.getUserId();
+        long userMark = userId == null ? 0 : userWriteMark(userId);
+
+        long required = requiredPosition.get();
+        for (int i = 0; i < replicaKeys.size(); i++) {
+            String key = replicaKeys.get(Math.floorMod(nextReplica.getAndIncrement(), replicaKeys.size()));
+            Connection connection = replicaConnection(key, required, userId, userMark);
+            if (connection != null) return connection;
+        }
+        return primaryRead.getConnection();
+    }
+
+    public void advanceRequiredPosition(long position) {
+        requiredPosition.accumulateAndGet(position, Math::max);
+    }
+
+    // reads that follow an invalidation must not reload from a replica that has not replayed the change yet
+    public void requireCurrentPrimaryPosition() {
+        try (Connection connection = primaryRead.getConnection()) {
+            advanceRequiredPosition(replicationProbe.primaryPosition(connection));
+        } catch (SQLException e) {
+            log.warn("COULD NOT READ PRIMARY POSITION: {}", e.getMessage());
+        }
+    }
+
+    public void checkReplicaHealth(int timeoutSeconds) {
+        for (Map.Entry<String, DataSource> replica : replicas.entrySet()) {
+            ReplicationProbe.ReplicaState state = null;
+            String problem = null;
+            try (Connection connection = replica.getValue().getConnection()) {
+                if (!connection.isValid(timeoutSeconds)) {
+                    problem = "connection is not valid";
+                } else {
+                    state = replicationProbe.replicaState(connection);
+                    if (state.lagMillis() > maxReplicaLagMillis) problem = "lags " + state.lagMillis() + " ms";
+                }
+            } catch (SQLException e) {
+                problem = e.getMessage();
+            }
+
+            if (problem == null) {
+                long replayed = state.replayedPosition();
+                if (replayedPositions.put(replica.getKey(), replayed) == null) {
+                    log.info("REPLICA {} IS BACK", replica.getKey());
+                }
+            } else if (replayedPositions.remove(replica.getKey()) != null) {
+                log.warn("REPLICA {} IS UNHEALTHY ({}), ROUTING READS AWAY FROM IT", replica.getKey(), problem);
+            }
+        }
+    }
+
+    private long userWriteMark(Long userId) throws SQLException {
+        Long known = userWriteMarks.getIfPresent(userId);
+        if (known != null) return known;
+        long mark;
+        try (Connection connection = primaryRead.getConnection()) {
+            mark = replicationProbe.writeMark(connection, userId);
+        }
+        // a write committed here meanwhile may have left a higher mark
+        return userWriteMarks.asMap().merge(userId, mark, Math::max);
+    }
+
+    private Connection replicaConnection(String key, long required, Long userId, long userMark) {
+        Long replayed = replayedPositions.get(key);
+        if (replayed == null) return null;
+        Connection connection = null;
+        try {
+            connection = replicas.get(key).getConnection();
+            if (replayed < required) {
+                long current = replicationProbe.replicaState(connection).replayedPosition();
+                replayedPositions.computeIfPresent(key, (k, known) -> Math.max(known, current));
+                if (current < required) {
+                    connection.close();
+                    return null;
+                }
+            }
+            // the mark travels in the user's own write transaction, so seeing it means seeing the write
+            if (userMark > 0 && replicationProbe.writeMark(connection, userId) < userMark) {
+                connection.close();
+                return null;
+            }
+            return connection;
+        } catch (SQLException e) {
+            log.debug("REPLICA {} CHECK FAILED: {}", key, e.getMessage());
+            closeQuietly(connection);
+            return null;
+        }
+    }
+
+    private void markWriteBeforeCommit(Connection connection, Long userId) {
+        if (userId == null || !TransactionSynchronizationManager.isSynchronizationActive()) return;
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            private long mark;
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                try {
+                    mark = replicationProbe.markWrite(connection, userId);
+                } catch (SQLException e) {
+                    throw new DataAccessResourceFailureException("Could not mark write of user " + userId, e);
+                }
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) userWriteMarks.asMap().merge(userId, mark, Math::max);
+            }
+        });
+    }
+
+    private static void closeQuietly(Connection connection) {
+        if (connection == null) return;
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            log.debug("COULD NOT CLOSE REPLICA CONNECTION: {}", e.getMessage());
+        }
+    }
+
+}
@@ -0,0 +1,25 @@
+package ru.practicum.shareit.datasource;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+// Database-specific queries behind replica routing. Positions are WAL byte offsets, so any two compare directly.
+public interface ReplicationProbe {
+
+    long primaryPosition(Connection primary) throws SQLException;
+
+    ReplicaState replicaState(Connection replica) throws SQLException;
+
+    // bumps the user's write mark inside the writing transaction, so the mark replicates together with the write;
+    // returns the new mark
+    long markWrite(Connection primary, Long userId) throws SQLException;
+
+    long writeMark(Connection connection, Long userId) throws SQLException;
+
+    record ReplicaState(
+            long replayedPosition,
+            long lagMillis
+    ) {
+    }
+
+}
@@ -0,0 +1,22 @@
+package ru.practicum.shareit.datasource;
+
+public final class RequestUserContext {
+
+    private static final ThreadLocal<Long> USER_ID = new ThreadLocal<>();
+
+    private RequestUserContext() {
+    }
+
+    public static Long getUserId() {
+        return USER_ID.get();
+    }
+
+    public static void setUserId(Long userId) {
+        USER_ID.set(userId);
+    }
+
+    public static void clear() {
+        USER_ID.remove();
+    }
+
+}
@@ -0,0 +1,39 @@
+package ru.practicum.shareit.datasource;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+@Component
+public class RequestUserFilter extends OncePerRequestFilter {
+
+    @Value("${shareit.api.auth.userheader}")
+    private String userHeader;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        RequestUserContext.setUserId(parseUserId(request.getHeader(userHeader)));
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            RequestUserContext.clear();
+        }
+    }
+
+    private static Long parseUserId(String header) {
+        if (header == null) return null;
+        try {
+            return Long.valueOf(header.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+}
@@ -1,7 +1,31 @@
 package ru.practicum.shareit.item;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
 
 public interface CommentRepository extends JpaRepository<Comment, Long> {
 
-}
\ No newline at end of file
+    @Query("""
+            select c from Comment as c
+            join fetch c.author
+            where c.id in (
+                select r.id from (
+                    select rc.id as id,
+                           row_number() over (partition by rc.item.id order by rc.created desc, rc.id desc) as rowNumber
+                    from Comment as rc
+                    where rc.item.id in :itemIds
+                ) as r
+                where r.rowNumber <= :limit
+            )
+            order by c.item.id, c.created, c.id
+            """)
+    List<Comment> findRecentByItemIds(
+            @Param("itemIds") Collection<Long> itemIds,
+            @Param("limit") int limit
+    );
+
+}
@@ -0,0 +1,80 @@
+package ru.practicum.shareit.item;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+public interface ItemBookingSummaryRepository extends JpaRepository<ItemBookingSummary, Long> {
+
+    // skips rows held by booking transactions or another instance's refresh instead of queueing behind them
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("""
+            select s from ItemBookingSummary as s
+            where s.validUntil <= :time
+            order by s.validUntil
+            """)
+    List<ItemBookingSummary> findStaleForUpdate(
+            @Param("time") OffsetDateTime time,
+            Limit limit
+    );
+
+    @Modifying
+    @Query("""
+            update ItemBookingSummary as s
+            set s.lastBooking = case when s.lastBooking is null or s.lastBooking < :end then :end
+                                     else s.lastBooking end
+            where s.itemId = :itemId
+            """)
+    int addPastBooking(
+            @Param("itemId") Long itemId,
+            @Param("end") OffsetDateTime end
+    );
+
+    @Modifying
+    @Query("""
+            update ItemBookingSummary as s
+            set s.validUntil = case when s.validUntil is null or s.validUntil > :end then :end
+                                    else s.validUntil end
+            where s.itemId = :itemId
+            """)
+    int addCurrentBooking(
+            @Param("itemId") Long itemId,
+            @Param("end") OffsetDateTime end
+    );
+
+    @Modifying
+    @Query("""
+            update ItemBookingSummary as s
+            set s.nextBooking = case when s.nextBooking is null or s.nextBooking > :start then :start
+                                     else s.nextBooking end,
+                s.validUntil = case when s.validUntil is null or s.validUntil > :start then :start
+                                    else s.validUntil end
+            where s.itemId = :itemId
+            """)
+    int addFutureBooking(
+            @Param("itemId") Long itemId,
+            @Param("start") OffsetDateTime start
+    );
+
+    @Modifying
+    @Query("""
+            update ItemBookingSummary as s
+            set s.validUntil = :time
+            where s.itemId = :itemId
+            """)
+    int markStale(
+            @Param("itemId") Long itemId,
+            @Param("time") OffsetDateTime time
+    );
+
+}
@@ -0,0 +1,146 @@
+package ru.practicum.shareit.item;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.BookingEvent;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.LastAndNextBookingJpaProjection;
+
+import java.time.OffsetDateTime;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Keeps item_booking_summaries in step with bookings: booking dates are updated in the booking's own transaction,
+// and a summary whose dates may have gone out of date as time passed (valid_until) is recomputed by the scheduled
+// refresh or, until then, bypassed on read.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class ItemBookingSummaryService {
+
+    private final ItemBookingSummaryRepository itemBookingSummaryRepository;
+    private final BookingRepository bookingRepository;
+
+    @Value("${shareit.item-booking-summary.refresh-batch-size}")
+    private int refreshBatchSize;
+
+    @Transactional(readOnly = false)
+    public void create(Item item) {
+        ItemBookingSummary summary = new ItemBookingSummary();
+        summary.setItem(item);
+        itemBookingSummaryRepository.save(summary);
+    }
+
+    public Map<Long, ItemBookingSummary> getSummaries(Set<Long> itemIdSet, OffsetDateTime time) {
+        Map<Long, ItemBookingSummary> summaries = itemBookingSummaryRepository.findAllById(itemIdSet).stream()
+                .filter(summary -> isCurrent(summary, time))
+                .collect(Collectors.toMap(ItemBookingSummary::getItemId, Function.identity()));
+
+        Set<Long> notSummarized = new HashSet<>(itemIdSet);
+        notSummarized.removeAll(summaries.keySet());
+        return withBookingDates(summaries, notSummarized, time);
+    }
+
+    // for summaries joined into the item query; only those gone out of date are computed from the bookings
+    public Map<Long, ItemBookingSummary> getSummaries(Collection<ItemWithSummaryJpaProjection> items,
+                                                      OffsetDateTime time) {
+        Map<Long, ItemBookingSummary> summaries = new HashMap<>();
+        Set<Long> notSummarized = new HashSet<>();
+        for (ItemWithSummaryJpaProjection item : items) {
+            if (isCurrent(item.getSummary(), time)) {
+                summaries.put(item.getItem().getId(), item.getSummary());
+            } else {
+                notSummarized.add(item.getItem().getId());
+            }
+        }
+        return withBookingDates(summaries, notSummarized, time);
+    }
+
+    private Map<Long, ItemBookingSummary> withBookingDates(Map<Long, ItemBookingSummary> summaries,
+                                                           Set<Long> notSummarized, OffsetDateTime time) {
+        if (notSummarized.isEmpty()) return summaries;
+
+        for (LastAndNextBookingJpaProjection dates : bookingRepository.getLastAndNextBookingDates(notSummarized,
+                BookingStatus.APPROVED, time)) {
+            ItemBookingSummary summary = new ItemBookingSummary();
+            summary.setItemId(dates.getId());
+            summary.setLastBooking(dates.getLastBooking());
+            summary.setNextBooking(dates.getNextBooking());
+            summaries.put(dates.getId(), summary);
+        }
+        return summaries;
+    }
+
+    @EventListener
+    @Transactional(readOnly = false)
+    public void onBookingEvent(BookingEvent event) {
+        OffsetDateTime nowTime = OffsetDateTime.now();
+
+        if (event.previousStatus() == BookingStatus.APPROVED) {
+            itemBookingSummaryRepository.markStale(event.itemId(), nowTime);
+        }
+
+        if (event.status() == BookingStatus.APPROVED) {
+            if (!event.end().isAfter(nowTime)) {
+                itemBookingSummaryRepository.addPastBooking(event.itemId(), event.end());
+            } else if (!event.start().isAfter(nowTime)) {
+                itemBookingSummaryRepository.addCurrentBooking(event.itemId(), event.end());
+            } else {
+                itemBookingSummaryRepository.addFutureBooking(event.itemId(), event.start());
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.item-booking-summary.refresh-interval-millis}")
+    @Transactional(readOnly = false)
+    public void refreshStaleSummaries() {
+        OffsetDateTime nowTime = OffsetDateTime.now();
+        List<ItemBookingSummary> staleSummaries = itemBookingSummaryRepository.findStaleForUpdate(nowTime,
+                Limit.of(refreshBatchSize));
+        if (staleSummaries.isEmpty()) return;
+
+        Set<Long> itemIdSet = staleSummaries.stream()
+                .map(ItemBookingSummary::getItemId)
+                .collect(Collectors.toSet());
+        Map<Long, LastAndNextBookingJpaProjection> bookingDates = bookingRepository
+                .getLastAndNextBookingDates(itemIdSet, BookingStatus.APPROVED, nowTime).stream()
+                .collect(Collectors.toMap(
+                        LastAndNextBookingJpaProjection::getId,
+                        Function.identity()
+                ));
+
+        for (ItemBookingSummary summary : staleSummaries) {
+            LastAndNextBookingJpaProjection dates = bookingDates.get(summary.getItemId());
+            if (dates == null) {
+                summary.setLastBooking(null);
+                summary.setNextBooking(null);
+                summary.setValidUntil(null);
+                continue;
+            }
+            summary.setLastBooking(dates.getLastBooking());
+            summary.setNextBooking(dates.getNextBooking());
+            summary.setValidUntil(earliest(dates.getNextBooking(), dates.getCurrentBookingEnd()));
+        }
+        log.debug("REFRESHED {} item booking summaries", staleSummaries.size());
+    }
+
+    private static boolean isCurrent(ItemBookingSummary summary, OffsetDateTime time) {
+        return summary != null && (summary.getValidUntil() == null || summary.getValidUntil().isAfter(time));
+    }
+
+    private static OffsetDateTime earliest(OffsetDateTime first, OffsetDateTime second) {
+        if (first == null) return second;
+        if (second == null) return first;
+        return first.isBefore(second) ? first : second;
+    }
+
+}
@@ -0,0 +1,189 @@
+package ru.practicum.shareit.item;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.cache.CacheInvalidationEvent;
+import ru.practicum.shareit.cache.CacheRegion;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.request.ItemRequest;
+import ru.practicum.shareit.request.ItemRequestAnsweredEvent;
+import ru.practicum.shareit.request.ItemRequestRepository;
+import ru.practicum.shareit.request.ItemRequestRequestorJpaProjection;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserLookupCache;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+// Reads the upload line by line and commits it in chunks: only one chunk is ever held in memory,
+// and a failing chunk does not roll back the ones already imported. A chunk the database rejects is retried
+// row by row, so only the offending rows are reported; unreadable lines are reported the same way.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ItemBulkImportService {
+
+    private final ItemRequestRepository itemRequestRepository;
+    private final ItemBookingSummaryService itemBookingSummaryService;
+    private final UserLookupCache userLookupCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+
+    @Value("${shareit.item.bulk-import.chunk-size}")
+    private int chunkSize;
+
+    @Value("${shareit.item.bulk-import.max-reported-errors}")
+    private int maxReportedErrors;
+
+    public ItemBulkImportResultDto importItems(Long userId, InputStream body) throws IOException {
+        if (!userLookupCache.exists(userId)) throw new NotFoundException("User " + userId + " not found");
+
+        ItemBulkImportResultDto result = new ItemBulkImportResultDto();
+        List<ItemBulkRowDto> chunk = new ArrayList<>(chunkSize);
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        long lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) continue;
+            result.setReceived(result.getReceived() + 1);
+            ItemBulkRowDto row = parseRow(line, lineNumber, result);
+            if (row == null) continue;
+            chunk.add(row);
+            if (chunk.size() == chunkSize) {
+                importChunk(userId, chunk, result);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) importChunk(userId, chunk, result);
+
+        log.debug("BULK IMPORT FOR USER {}: {} RECEIVED, {} IMPORTED, {} FAILED", userId, result.getReceived(),
+                result.getImported(), result.getFailed());
+        return result;
+    }
+
+    // earlier chunks are already committed, so a bad line is a row error rather than a failed request;
+    // its row number is unknown when the line is not JSON at all, and the line number stands in for it
+    private ItemBulkRowDto parseRow(String line, long lineNumber, ItemBulkImportResultDto result) {
+        ItemBulkRowDto row;
+        try {
+            row = objectMapper.readValue(line, ItemBulkRowDto.class);
+        } catch (JsonProcessingException e) {
+            report(result, List.of(ItemBulkImportErrorDto.of(lineNumber, "Line " + lineNumber + " is malformed")));
+            return null;
+        }
+        if (row.getRow() == null || row.getItem() == null) {
+            Long reportedRow = row.getRow() == null ? lineNumber : row.getRow();
+            report(result, List.of(ItemBulkImportErrorDto.of(reportedRow, "Line " + lineNumber + " has no row or item")));
+            return null;
+        }
+        return row;
+    }
+
+    private void importChunk(Long userId, List<ItemBulkRowDto> chunk, ItemBulkImportResultDto result) {
+        List<ItemBulkImportErrorDto> errors = new ArrayList<>();
+        try {
+            result.setImported(result.getImported() + persist(userId, chunk, errors));
+        } catch (DataAccessException | PersistenceException | TransactionException e) {
+            log.warn("BULK IMPORT CHUNK OF {} ROWS FAILED FOR USER {}, RETRYING ROW BY ROW: {}", chunk.size(), userId,
+                    e.getMessage());
+            errors.clear();
+            for (ItemBulkRowDto row : chunk) {
+                try {
+                    result.setImported(result.getImported() + persist(userId, List.of(row), errors));
+                } catch (DataAccessException | PersistenceException | TransactionException rowException) {
+                    errors.add(ItemBulkImportErrorDto.of(row.getRow(), "Row rejected by database"));
+                }
+            }
+        }
+        report(result, errors);
+    }
+
+    private int persist(Long userId, List<ItemBulkRowDto> rows, List<ItemBulkImportErrorDto> errors) {
+        Set<Long> requestIds = rows.stream()
+                .map(row -> row.getItem().getRequestId())
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        // row errors found here only count once the transaction commits
+        List<ItemBulkImportErrorDto> rowErrors = new ArrayList<>();
+        Integer imported = transactionTemplate.execute(status -> {
+            Map<Long, Long> requestorIds = requestIds.isEmpty() ? Map.of()
+                    : itemRequestRepository.findRequestorIdsByIds(requestIds).stream()
+                    .collect(Collectors.toMap(ItemRequestRequestorJpaProjection::getId,
+                            ItemRequestRequestorJpaProjection::getRequestorId));
+            User owner = entityManager.getReference(User.class, userId);
+
+            int count = 0;
+            List<ItemRequestAnsweredEvent> answered = new ArrayList<>();
+            for (ItemBulkRowDto row : rows) {
+                ItemCreateDto dto = row.getItem();
+                if (dto.getRequestId() != null && !requestorIds.containsKey(dto.getRequestId())) {
+                    rowErrors.add(ItemBulkImportErrorDto.of(row.getRow(),
+                            "Item Request " + dto.getRequestId() + " not found"));
+                    continue;
+                }
+                Item item = new Item();
+                item.setName(dto.getName());
+                item.setDescription(dto.getDescription());
+                item.setAvailable(dto.getAvailable());
+                item.setOwner(owner);
+                if (dto.getRequestId() != null) {
+                    item.setItemRequest(entityManager.getReference(ItemRequest.class, dto.getRequestId()));
+                }
+                entityManager.persist(item);
+                itemBookingSummaryService.create(item);
+                if (dto.getRequestId() != null) {
+                    answered.add(new ItemRequestAnsweredEvent(dto.getRequestId(), requestorIds.get(dto.getRequestId()),
+                            item.getId(), item.getName(), userId));
+                }
+                count++;
+            }
+            entityManager.flush();
+            entityManager.clear();
+            if (count > 0) eventPublisher.publishEvent(new CacheInvalidationEvent(CacheRegion.OWNER_ITEMS, userId));
+            // in id order, so concurrent imports answering the same requests lock them in the same order; the
+            // requestors' notifications are stored with the chunk and pushed once it commits
+            for (Long requestId : answered.stream().map(ItemRequestAnsweredEvent::requestId)
+                    .collect(Collectors.toCollection(TreeSet::new))) {
+                itemRequestRepository.incrementVersion(requestId);
+                eventPublisher.publishEvent(new CacheInvalidationEvent(CacheRegion.ITEM_REQUEST, requestId));
+            }
+            answered.sort(Comparator.comparing(ItemRequestAnsweredEvent::requestorId));
+            answered.forEach(eventPublisher::publishEvent);
+            return count;
+        });
+        errors.addAll(rowErrors);
+        return Objects.requireNonNullElse(imported, 0);
+    }
+
+    private void report(ItemBulkImportResultDto result, List<ItemBulkImportErrorDto> errors) {
+        result.setFailed(result.getFailed() + errors.size());
+        errors.stream()
+                .limit(Math.max(0, maxReportedErrors - result.getErrors().size()))
+                .forEach(result.getErrors()::add);
+    }
+
+}
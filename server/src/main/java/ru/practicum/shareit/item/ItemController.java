@@ -1,10 +1,20 @@
 package ru.practicum.shareit.item;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.etag.ETags;
 import ru.practicum.shareit.validation.UserIdHeader;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.Collection;
 import java.util.List;
 
@@ -15,22 +25,37 @@ import java.util.List;
 public class ItemController {
 
     private final ItemService itemService;
+    private final ItemBulkImportService itemBulkImportService;
+
+    @Value("${shareit.api.datetime.timezone}")
+    private ZoneId zoneId;
 
     @PostMapping
-    public ItemResponseDto create(
+    public ResponseEntity<ItemResponseDto> create(
             @UserIdHeader Long userId,
             @RequestBody ItemCreateDto itemCreateDto
     ) {
-        return itemService.create(userId, itemCreateDto);
+        ItemResponseDto created = itemService.create(userId, itemCreateDto);
+        return ETags.ok(created, created.getVersion());
+    }
+
+    @PostMapping(path = "/bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ItemBulkImportResultDto bulkImport(
+            @UserIdHeader Long userId,
+            InputStream body
+    ) throws IOException {
+        return itemBulkImportService.importItems(userId, body);
     }
 
     @PatchMapping("/{itemId}")
-    public ItemResponseDto update(
+    public ResponseEntity<ItemResponseDto> update(
             @UserIdHeader Long userId,
             @PathVariable Long itemId,
-            @RequestBody ItemUpdateDto itemUpdateDto
+            @RequestBody ItemUpdateDto itemUpdateDto,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
     ) {
-        return itemService.update(userId, itemId, itemUpdateDto);
+        ItemResponseDto updated = itemService.update(userId, itemId, itemUpdateDto, ETags.parseIfMatch(ifMatch));
+        return ETags.ok(updated, updated.getVersion());
     }
 
     @DeleteMapping("/{itemId}")
@@ -42,11 +67,15 @@ public class ItemController {
     }
 
     @GetMapping("/{itemId}")
-    public ItemResponseExtendedViewDto getById(
+    public ResponseEntity<ItemResponseExtendedViewDto> getById(
             @UserIdHeader Long userId,
-            @PathVariable Long itemId
+            @PathVariable Long itemId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
     ) {
-        return itemService.getById(userId, itemId);
+        // the tag is read before the body, so a concurrent change can only make the next poll refetch
+        String eTag = itemService.getETag(userId, itemId);
+        if (ETags.matchesAny(ifNoneMatch, eTag)) return ETags.notModified(eTag);
+        return ResponseEntity.ok().eTag(eTag).body(itemService.getById(userId, itemId));
     }
 
     @GetMapping
@@ -64,6 +93,17 @@ public class ItemController {
         return itemService.findByText(text);
     }
 
+    @GetMapping("/{itemId}/availability")
+    public ItemAvailabilityDto getAvailability(
+            @UserIdHeader Long userId,
+            @PathVariable Long itemId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to
+    ) {
+        return itemService.getAvailability(userId, itemId, from.atZone(zoneId).toOffsetDateTime(),
+                to.atZone(zoneId).toOffsetDateTime());
+    }
+
     @PostMapping("/{itemId}/comment")
     public CommentResponseDto addComment(
             @UserIdHeader Long userId,
@@ -0,0 +1,13 @@
+package ru.practicum.shareit.item;
+
+public interface ItemForItemRequestJpaProjection {
+
+    Long getId();
+
+    String getName();
+
+    Long getOwnerId();
+
+    Long getRequestId();
+
+}
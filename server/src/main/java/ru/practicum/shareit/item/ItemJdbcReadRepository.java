@@ -0,0 +1,42 @@
+package ru.practicum.shareit.item;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+@RequiredArgsConstructor
+public class ItemJdbcReadRepository {
+
+    private static final RowMapper<ItemResponseDto> ITEM_ROW_MAPPER = (rs, rowNum) -> {
+        ItemResponseDto dto = new ItemResponseDto();
+        dto.setId(rs.getLong("id"));
+        dto.setVersion(rs.getLong("version"));
+        dto.setName(rs.getString("name"));
+        dto.setDescription(rs.getString("description"));
+        dto.setAvailable(rs.getBoolean("available"));
+        dto.setRequestId(rs.getObject("request_id", Long.class));
+        return dto;
+    };
+
+    private final JdbcClient jdbcClient;
+
+    // the pattern escapes its own wildcards with a backslash, see ItemServiceImpl.findByText
+    public List<ItemResponseDto> findByText(String pattern) {
+        return jdbcClient.sql("""
+                        SELECT i.id, i.version, i.name, i.description, i.available, i.request_id
+                        FROM items AS i
+                        WHERE i.available = TRUE
+                          AND ( LOWER(i.name) LIKE :pattern ESCAPE '\\'
+                                OR
+                                LOWER(i.description) LIKE :pattern ESCAPE '\\' )
+                        """)
+                .param("pattern", pattern)
+                .query(ITEM_ROW_MAPPER)
+                .list();
+    }
+
+}
@@ -1,23 +1,75 @@
 package ru.practicum.shareit.item;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface ItemRepository extends JpaRepository<Item, Long> {
 
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Item> findByOwnerId(Long id);
 
+    // a summary shares its item's primary key, so the views join it in rather than reading it separately
+    @Query("""
+            select i as item, s as summary
+            from Item as i
+            left join ItemBookingSummary as s on s.itemId = i.id
+            where i.owner.id = :ownerId
+            """)
+    List<ItemWithSummaryJpaProjection> findWithSummaryByOwnerId(@Param("ownerId") Long ownerId);
+
+    // one row per comment, all holding the same item and summary
+    @Query("""
+            select i as item, s as summary
+            from Item as i
+            left join fetch i.comments as c
+            left join fetch c.author
+            left join ItemBookingSummary as s on s.itemId = i.id
+            where i.id = :itemId
+            """)
+    List<ItemWithSummaryJpaProjection> findWithCommentsAndSummaryById(@Param("itemId") Long itemId);
+
+    // everything the single-item view depends on besides the booking summary, read from the items primary key
+    // and the comments (item_id, created_at) index without loading the comments themselves; an author's update
+    // draws a change number above every other, so the largest one moves with any author name shown
+    @Query("""
+            select i.version as version,
+                   i.owner.id as ownerId,
+                   (select count(c) from Comment as c where c.item.id = i.id) as commentCount,
+                   (select max(c.id) from Comment as c where c.item.id = i.id) as lastCommentId,
+                   (select max(c.author.changeSeq) from Comment as c where c.item.id = i.id) as authorChangeSeq
+            from Item as i
+            where i.id = :itemId
+            """)
+    Optional<ItemVersionJpaProjection> findVersionById(@Param("itemId") Long itemId);
+
+    // the pattern escapes its own wildcards with a backslash, see ItemServiceImpl.findByText
     @Query("""
             select i from Item as i
             where i.available = true
               and
-              ( lower(i.name) like %:text%
+              ( lower(i.name) like :pattern escape '\\'
                 or
-                lower(i.description) like %:text% )
+                lower(i.description) like :pattern escape '\\' )
+            """)
+    List<Item> findByText(@Param("pattern") String pattern);
+
+    @Query("""
+            select i.id as id,
+                   i.name as name,
+                   i.owner.id as ownerId,
+                   i.itemRequest.id as requestId
+            from Item as i
+            where i.itemRequest.id in :requestIds
+            order by i.id
             """)
-    List<Item> findByText(@Param("text") String text);
+    List<ItemForItemRequestJpaProjection> findByItemRequestIds(@Param("requestIds") Collection<Long> requestIds);
 
 }
\ No newline at end of file
@@ -1,21 +1,26 @@
 package ru.practicum.shareit.item;
 
+import java.time.OffsetDateTime;
 import java.util.Collection;
 
 public interface ItemService {
 
     ItemResponseDto create(Long userId, ItemCreateDto itemCreateDto);
 
-    ItemResponseDto update(Long userId, Long itemId, ItemUpdateDto itemUpdateDto);
+    ItemResponseDto update(Long userId, Long itemId, ItemUpdateDto itemUpdateDto, Long expectedVersion);
 
     ItemResponseExtendedViewDto getById(Long userId, Long itemId);
 
+    String getETag(Long userId, Long itemId);
+
     Collection<ItemResponseExtendedViewDto> findByOwnerId(Long userId);
 
     Collection<ItemResponseDto> findByText(String text);
 
     void deleteById(Long userId, Long itemId);
 
+    ItemAvailabilityDto getAvailability(Long userId, Long itemId, OffsetDateTime from, OffsetDateTime to);
+
     CommentResponseDto addComment(Long userId, Long itemId, CommentCreateDto commentCreateDto);
 
 }
\ No newline at end of file
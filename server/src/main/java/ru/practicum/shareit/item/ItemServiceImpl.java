@@ -1,17 +1,26 @@
 package ru.practicum.shareit.item;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.booking.BookingRepository;
 import ru.practicum.shareit.booking.BookingStatus;
-import ru.practicum.shareit.booking.IdAndTimeJpaProjection;
+import ru.practicum.shareit.booking.ItemAvailabilityIndex;
+import ru.practicum.shareit.booking.OwnerBookingCounterService;
+import ru.practicum.shareit.cache.CacheInvalidationEvent;
+import ru.practicum.shareit.cache.CacheRegion;
+import ru.practicum.shareit.etag.ETags;
 import ru.practicum.shareit.exception.BadRequestException;
 import ru.practicum.shareit.exception.ForbiddenException;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.exception.PreconditionFailedException;
 import ru.practicum.shareit.request.ItemRequest;
+import ru.practicum.shareit.request.ItemRequestAnsweredEvent;
 import ru.practicum.shareit.request.ItemRequestRepository;
 import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserLookupCache;
 import ru.practicum.shareit.user.UserRepository;
 
 import java.time.OffsetDateTime;
@@ -25,16 +34,28 @@ public class ItemServiceImpl implements ItemService {
 
     private final ItemRepository itemRepository;
     private final UserRepository userRepository;
+    private final UserLookupCache userLookupCache;
+    private final ApplicationEventPublisher eventPublisher;
     private final CommentRepository commentRepository;
     private final BookingRepository bookingRepository;
     private final ItemRequestRepository itemRequestRepository;
+    private final ItemAvailabilityIndex itemAvailabilityIndex;
+    private final ItemBookingSummaryService itemBookingSummaryService;
+    private final OwnerBookingCounterService ownerBookingCounterService;
+
+    private final ItemJdbcReadRepository itemJdbcReadRepository;
+
+    @Value("${shareit.jdbc-read-path.enabled}")
+    private boolean jdbcReadPath;
+
+    @Value("${shareit.item.owner-list-comments-limit}")
+    private int ownerListCommentsLimit;
 
     @Override
     @Transactional(readOnly = false)
     public ItemResponseDto create(Long userId, ItemCreateDto itemCreateDto) {
-        User owner = userRepository.findById(userId).orElseThrow(
-                () -> new NotFoundException("User " + userId + " not found")
-        );
+        if (!userLookupCache.exists(userId)) throw new NotFoundException("User " + userId + " not found");
+        User owner = userRepository.getReferenceById(userId);
 
         Item newItem = new Item();
         newItem.setName(itemCreateDto.getName());
@@ -49,19 +70,31 @@ public class ItemServiceImpl implements ItemService {
         }
 
         Item createdItem = itemRepository.save(newItem);
+        itemBookingSummaryService.create(createdItem);
+        eventPublisher.publishEvent(new CacheInvalidationEvent(CacheRegion.ITEM, createdItem.getId()));
+        if (createdItem.getItemRequest() != null) {
+            requestChanged(createdItem.getItemRequest().getId());
+            eventPublisher.publishEvent(new ItemRequestAnsweredEvent(createdItem.getItemRequest().getId(),
+                    createdItem.getItemRequest().getRequestor().getId(), createdItem.getId(), createdItem.getName(),
+                    userId));
+        }
         return ItemResponseDto.from(createdItem);
     }
 
     @Override
     @Transactional(readOnly = false)
-    public ItemResponseDto update(Long userId, Long itemId, ItemUpdateDto itemUpdateDto) {
-        User owner = userRepository.findById(userId).orElseThrow(
-                () -> new NotFoundException("User " + userId + " not found")
-        );
+    public ItemResponseDto update(Long userId, Long itemId, ItemUpdateDto itemUpdateDto, Long expectedVersion) {
+        if (!userLookupCache.exists(userId)) throw new NotFoundException("User " + userId + " not found");
         Item existingItem = itemRepository.findById(itemId).orElseThrow(
                 () -> new NotFoundException("Item " + itemId + " not found")
         );
-        if (!Objects.equals(existingItem.getOwner(), owner)) throw new ForbiddenException("Owner check failed");
+        if (!Objects.equals(existingItem.getOwner().getId(), userId)) {
+            throw new ForbiddenException("Owner check failed");
+        }
+        if (expectedVersion != null && !expectedVersion.equals(existingItem.getVersion())) {
+            throw new PreconditionFailedException("Item " + itemId + " was modified, current version is "
+                    + existingItem.getVersion());
+        }
 
         if (itemUpdateDto.getName() != null) {
             existingItem.setName(itemUpdateDto.getName());
@@ -72,67 +105,96 @@ public class ItemServiceImpl implements ItemService {
         if (itemUpdateDto.getAvailable() != null) {
             existingItem.setAvailable(itemUpdateDto.getAvailable());
         }
+        // flushing here surfaces a concurrent update as an optimistic lock failure and bumps the version for the ETag
+        itemRepository.flush();
+        eventPublisher.publishEvent(new CacheInvalidationEvent(CacheRegion.ITEM, itemId));
+        if (existingItem.getItemRequest() != null) requestChanged(existingItem.getItemRequest().getId());
         return ItemResponseDto.from(existingItem);
     }
 
     @Override
     public ItemResponseExtendedViewDto getById(Long userId, Long itemId) {
-        User user = userRepository.findById(userId).orElseThrow(
-                () -> new NotFoundException("User " + userId + " not found")
-        );
-        Item foundItem = itemRepository.findById(itemId).orElseThrow(
-                () -> new NotFoundException("Item " + itemId + " not found")
-        );
+        if (!userLookupCache.exists(userId)) throw new NotFoundException("User " + userId + " not found");
+        ItemWithSummaryJpaProjection found = itemRepository.findWithCommentsAndSummaryById(itemId).stream()
+                .findFirst()
+                .orElseThrow(() -> new NotFoundException("Item " + itemId + " not found"));
+        Item foundItem = found.getItem();
 
         ItemResponseExtendedViewDto dto = ItemResponseExtendedViewDto.from(foundItem);
 
-        if (Objects.equals(user, foundItem.getOwner())) {
-            OffsetDateTime nowTime = OffsetDateTime.now();
-            OffsetDateTime lastBooking = bookingRepository.getLastBookingDate(itemId, nowTime);
-            OffsetDateTime nextBooking = bookingRepository.getNextBookingDate(itemId, nowTime);
-            dto.setLastBooking(lastBooking);
-            dto.setNextBooking(nextBooking);
+        if (Objects.equals(userId, foundItem.getOwner().getId())) {
+            ItemBookingSummary summary = itemBookingSummaryService.getSummaries(List.of(found), OffsetDateTime.now())
+                    .get(itemId);
+            if (summary != null) {
+                dto.setLastBooking(summary.getLastBooking());
+                dto.setNextBooking(summary.getNextBooking());
+            }
         }
 
         return dto;
     }
 
+    @Override
+    public String getETag(Long userId, Long itemId) {
+        if (!userLookupCache.exists(userId)) throw new NotFoundException("User " + userId + " not found");
+        ItemVersionJpaProjection item = itemRepository.findVersionById(itemId).orElseThrow(
+                () -> new NotFoundException("Item " + itemId + " not found")
+        );
+        if (!Objects.equals(userId, item.getOwnerId())) {
+            return ETags.of(item.getVersion(), item.getCommentCount(), item.getLastCommentId(),
+                    item.getAuthorChangeSeq());
+        }
+
+        // the owner also sees the last and next booking, which move with booking events and with time
+        ItemBookingSummary summary = itemBookingSummaryService.getSummaries(Set.of(itemId), OffsetDateTime.now())
+                .get(itemId);
+        return ETags.of(item.getVersion(), item.getCommentCount(), item.getLastCommentId(), item.getAuthorChangeSeq(),
+                summary == null ? null : toEpochMilli(summary.getLastBooking()),
+                summary == null ? null : toEpochMilli(summary.getNextBooking()));
+    }
+
+    private static Long toEpochMilli(OffsetDateTime time) {
+        return time == null ? null : time.toInstant().toEpochMilli();
+    }
+
     @Override
     public Collection<ItemResponseExtendedViewDto> findByOwnerId(Long userId) {
-        if (!userRepository.existsById(userId)) throw new NotFoundException("User " + userId + " not found");
+        if (!userLookupCache.exists(userId)) throw new NotFoundException("User " + userId + " not found");
         OffsetDateTime nowTime = OffsetDateTime.now();
 
-        List<ItemResponseExtendedViewDto> dtos = itemRepository.findByOwnerId(userId).stream()
-                .filter(Objects::nonNull)
-                .map(ItemResponseExtendedViewDto::from)
+        List<ItemWithSummaryJpaProjection> found = itemRepository.findWithSummaryByOwnerId(userId);
+        List<Item> items = found.stream()
+                .map(ItemWithSummaryJpaProjection::getItem)
                 .toList();
-        Set<Long> itemIdSet = dtos.stream()
-                .map(ItemResponseExtendedViewDto::getId)
+        Set<Long> itemIdSet = items.stream()
+                .map(Item::getId)
                 .collect(Collectors.toSet());
 
-        Map<Long, OffsetDateTime> lastBookingDates = bookingRepository.getListOfLastBookingDates(itemIdSet, nowTime)
-                .stream()
-                .collect(Collectors.toMap(
-                        IdAndTimeJpaProjection::getId,
-                        IdAndTimeJpaProjection::getTime
-                ));
-        Map<Long, OffsetDateTime> nextBookingDates = bookingRepository.getListOfNextBookingDates1(itemIdSet, nowTime)
-                .stream()
-                .collect(Collectors.toMap(
-                        IdAndTimeJpaProjection::getId,
-                        IdAndTimeJpaProjection::getTime
-                ));
+        Map<Long, List<Comment>> comments = itemIdSet.isEmpty() ? Map.of() : commentRepository
+                .findRecentByItemIds(itemIdSet, ownerListCommentsLimit).stream()
+                .collect(Collectors.groupingBy(comment -> comment.getItem().getId()));
+        List<ItemResponseExtendedViewDto> dtos = items.stream()
+                .map(item -> ItemResponseExtendedViewDto.from(item, comments.getOrDefault(item.getId(), List.of())))
+                .toList();
+
+        Map<Long, ItemBookingSummary> summaries = itemBookingSummaryService.getSummaries(found, nowTime);
 
         for (ItemResponseExtendedViewDto dto : dtos) {
-            dto.setLastBooking(lastBookingDates.get(dto.getId()));
-            dto.setNextBooking(nextBookingDates.get(dto.getId()));
+            ItemBookingSummary summary = summaries.get(dto.getId());
+            if (summary == null) continue;
+            dto.setLastBooking(summary.getLastBooking());
+            dto.setNextBooking(summary.getNextBooking());
         }
         return dtos;
     }
 
     @Override
     public Collection<ItemResponseDto> findByText(String text) {
-        return itemRepository.findByText(text.toLowerCase()).stream()
+        // the text is matched literally: wildcards typed by the user are escaped the same way for both read paths
+        String pattern = "%" + text.toLowerCase().replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_")
+                + "%";
+        if (jdbcReadPath) return itemJdbcReadRepository.findByText(pattern);
+        return itemRepository.findByText(pattern).stream()
                 .filter(Objects::nonNull)
                 .map(ItemResponseDto::from)
                 .toList();
@@ -141,14 +203,52 @@ public class ItemServiceImpl implements ItemService {
     @Override
     @Transactional(readOnly = false)
     public void deleteById(Long userId, Long itemId) {
-        User owner = userRepository.findById(userId).orElseThrow(
-                () -> new NotFoundException("User " + userId + " not found")
-        );
+        if (!userLookupCache.exists(userId)) throw new NotFoundException("User " + userId + " not found");
         Item existingItem = itemRepository.findById(itemId).orElseThrow(
                 () -> new NotFoundException("Item " + itemId + " not found")
         );
-        if (!Objects.equals(existingItem.getOwner(), owner)) throw new ForbiddenException("Owner check failed");
+        if (!Objects.equals(existingItem.getOwner().getId(), userId)) {
+            throw new ForbiddenException("Owner check failed");
+        }
+        ownerBookingCounterService.beforeItemDeleted(userId, itemId);
         itemRepository.deleteById(itemId);
+        eventPublisher.publishEvent(new CacheInvalidationEvent(CacheRegion.ITEM, itemId));
+        if (existingItem.getItemRequest() != null) requestChanged(existingItem.getItemRequest().getId());
+    }
+
+    // the request view lists the items offered for it, so their changes are changes of the request
+    private void requestChanged(Long requestId) {
+        itemRequestRepository.incrementVersion(requestId);
+        eventPublisher.publishEvent(new CacheInvalidationEvent(CacheRegion.ITEM_REQUEST, requestId));
+    }
+
+    @Override
+    // The calendar only covers what can still be booked: a window starting in the past is answered from now on,
+    // and one that has already ended is rejected, so every call is served by the index without a booking scan.
+    public ItemAvailabilityDto getAvailability(Long userId, Long itemId, OffsetDateTime from, OffsetDateTime to) {
+        if (!from.isBefore(to)) throw new BadRequestException("From should be before To");
+        OffsetDateTime now = OffsetDateTime.now(from.getOffset());
+        if (!to.isAfter(now)) throw new BadRequestException("To should be in the future");
+        if (from.isBefore(now)) from = now;
+        if (!userLookupCache.exists(userId)) throw new NotFoundException("User " + userId + " not found");
+        if (!itemRepository.existsById(itemId)) throw new NotFoundException("Item " + itemId + " not found");
+
+        List<TimeIntervalDto> busy = itemAvailabilityIndex.getBusyIntervals(itemId, from, to);
+        List<TimeIntervalDto> free = new ArrayList<>();
+        OffsetDateTime freeStart = from;
+        for (TimeIntervalDto interval : busy) {
+            if (freeStart.isBefore(interval.getStart())) free.add(TimeIntervalDto.of(freeStart, interval.getStart()));
+            freeStart = interval.getEnd();
+        }
+        if (freeStart.isBefore(to)) free.add(TimeIntervalDto.of(freeStart, to));
+
+        ItemAvailabilityDto dto = new ItemAvailabilityDto();
+        dto.setItemId(itemId);
+        dto.setFrom(from);
+        dto.setTo(to);
+        dto.setBusy(busy);
+        dto.setFree(free);
+        return dto;
     }
 
     @Override
@@ -0,0 +1,15 @@
+package ru.practicum.shareit.item;
+
+public interface ItemVersionJpaProjection {
+
+    Long getVersion();
+
+    Long getOwnerId();
+
+    Long getCommentCount();
+
+    Long getLastCommentId();
+
+    Long getAuthorChangeSeq();
+
+}
@@ -0,0 +1,9 @@
+package ru.practicum.shareit.item;
+
+public interface ItemWithSummaryJpaProjection {
+
+    Item getItem();
+
+    ItemBookingSummary getSummary();
+
+}
@@ -0,0 +1,10 @@
+package ru.practicum.shareit.request;
+
+public record ItemRequestAnsweredEvent(
+        Long requestId,
+        Long requestorId,
+        Long itemId,
+        String itemName,
+        Long ownerId
+) {
+}
@@ -1,8 +1,12 @@
 package ru.practicum.shareit.request;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.etag.ETags;
 import ru.practicum.shareit.validation.UserIdHeader;
 
 import java.util.Collection;
@@ -14,6 +18,7 @@ import java.util.Collection;
 public class ItemRequestController {
 
     private final ItemRequestService itemRequestService;
+    private final ItemRequestNotificationHub itemRequestNotificationHub;
 
     @PostMapping
     public ItemRequestResponseDto create(
@@ -24,11 +29,14 @@ public class ItemRequestController {
     }
 
     @GetMapping("/{requestId}")
-    public ItemRequestResponseDto getById(
+    public ResponseEntity<ItemRequestResponseDto> getById(
             @UserIdHeader Long userId,
-            @PathVariable Long requestId
+            @PathVariable Long requestId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
     ) {
-        return itemRequestService.getRequestById(requestId);
+        String eTag = itemRequestService.getETag(requestId);
+        if (ETags.matchesAny(ifNoneMatch, eTag)) return ETags.notModified(eTag);
+        return ResponseEntity.ok().eTag(eTag).body(itemRequestService.getRequestById(requestId));
     }
 
     @GetMapping
@@ -38,6 +46,14 @@ public class ItemRequestController {
         return itemRequestService.getMyRequests(userId);
     }
 
+    @GetMapping("/notifications")
+    public SseEmitter notifications(
+            @UserIdHeader Long userId,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId
+    ) {
+        return itemRequestNotificationHub.subscribe(userId, lastEventId);
+    }
+
     @GetMapping("/all")
     public Collection<ItemRequestResponseSimpleViewDto> getOthersRequests(
             @UserIdHeader Long userId
@@ -0,0 +1,30 @@
+package ru.practicum.shareit.request;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Optional;
+
+public interface ItemRequestNotificationCounterRepository extends JpaRepository<ItemRequestNotificationCounter, Long> {
+
+    @Query("""
+            select c.lastSeq from ItemRequestNotificationCounter as c
+            where c.requestorId = :requestorId
+            """)
+    Optional<Long> findLastSeqByRequestorId(
+            @Param("requestorId") Long requestorId
+    );
+
+    @Modifying
+    @Query("""
+            update ItemRequestNotificationCounter as c
+            set c.lastSeq = c.lastSeq + 1
+            where c.requestorId = :requestorId
+            """)
+    int increment(
+            @Param("requestorId") Long requestorId
+    );
+
+}
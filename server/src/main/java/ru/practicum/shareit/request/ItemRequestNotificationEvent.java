@@ -0,0 +1,9 @@
+package ru.practicum.shareit.request;
+
+// A stored notification, published in the transaction that stored it.
+public record ItemRequestNotificationEvent(
+        Long requestorId,
+        long seq,
+        ItemRequestNotificationDto notification
+) {
+}
@@ -0,0 +1,139 @@
+package ru.practicum.shareit.request;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.sse.SseBroadcaster;
+import ru.practicum.shareit.user.UserLookupCache;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Event ids are the requestor's notification numbers, stored by ItemRequestNotificationService, so a reconnect
+// with Last-Event-ID replays what was missed on whichever instance it lands. An id the requestor was never given,
+// or one older than the retained history, gets a resync event instead, telling the client to reload GET /requests.
+// Each instance pushes to the connections it holds: its own notifications after commit, the others' as they arrive
+// over the cache invalidation channel.
+@Component
+public class ItemRequestNotificationHub {
+
+    private static final String ITEM_ADDED_EVENT = "item-added";
+    private static final String RESYNC_EVENT = "resync";
+    private static final int LOCK_STRIPES = 64;
+
+    private final UserLookupCache userLookupCache;
+    private final ItemRequestNotificationService itemRequestNotificationService;
+    private final SseBroadcaster broadcaster;
+    // a push waits for a replay of the same requestor to finish, so nothing committed in between is lost
+    private final ReentrantLock[] locks = new ReentrantLock[LOCK_STRIPES];
+
+    public ItemRequestNotificationHub(
+            UserLookupCache userLookupCache,
+            ItemRequestNotificationService itemRequestNotificationService,
+            MeterRegistry meterRegistry,
+            @Value("${shareit.request.notifications.buffer-size}") int bufferSize,
+            @Value("${shareit.request.notifications.timeout}") Duration timeout,
+            @Value("${shareit.request.notifications.history-size}") int historySize
+    ) {
+        this.userLookupCache = userLookupCache;
+        this.itemRequestNotificationService = itemRequestNotificationService;
+        this.broadcaster = new SseBroadcaster("REQUESTS", Math.max(bufferSize, historySize + 1), timeout);
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        Gauge.builder("shareit.sse.connections", broadcaster, SseBroadcaster::getConnectionCount)
+                .tag("stream", "requests")
+                .register(meterRegistry);
+    }
+
+    public SseEmitter subscribe(Long userId, String lastEventId) {
+        if (!userLookupCache.exists(userId)) throw new NotFoundException("User " + userId + " not found");
+        ReentrantLock lock = lock(userId);
+        lock.lock();
+        try {
+            return broadcaster.subscribe(userId, replay(userId, lastEventId));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @TransactionalEventListener
+    public void onItemRequestNotification(ItemRequestNotificationEvent event) {
+        push(event);
+    }
+
+    @EventListener
+    public void onRemoteItemRequestNotification(RemoteItemRequestNotificationEvent event) {
+        push(event.event());
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.request.notifications.heartbeat-interval-millis}")
+    public void heartbeat() {
+        broadcaster.heartbeat();
+    }
+
+    @PreDestroy
+    public void close() {
+        broadcaster.close();
+    }
+
+    private void push(ItemRequestNotificationEvent event) {
+        ReentrantLock lock = lock(event.requestorId());
+        lock.lock();
+        try {
+            broadcaster.send(event.requestorId(), itemAdded(event));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // a notification committed while the replay is read may be both replayed and pushed; ids let clients skip it
+    private List<SseEmitter.SseEventBuilder> replay(Long userId, String lastEventId) {
+        if (lastEventId == null || lastEventId.isBlank()) return List.of();
+        Long lastId = parseEventId(lastEventId);
+        List<ItemRequestNotificationEvent> missed = lastId == null ? null
+                : itemRequestNotificationService.findAfter(userId, lastId);
+        if (missed == null) {
+            return List.of(SseEmitter.event()
+                    .id(Long.toString(itemRequestNotificationService.getLastSeq(userId)))
+                    .name(RESYNC_EVENT)
+                    .data(""));
+        }
+        List<SseEmitter.SseEventBuilder> events = new ArrayList<>();
+        for (ItemRequestNotificationEvent event : missed) {
+            events.add(itemAdded(event));
+        }
+        return events;
+    }
+
+    private ReentrantLock lock(Long userId) {
+        return locks[Math.floorMod(userId.hashCode(), LOCK_STRIPES)];
+    }
+
+    private static SseEmitter.SseEventBuilder itemAdded(ItemRequestNotificationEvent event) {
+        return SseEmitter.event()
+                .id(Long.toString(event.seq()))
+                .name(ITEM_ADDED_EVENT)
+                .data(event.notification(), MediaType.APPLICATION_JSON);
+    }
+
+    private static Long parseEventId(String eventId) {
+        try {
+            long id = Long.parseLong(eventId);
+            return id >= 0 ? id : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+}
@@ -0,0 +1,30 @@
+package ru.practicum.shareit.request;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface ItemRequestNotificationRepository extends JpaRepository<ItemRequestNotification, Long> {
+
+    List<ItemRequestNotification> findByRequestorIdAndSeqGreaterThanOrderBySeq(
+            Long requestorId,
+            Long seq,
+            Limit limit
+    );
+
+    @Modifying
+    @Query("""
+            delete from ItemRequestNotification as n
+            where n.requestorId = :requestorId
+              and n.seq <= :seq
+            """)
+    int deleteUpTo(
+            @Param("requestorId") Long requestorId,
+            @Param("seq") long seq
+    );
+
+}
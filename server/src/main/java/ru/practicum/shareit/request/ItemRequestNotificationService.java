@@ -0,0 +1,98 @@
+package ru.practicum.shareit.request;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.datasource.PrimaryReads;
+import ru.practicum.shareit.user.User;
+
+import java.util.List;
+
+// Stores what each requestor is notified about, numbered under the requestor's counter row lock: numbers are
+// handed out in commit order, so "everything after N" is the same question on every instance and after restarts.
+// Only the last history-size notifications of a requestor are kept.
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class ItemRequestNotificationService {
+
+    private final ItemRequestNotificationRepository itemRequestNotificationRepository;
+    private final ItemRequestNotificationCounterRepository itemRequestNotificationCounterRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final PrimaryReads primaryReads;
+
+    @Value("${shareit.request.notifications.history-size}")
+    private int historySize;
+
+    @Transactional(readOnly = false)
+    public void create(User requestor) {
+        ItemRequestNotificationCounter counter = new ItemRequestNotificationCounter();
+        counter.setRequestorId(requestor.getId());
+        counter.setLastSeq(0L);
+        itemRequestNotificationCounterRepository.save(counter);
+    }
+
+    @EventListener
+    @Transactional(readOnly = false)
+    public void onItemRequestAnswered(ItemRequestAnsweredEvent event) {
+        store(event);
+    }
+
+    @Transactional(readOnly = false)
+    public ItemRequestNotificationEvent store(ItemRequestAnsweredEvent event) {
+        long seq = nextSeq(event.requestorId());
+
+        ItemRequestNotification notification = new ItemRequestNotification();
+        notification.setRequestorId(event.requestorId());
+        notification.setSeq(seq);
+        notification.setRequestId(event.requestId());
+        notification.setItemId(event.itemId());
+        notification.setItemName(event.itemName());
+        notification.setOwnerId(event.ownerId());
+        itemRequestNotificationRepository.save(notification);
+        itemRequestNotificationRepository.deleteUpTo(event.requestorId(), seq - historySize);
+
+        ItemRequestNotificationEvent stored = toEvent(notification);
+        eventPublisher.publishEvent(stored);
+        return stored;
+    }
+
+    // read from the primary: a replica that is behind would leave out what was pushed just before the reconnect
+    public long getLastSeq(Long requestorId) {
+        return primaryReads.load(() -> itemRequestNotificationCounterRepository.findLastSeqByRequestorId(requestorId)
+                .orElse(0L));
+    }
+
+    // null when the requestor was never given that number, or what followed it has been pruned
+    public List<ItemRequestNotificationEvent> findAfter(Long requestorId, long afterSeq) {
+        return primaryReads.load(() -> {
+            long lastSeq = itemRequestNotificationCounterRepository.findLastSeqByRequestorId(requestorId).orElse(0L);
+            if (afterSeq > lastSeq || afterSeq < lastSeq - historySize) return null;
+            return itemRequestNotificationRepository.findByRequestorIdAndSeqGreaterThanOrderBySeq(requestorId,
+                    afterSeq, Limit.of(historySize)).stream().map(ItemRequestNotificationService::toEvent).toList();
+        });
+    }
+
+    // users created before notifications were stored may have no counter yet
+    private long nextSeq(Long requestorId) {
+        if (itemRequestNotificationCounterRepository.increment(requestorId) == 0) {
+            ItemRequestNotificationCounter counter = new ItemRequestNotificationCounter();
+            counter.setRequestorId(requestorId);
+            counter.setLastSeq(1L);
+            itemRequestNotificationCounterRepository.saveAndFlush(counter);
+            return 1;
+        }
+        return itemRequestNotificationCounterRepository.findLastSeqByRequestorId(requestorId).orElseThrow();
+    }
+
+    private static ItemRequestNotificationEvent toEvent(ItemRequestNotification notification) {
+        return new ItemRequestNotificationEvent(notification.getRequestorId(), notification.getSeq(),
+                ItemRequestNotificationDto.of(notification.getRequestId(), notification.getItemId(),
+                        notification.getItemName(), notification.getOwnerId()));
+    }
+
+}
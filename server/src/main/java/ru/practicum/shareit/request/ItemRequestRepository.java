@@ -1,14 +1,55 @@
 package ru.practicum.shareit.request;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long> {
 
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<ItemRequest> findByRequestorId(Long userId, Sort sort);
 
     List<ItemRequest> findByRequestorIdNot(Long userId, Sort sort);
 
+    @Query("""
+            select r.version from ItemRequest as r
+            where r.id = :requestId
+            """)
+    Optional<Long> findVersionById(@Param("requestId") Long requestId);
+
+    // requests themselves are immutable, so their view only changes with the items offered for them
+    @Modifying
+    @Query("""
+            update ItemRequest as r
+            set r.version = r.version + 1
+            where r.id = :requestId
+            """)
+    int incrementVersion(@Param("requestId") Long requestId);
+
+    @Modifying
+    @Query("""
+            update ItemRequest as r
+            set r.version = r.version + 1
+            where r.id in (
+                select i.itemRequest.id from Item as i
+                where i.owner.id = :ownerId
+            )
+            """)
+    int incrementVersionsAnsweredByOwner(@Param("ownerId") Long ownerId);
+
+    @Query("""
+            select r.id as id, r.requestor.id as requestorId from ItemRequest as r
+            where r.id in :ids
+            """)
+    List<ItemRequestRequestorJpaProjection> findRequestorIdsByIds(@Param("ids") Collection<Long> ids);
+
 }
\ No newline at end of file
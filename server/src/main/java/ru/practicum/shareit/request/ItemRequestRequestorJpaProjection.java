@@ -0,0 +1,9 @@
+package ru.practicum.shareit.request;
+
+public interface ItemRequestRequestorJpaProjection {
+
+    Long getId();
+
+    Long getRequestorId();
+
+}
@@ -8,6 +8,8 @@ public interface ItemRequestService {
 
     ItemRequestResponseDto getRequestById(Long requestId);
 
+    String getETag(Long requestId);
+
     Collection<ItemRequestResponseDto> getMyRequests(Long userId);
 
     Collection<ItemRequestResponseSimpleViewDto> getOthersRequests(Long userId);
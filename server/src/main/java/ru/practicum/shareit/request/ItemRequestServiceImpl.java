@@ -1,17 +1,24 @@
 package ru.practicum.shareit.request;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.cache.CacheInvalidationEvent;
+import ru.practicum.shareit.cache.CacheRegion;
+import ru.practicum.shareit.etag.ETags;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.ItemForItemRequestJpaProjection;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.ItemResponseDtoForItemRequests;
 import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserLookupCache;
 import ru.practicum.shareit.user.UserRepository;
 
 import java.time.OffsetDateTime;
-import java.util.Collection;
-import java.util.List;
-import java.util.Objects;
+import java.util.*;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -19,20 +26,23 @@ import java.util.Objects;
 public class ItemRequestServiceImpl implements ItemRequestService {
 
     private final UserRepository userRepository;
+    private final UserLookupCache userLookupCache;
+    private final ApplicationEventPublisher eventPublisher;
     private final ItemRequestRepository itemRequestRepository;
+    private final ItemRepository itemRepository;
 
     @Override
     @Transactional(readOnly = false)
     public ItemRequestResponseDto create(Long userId, ItemRequestCreateDto itemRequestCreateDto) {
-        User requestor = userRepository.findById(userId).orElseThrow(
-                () -> new NotFoundException("User " + userId + " not found")
-        );
+        if (!userLookupCache.exists(userId)) throw new NotFoundException("User " + userId + " not found");
+        User requestor = userRepository.getReferenceById(userId);
         ItemRequest newItemRequest = new ItemRequest();
         newItemRequest.setDescription(itemRequestCreateDto.getDescription());
         newItemRequest.setRequestor(requestor);
         newItemRequest.setCreated(OffsetDateTime.now());
 
         ItemRequest createdItemRequest = itemRequestRepository.save(newItemRequest);
+        eventPublisher.publishEvent(new CacheInvalidationEvent(CacheRegion.ITEM_REQUEST, createdItemRequest.getId()));
         return ItemRequestResponseDto.from(createdItemRequest);
     }
 
@@ -41,20 +51,23 @@ public class ItemRequestServiceImpl implements ItemRequestService {
         ItemRequest foundItemRequest = itemRequestRepository.findById(requestId).orElseThrow(
                 () -> new NotFoundException("Item Request " + requestId + " not found")
         );
-        return ItemRequestResponseDto.from(foundItemRequest);
+        return toResponseDtos(List.of(foundItemRequest)).getFirst();
     }
 
     @Override
-    public Collection<ItemRequestResponseDto> getMyRequests(Long userId) {
-        User requestor = userRepository.findById(userId).orElseThrow(
-                () -> new NotFoundException("User " + userId + " not found")
+    public String getETag(Long requestId) {
+        Long version = itemRequestRepository.findVersionById(requestId).orElseThrow(
+                () -> new NotFoundException("Item Request " + requestId + " not found")
         );
+        return ETags.of(version);
+    }
+
+    @Override
+    public Collection<ItemRequestResponseDto> getMyRequests(Long userId) {
+        if (!userLookupCache.exists(userId)) throw new NotFoundException("User " + userId + " not found");
         Sort sort = Sort.by(Sort.Direction.DESC, "created");
         List<ItemRequest> myRequests = itemRequestRepository.findByRequestorId(userId, sort);
-        return myRequests.stream()
-                .filter(Objects::nonNull)
-                .map(ItemRequestResponseDto::from)
-                .toList();
+        return toResponseDtos(myRequests);
     }
 
     @Override
@@ -67,4 +80,28 @@ public class ItemRequestServiceImpl implements ItemRequestService {
                 .toList();
     }
 
-}
\ No newline at end of file
+    private List<ItemRequestResponseDto> toResponseDtos(List<ItemRequest> requests) {
+        Set<Long> requestIdSet = requests.stream()
+                .filter(Objects::nonNull)
+                .map(ItemRequest::getId)
+                .collect(Collectors.toSet());
+        if (requestIdSet.isEmpty()) return List.of();
+
+        Map<Long, List<ItemResponseDtoForItemRequests>> items = itemRepository.findByItemRequestIds(requestIdSet)
+                .stream()
+                .collect(Collectors.groupingBy(
+                        ItemForItemRequestJpaProjection::getRequestId,
+                        Collectors.mapping(
+                                item -> ItemResponseDtoForItemRequests.of(item.getId(), item.getName(),
+                                        item.getOwnerId()),
+                                Collectors.toList()
+                        )
+                ));
+
+        return requests.stream()
+                .filter(Objects::nonNull)
+                .map(request -> ItemRequestResponseDto.from(request, items.getOrDefault(request.getId(), List.of())))
+                .toList();
+    }
+
+}
@@ -0,0 +1,7 @@
+package ru.practicum.shareit.request;
+
+// A notification stored by another server instance, relayed so this one can push it to its own clients.
+public record RemoteItemRequestNotificationEvent(
+        ItemRequestNotificationEvent event
+) {
+}
@@ -0,0 +1,148 @@
+package ru.practicum.shareit.sse;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Idle connections hold no thread: each one is an async servlet response plus a bounded queue, and a queue is
+// drained on a virtual thread only while it has events. A connection that falls a full buffer behind is closed,
+// the client reconnects and catches up through the regular read endpoints.
+@Slf4j
+public class SseBroadcaster {
+
+    private final String name;
+    private final int bufferSize;
+    private final long timeoutMillis;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Map<Long, Set<Connection>> connections = new ConcurrentHashMap<>();
+
+    public SseBroadcaster(String name, int bufferSize, Duration timeout) {
+        this.name = name;
+        this.bufferSize = bufferSize;
+        this.timeoutMillis = timeout.toMillis();
+    }
+
+    public SseEmitter subscribe(Long userId) {
+        return subscribe(userId, List.of());
+    }
+
+    // initial events are queued before the connection becomes visible to send(), so a caller that serializes
+    // subscribe and send per user gets a gapless stream
+    public SseEmitter subscribe(Long userId, List<SseEmitter.SseEventBuilder> initialEvents) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Connection connection = new Connection(userId, emitter);
+        for (SseEmitter.SseEventBuilder event : initialEvents) {
+            connection.enqueue(event.build());
+        }
+        if (connection.closed) return emitter;
+        connections.computeIfAbsent(userId, id -> ConcurrentHashMap.newKeySet()).add(connection);
+        emitter.onCompletion(() -> remove(connection));
+        emitter.onError(e -> remove(connection));
+        log.debug("SSE {} SUBSCRIBED USER {}", name, userId);
+        return emitter;
+    }
+
+    public void send(Long userId, SseEmitter.SseEventBuilder event) {
+        Set<Connection> userConnections = connections.get(userId);
+        if (userConnections == null) return;
+        Set<ResponseBodyEmitter.DataWithMediaType> data = event.build();
+        for (Connection connection : userConnections) {
+            connection.enqueue(data);
+        }
+    }
+
+    public void heartbeat() {
+        Set<ResponseBodyEmitter.DataWithMediaType> data = SseEmitter.event().comment("heartbeat").build();
+        for (Set<Connection> userConnections : connections.values()) {
+            for (Connection connection : userConnections) {
+                if (connection.pending.isEmpty()) connection.enqueue(data);
+            }
+        }
+    }
+
+    public int getConnectionCount() {
+        return connections.values().stream().mapToInt(Set::size).sum();
+    }
+
+    public void close() {
+        for (Set<Connection> userConnections : connections.values()) {
+            for (Connection connection : userConnections) {
+                connection.close(true);
+            }
+        }
+        executor.shutdownNow();
+    }
+
+    private void remove(Connection connection) {
+        connection.closed = true;
+        connections.computeIfPresent(connection.userId, (id, userConnections) -> {
+            userConnections.remove(connection);
+            return userConnections.isEmpty() ? null : userConnections;
+        });
+    }
+
+    private final class Connection {
+
+        private final Long userId;
+        private final SseEmitter emitter;
+        private final BlockingQueue<Set<ResponseBodyEmitter.DataWithMediaType>> pending;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile boolean closed;
+
+        private Connection(Long userId, SseEmitter emitter) {
+            this.userId = userId;
+            this.emitter = emitter;
+            this.pending = new ArrayBlockingQueue<>(bufferSize);
+        }
+
+        private void enqueue(Set<ResponseBodyEmitter.DataWithMediaType> data) {
+            if (closed) return;
+            if (!pending.offer(data)) {
+                log.warn("SSE {} BUFFER OVERFLOW FOR USER {}, CLOSING CONNECTION", name, userId);
+                close(true);
+                return;
+            }
+            scheduleDrain();
+        }
+
+        private void scheduleDrain() {
+            if (draining.compareAndSet(false, true)) executor.execute(this::drain);
+        }
+
+        private void drain() {
+            try {
+                Set<ResponseBodyEmitter.DataWithMediaType> data;
+                while (!closed && (data = pending.poll()) != null) {
+                    emitter.send(data);
+                }
+            } catch (IOException | IllegalStateException e) {
+                // the container reports the broken connection itself, completing the emitter here is not needed
+                log.debug("SSE {} SEND TO USER {} FAILED: {}", name, userId, e.getMessage());
+                close(false);
+            } finally {
+                draining.set(false);
+            }
+            if (!closed && !pending.isEmpty()) scheduleDrain();
+        }
+
+        private void close(boolean complete) {
+            remove(this);
+            pending.clear();
+            if (complete) emitter.complete();
+        }
+
+    }
+
+}
@@ -1,8 +1,11 @@
 package ru.practicum.shareit.user;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.etag.ETags;
 
 import java.util.Collection;
 
@@ -15,18 +18,21 @@ public class UserController {
     private final UserService userService;
 
     @PostMapping
-    public UserResponseDto post(
+    public ResponseEntity<UserResponseDto> post(
             @RequestBody UserCreateDto userCreateDto
     ) {
-        return userService.create(userCreateDto);
+        UserResponseDto created = userService.create(userCreateDto);
+        return ETags.ok(created, created.getVersion());
     }
 
     @PatchMapping("/{id}")
-    public UserResponseDto patch(
+    public ResponseEntity<UserResponseDto> patch(
             @RequestBody UserUpdateDto userUpdateDto,
-            @PathVariable Long id
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
     ) {
-        return userService.update(userUpdateDto, id);
+        UserResponseDto updated = userService.update(userUpdateDto, id, ETags.parseIfMatch(ifMatch));
+        return ETags.ok(updated, updated.getVersion());
     }
 
     @DeleteMapping("/{id}")
@@ -37,10 +43,15 @@ public class UserController {
     }
 
     @GetMapping("/{id}")
-    public UserResponseDto getById(
-            @PathVariable Long id
+    public ResponseEntity<UserResponseDto> getById(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
     ) {
-        return userService.getById(id);
+        // users are served from the lookup cache, so the version comes with the cached dto at no extra cost
+        UserResponseDto user = userService.getById(id);
+        String eTag = ETags.of(user.getVersion());
+        if (ETags.matchesAny(ifNoneMatch, eTag)) return ETags.notModified(eTag);
+        return ResponseEntity.ok().eTag(eTag).body(user);
     }
 
     @GetMapping
@@ -0,0 +1,31 @@
+package ru.practicum.shareit.user;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+@RequiredArgsConstructor
+public class UserJdbcReadRepository {
+
+    private static final RowMapper<UserResponseDto> USER_ROW_MAPPER = (rs, rowNum) -> {
+        UserResponseDto dto = new UserResponseDto();
+        dto.setId(rs.getLong("id"));
+        dto.setVersion(rs.getLong("version"));
+        dto.setName(rs.getString("name"));
+        dto.setEmail(rs.getString("email"));
+        return dto;
+    };
+
+    private final JdbcClient jdbcClient;
+
+    public List<UserResponseDto> findAll() {
+        return jdbcClient.sql("SELECT u.id, u.version, u.name, u.email FROM users AS u ORDER BY u.id")
+                .query(USER_ROW_MAPPER)
+                .list();
+    }
+
+}
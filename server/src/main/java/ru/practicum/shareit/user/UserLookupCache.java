@@ -0,0 +1,71 @@
+package ru.practicum.shareit.user;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.datasource.PrimaryReads;
+
+import java.time.Duration;
+import java.util.Optional;
+
+@Component
+public class UserLookupCache {
+
+    private final UserRepository userRepository;
+    private final PrimaryReads primaryReads;
+    private final Cache<Long, UserResponseDto> cache;
+
+    public UserLookupCache(
+            UserRepository userRepository,
+            PrimaryReads primaryReads,
+            MeterRegistry meterRegistry,
+            @Value("${shareit.user-cache.maximum-size}") long maximumSize,
+            @Value("${shareit.user-cache.expire-after-write}") Duration expireAfterWrite
+    ) {
+        this.userRepository = userRepository;
+        this.primaryReads = primaryReads;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "users");
+    }
+
+    public Optional<UserResponseDto> find(Long userId) {
+        if (userId == null) return Optional.empty();
+        return Optional.ofNullable(cache.get(userId, id -> primaryReads.load(
+                () -> userRepository.findById(id).map(UserResponseDto::from).orElse(null))));
+    }
+
+    public boolean exists(Long userId) {
+        return find(userId).isPresent();
+    }
+
+    public void invalidateLocally(Long userId) {
+        cache.invalidate(userId);
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    public void invalidate(Long userId) {
+        cache.invalidate(userId);
+        // a concurrent lookup may reload the old row before our transaction commits
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    cache.invalidate(userId);
+                }
+            });
+        }
+    }
+
+}
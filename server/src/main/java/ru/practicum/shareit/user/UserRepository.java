@@ -1,6 +1,7 @@
 package ru.practicum.shareit.user;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
@@ -17,4 +18,13 @@ public interface UserRepository extends JpaRepository<User, Long> {
             """)
     boolean existsByEmailButNotTheSame(@Param("email") String email, @Param("id") Long id);
 
+    // change numbers only grow, so views that render several users can tag on the largest of theirs
+    @Modifying
+    @Query("""
+            update User as u
+            set u.changeSeq = function('nextval', 'users_change_seq')
+            where u.id = :id
+            """)
+    int advanceChangeSeq(@Param("id") Long id);
+
 }
\ No newline at end of file
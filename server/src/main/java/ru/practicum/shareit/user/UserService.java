@@ -10,7 +10,7 @@ public interface UserService {
 
     UserResponseDto create(UserCreateDto user);
 
-    UserResponseDto update(UserUpdateDto user, Long userId);
+    UserResponseDto update(UserUpdateDto user, Long userId, Long expectedVersion);
 
     void deleteById(Long userId);
 
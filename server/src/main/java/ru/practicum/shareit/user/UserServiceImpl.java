@@ -1,10 +1,18 @@
 package ru.practicum.shareit.user;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.OwnerBookingCounterService;
+import ru.practicum.shareit.cache.CacheInvalidationEvent;
+import ru.practicum.shareit.cache.CacheRegion;
 import ru.practicum.shareit.exception.ConflictException;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.exception.PreconditionFailedException;
+import ru.practicum.shareit.request.ItemRequestNotificationService;
+import ru.practicum.shareit.request.ItemRequestRepository;
 
 import java.util.List;
 import java.util.Objects;
@@ -15,9 +23,19 @@ import java.util.Objects;
 public class UserServiceImpl implements UserService {
 
     private final UserRepository userRepository;
+    private final UserJdbcReadRepository userJdbcReadRepository;
+    private final UserLookupCache userLookupCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final OwnerBookingCounterService ownerBookingCounterService;
+    private final ItemRequestNotificationService itemRequestNotificationService;
+    private final ItemRequestRepository itemRequestRepository;
+
+    @Value("${shareit.jdbc-read-path.enabled}")
+    private boolean jdbcReadPath;
 
     @Override
     public List<UserResponseDto> getList() {
+        if (jdbcReadPath) return userJdbcReadRepository.findAll();
         return userRepository.findAll().stream()
                 .filter(Objects::nonNull)
                 .map(UserResponseDto::from)
@@ -26,10 +44,9 @@ public class UserServiceImpl implements UserService {
 
     @Override
     public UserResponseDto getById(Long userId) {
-        User user = userRepository.findById(userId).orElseThrow(
+        return userLookupCache.find(userId).orElseThrow(
                 () -> new NotFoundException("User " + userId + " not found")
         );
-        return UserResponseDto.from(user);
     }
 
     @Override
@@ -40,15 +57,21 @@ public class UserServiceImpl implements UserService {
         newUser.setName(userCreateDto.getName());
         newUser.setEmail(userCreateDto.getEmail());
         User createdUser = userRepository.save(newUser);
+        ownerBookingCounterService.create(createdUser);
+        itemRequestNotificationService.create(createdUser);
         return UserResponseDto.from(createdUser);
     }
 
     @Override
     @Transactional(readOnly = false)
-    public UserResponseDto update(UserUpdateDto userUpdateDto, Long userId) {
+    public UserResponseDto update(UserUpdateDto userUpdateDto, Long userId, Long expectedVersion) {
         User existingUser = userRepository.findById(userId).orElseThrow(
                 () -> new NotFoundException("User " + userId + " not found")
         );
+        if (expectedVersion != null && !expectedVersion.equals(existingUser.getVersion())) {
+            throw new PreconditionFailedException("User " + userId + " was modified, current version is "
+                    + existingUser.getVersion());
+        }
         if (userUpdateDto.getName() != null) {
             existingUser.setName(userUpdateDto.getName());
         }
@@ -58,6 +81,10 @@ public class UserServiceImpl implements UserService {
             if (emailConflict) throw new ConflictException("Duplicate User Email");
             existingUser.setEmail(userUpdateDto.getEmail());
         }
+        userRepository.flush();
+        userRepository.advanceChangeSeq(userId);
+        userLookupCache.invalidate(userId);
+        eventPublisher.publishEvent(new CacheInvalidationEvent(CacheRegion.USER, userId));
         return UserResponseDto.from(existingUser);
     }
 
@@ -65,7 +92,12 @@ public class UserServiceImpl implements UserService {
     @Transactional(readOnly = false)
     public void deleteById(Long userId) {
         if (!userRepository.existsById(userId)) throw new NotFoundException("User " + userId + " not found");
+        ownerBookingCounterService.beforeUserDeleted(userId);
+        // the user's items are cascaded away in the database, so the requests they answered change here
+        itemRequestRepository.incrementVersionsAnsweredByOwner(userId);
         userRepository.deleteById(userId);
+        userLookupCache.invalidate(userId);
+        eventPublisher.publishEvent(new CacheInvalidationEvent(CacheRegion.USER_DELETED, userId));
     }
 
 }
\ No newline at end of file
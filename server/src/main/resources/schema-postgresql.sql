@@ -0,0 +1,51 @@
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+
+DO '
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = ''bookings_approved_no_overlap'') THEN
+        ALTER TABLE bookings ADD CONSTRAINT bookings_approved_no_overlap
+            EXCLUDE USING gist (item_id WITH =, tstzrange(start_at, end_at, ''[)'') WITH &&)
+            WHERE (status = ''APPROVED'');
+    END IF;
+END
+';
+
+-- ids used to come from identity columns; hibernate now allocates them from the pooled sequences
+ALTER TABLE users ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE requests ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE items ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE bookings ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE comments ALTER COLUMN id DROP IDENTITY IF EXISTS;
+
+SELECT setval('users_seq', m) FROM (SELECT MAX(id) AS m FROM users) AS t
+WHERE m >= (SELECT last_value FROM users_seq);
+SELECT setval('requests_seq', m) FROM (SELECT MAX(id) AS m FROM requests) AS t
+WHERE m >= (SELECT last_value FROM requests_seq);
+SELECT setval('items_seq', m) FROM (SELECT MAX(id) AS m FROM items) AS t
+WHERE m >= (SELECT last_value FROM items_seq);
+SELECT setval('bookings_seq', m) FROM (SELECT MAX(id) AS m FROM bookings) AS t
+WHERE m >= (SELECT last_value FROM bookings_seq);
+SELECT setval('comments_seq', m) FROM (SELECT MAX(id) AS m FROM comments) AS t
+WHERE m >= (SELECT last_value FROM comments_seq);
+
+-- optimistic locking columns for tables created before they were versioned
+ALTER TABLE users ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE items ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE bookings ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE requests ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+
+-- only WAITING rows are indexed, so the expiry job scans no more than the backlog it works through
+CREATE INDEX IF NOT EXISTS bookings_waiting_start_at_idx ON bookings (start_at) WHERE status = 'WAITING';
+
+-- every write stamps the id of its transaction, so the change feed can tell rows whose transaction has finished
+-- from rows a still running transaction may yet be joined by
+CREATE OR REPLACE FUNCTION bookings_stamp_change_xid() RETURNS trigger AS '
+BEGIN
+    NEW.change_xid := pg_current_xact_id()::text::bigint;
+    RETURN NEW;
+END
+' LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS bookings_change_xid ON bookings;
+CREATE TRIGGER bookings_change_xid BEFORE INSERT OR UPDATE ON bookings
+    FOR EACH ROW EXECUTE FUNCTION bookings_stamp_change_xid();
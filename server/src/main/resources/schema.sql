@@ -1,38 +1,132 @@
+CREATE SEQUENCE IF NOT EXISTS users_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS requests_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS items_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS bookings_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS comments_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS bookings_change_seq START WITH 1 INCREMENT BY 1;
+CREATE SEQUENCE IF NOT EXISTS users_change_seq START WITH 1 INCREMENT BY 1;
+CREATE SEQUENCE IF NOT EXISTS request_notifications_seq START WITH 1 INCREMENT BY 50;
+
 CREATE TABLE IF NOT EXISTS users (
-    id       BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    id       BIGINT PRIMARY KEY,
     name     VARCHAR(100) NOT NULL,
-    email    VARCHAR(100) NOT NULL UNIQUE
+    email       VARCHAR(100) NOT NULL UNIQUE,
+    version     BIGINT NOT NULL DEFAULT 0,
+    change_seq  BIGINT NOT NULL DEFAULT nextval('users_change_seq')
 );
 
+-- users created before item views depended on author changes get their change numbers in table order
+ALTER TABLE users ADD COLUMN IF NOT EXISTS change_seq BIGINT NOT NULL DEFAULT nextval('users_change_seq');
+
 CREATE TABLE IF NOT EXISTS requests (
-    id             BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    id             BIGINT PRIMARY KEY,
     description    VARCHAR(255) NOT NULL,
     requestor_id   BIGINT NOT NULL REFERENCES users(id) ON DELETE CASCADE ON UPDATE RESTRICT,
-    created_at     TIMESTAMP WITH TIME ZONE NOT NULL
+    created_at     TIMESTAMP WITH TIME ZONE NOT NULL,
+    version        BIGINT NOT NULL DEFAULT 0
 );
 
 CREATE TABLE IF NOT EXISTS items (
-    id             BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    id             BIGINT PRIMARY KEY,
     name           VARCHAR(100) NOT NULL,
     description    VARCHAR(255) NOT NULL,
     available      BOOLEAN NOT NULL,
     owner_id       BIGINT NOT NULL REFERENCES users(id)    ON DELETE CASCADE  ON UPDATE RESTRICT,
-    request_id     BIGINT          REFERENCES requests(id) ON DELETE SET NULL ON UPDATE RESTRICT
+    request_id     BIGINT          REFERENCES requests(id) ON DELETE SET NULL ON UPDATE RESTRICT,
+    version        BIGINT NOT NULL DEFAULT 0
 );
 
 CREATE TABLE IF NOT EXISTS bookings (
-    id          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    id          BIGINT PRIMARY KEY,
     start_at    TIMESTAMP WITH TIME ZONE NOT NULL,
     end_at      TIMESTAMP WITH TIME ZONE NOT NULL,
     item_id     BIGINT NOT NULL REFERENCES items(id) ON DELETE CASCADE ON UPDATE RESTRICT,
     booker_id   BIGINT NOT NULL REFERENCES users(id) ON DELETE CASCADE ON UPDATE RESTRICT,
-    status      VARCHAR(15) NOT NULL
+    status      VARCHAR(15) NOT NULL,
+    version     BIGINT NOT NULL DEFAULT 0,
+    change_seq  BIGINT NOT NULL DEFAULT nextval('bookings_change_seq'),
+    changed_at  TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    change_xid  BIGINT NOT NULL DEFAULT 0
 );
 
+-- bookings created before delta sync get their change numbers in table order
+ALTER TABLE bookings ADD COLUMN IF NOT EXISTS change_seq BIGINT NOT NULL DEFAULT nextval('bookings_change_seq');
+ALTER TABLE bookings ADD COLUMN IF NOT EXISTS changed_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP;
+ALTER TABLE bookings ADD COLUMN IF NOT EXISTS change_xid BIGINT NOT NULL DEFAULT 0;
+
 CREATE TABLE IF NOT EXISTS comments (
-    id           BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    id           BIGINT PRIMARY KEY,
     text         VARCHAR(512) NOT NULL,
     item_id      BIGINT NOT NULL REFERENCES items(id) ON DELETE CASCADE ON UPDATE RESTRICT,
     author_id    BIGINT NOT NULL REFERENCES users(id) ON DELETE CASCADE ON UPDATE RESTRICT,
     created_at   TIMESTAMP WITH TIME ZONE NOT NULL
-);
\ No newline at end of file
+);
+
+CREATE INDEX IF NOT EXISTS bookings_item_id_start_at_idx ON bookings (item_id, start_at);
+CREATE INDEX IF NOT EXISTS bookings_item_id_end_at_idx ON bookings (item_id, end_at);
+CREATE INDEX IF NOT EXISTS bookings_booker_id_change_idx ON bookings (booker_id, change_xid, change_seq);
+CREATE INDEX IF NOT EXISTS bookings_item_id_change_idx ON bookings (item_id, change_xid, change_seq);
+
+CREATE TABLE IF NOT EXISTS item_booking_summaries (
+    item_id          BIGINT PRIMARY KEY REFERENCES items(id) ON DELETE CASCADE ON UPDATE RESTRICT,
+    last_booking     TIMESTAMP WITH TIME ZONE,
+    next_booking     TIMESTAMP WITH TIME ZONE,
+    valid_until      TIMESTAMP WITH TIME ZONE
+);
+
+CREATE INDEX IF NOT EXISTS item_booking_summaries_valid_until_idx ON item_booking_summaries (valid_until);
+
+INSERT INTO item_booking_summaries (item_id, valid_until)
+SELECT i.id, CURRENT_TIMESTAMP
+FROM items AS i
+WHERE NOT EXISTS (SELECT 1 FROM item_booking_summaries AS s WHERE s.item_id = i.id);
+
+CREATE INDEX IF NOT EXISTS comments_item_id_created_at_idx ON comments (item_id, created_at);
+
+-- one row per owner and stripe, see OwnerBookingCounterService.STRIPES; the count is the sum of an owner's rows
+CREATE TABLE IF NOT EXISTS owner_booking_counter_stripes (
+    owner_id        BIGINT NOT NULL REFERENCES users(id) ON DELETE CASCADE ON UPDATE RESTRICT,
+    stripe          INT NOT NULL,
+    waiting_count   BIGINT NOT NULL,
+    PRIMARY KEY (owner_id, stripe)
+);
+
+INSERT INTO owner_booking_counter_stripes (owner_id, stripe, waiting_count)
+SELECT u.id,
+       s.stripe,
+       CASE WHEN s.stripe = 0 THEN (SELECT COUNT(*) FROM bookings AS b JOIN items AS i ON i.id = b.item_id
+                                    WHERE i.owner_id = u.id AND b.status = 'WAITING') ELSE 0 END
+FROM users AS u
+CROSS JOIN (VALUES (0), (1), (2), (3), (4), (5), (6), (7)) AS s (stripe)
+WHERE NOT EXISTS (SELECT 1 FROM owner_booking_counter_stripes AS c WHERE c.owner_id = u.id);
+
+CREATE INDEX IF NOT EXISTS items_request_id_idx ON items (request_id);
+CREATE INDEX IF NOT EXISTS items_owner_id_idx ON items (owner_id);
+
+-- bumped by every write transaction of a user; a replica that has the same value has replayed that user's writes
+CREATE TABLE IF NOT EXISTS user_write_marks (
+    user_id     BIGINT PRIMARY KEY,
+    write_seq   BIGINT NOT NULL
+);
+
+-- each requestor's notifications are numbered under the counter row's lock, so numbers follow commit order
+CREATE TABLE IF NOT EXISTS request_notification_counters (
+    requestor_id    BIGINT PRIMARY KEY REFERENCES users(id) ON DELETE CASCADE ON UPDATE RESTRICT,
+    last_seq        BIGINT NOT NULL
+);
+
+INSERT INTO request_notification_counters (requestor_id, last_seq)
+SELECT u.id, 0
+FROM users AS u
+WHERE NOT EXISTS (SELECT 1 FROM request_notification_counters AS c WHERE c.requestor_id = u.id);
+
+CREATE TABLE IF NOT EXISTS request_notifications (
+    id              BIGINT PRIMARY KEY,
+    requestor_id    BIGINT NOT NULL REFERENCES users(id) ON DELETE CASCADE ON UPDATE RESTRICT,
+    seq             BIGINT NOT NULL,
+    request_id      BIGINT NOT NULL,
+    item_id         BIGINT NOT NULL,
+    item_name       VARCHAR(100) NOT NULL,
+    owner_id        BIGINT NOT NULL,
+    CONSTRAINT request_notifications_requestor_id_seq_key UNIQUE (requestor_id, seq)
+);
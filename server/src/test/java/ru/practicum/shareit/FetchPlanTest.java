@@ -0,0 +1,153 @@
+package ru.practicum.shareit;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingApiState;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.BookingService;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.item.Comment;
+import ru.practicum.shareit.item.CommentRepository;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserRepository;
+
+import java.time.OffsetDateTime;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// The JPA read path must not fan out into a select per row, so a list of one costs as many statements as a list
+// of many. The second-level cache is emptied before each call, otherwise it would hide lazy loads.
+@SpringBootTest(properties = "shareit.jdbc-read-path.enabled=false")
+@Transactional
+@AutoConfigureTestDatabase
+class FetchPlanTest {
+
+    private static final int ROWS = 5;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private User owner;
+    private User booker;
+    private Item item;
+
+    @BeforeEach
+    void setUp() {
+        owner = user("owner");
+        booker = user("booker");
+        item = item(owner);
+    }
+
+    @Test
+    void bookingListsRunFixedStatements() {
+        book(item, booker);
+        long bookerSingle = statements(() -> bookingService.getBookerBookings(booker.getId(), BookingApiState.ALL));
+        long ownerSingle = statements(() -> bookingService.getOwnerBookings(owner.getId(), BookingApiState.ALL));
+
+        // every extra booking brings its own item, and for the owner list its own booker as well
+        for (int i = 0; i < ROWS; i++) {
+            book(item(owner), booker);
+            book(item(owner), user("booker" + i));
+        }
+
+        assertThat(statements(() -> bookingService.getBookerBookings(booker.getId(), BookingApiState.ALL)))
+                .isEqualTo(bookerSingle);
+        assertThat(statements(() -> bookingService.getOwnerBookings(owner.getId(), BookingApiState.ALL)))
+                .isEqualTo(ownerSingle);
+    }
+
+    @Test
+    void itemViewRunsFixedStatements() {
+        comment(item, booker);
+        long single = statements(() -> itemService.getById(owner.getId(), item.getId()));
+
+        for (int i = 0; i < ROWS; i++) {
+            comment(item, user("author" + i));
+        }
+
+        assertThat(statements(() -> itemService.getById(owner.getId(), item.getId()))).isEqualTo(single);
+    }
+
+    // runs the call once to warm the user lookup cache, then counts a cold run against the database
+    private long statements(Supplier<?> call) {
+        call.get();
+        entityManager.flush();
+        entityManager.clear();
+        entityManagerFactory.getCache().evictAll();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        long before = statistics.getPrepareStatementCount();
+        call.get();
+        return statistics.getPrepareStatementCount() - before;
+    }
+
+    private User user(String name) {
+        User user = new User();
+        user.setName(name);
+        user.setEmail(name + "@yandex.ru");
+        return userRepository.save(user);
+    }
+
+    private Item item(User itemOwner) {
+        Item newItem = new Item();
+        newItem.setName("saw");
+        newItem.setDescription("real saw");
+        newItem.setAvailable(true);
+        newItem.setOwner(itemOwner);
+        return itemRepository.save(newItem);
+    }
+
+    private void book(Item bookedItem, User bookingUser) {
+        Booking booking = new Booking();
+        booking.setItem(bookedItem);
+        booking.setBooker(bookingUser);
+        booking.setStatus(BookingStatus.WAITING);
+        booking.setStart(OffsetDateTime.now().plusDays(1));
+        booking.setEnd(OffsetDateTime.now().plusDays(2));
+        bookingRepository.save(booking);
+    }
+
+    private void comment(Item commentedItem, User author) {
+        Comment comment = new Comment();
+        comment.setText("great saw");
+        comment.setItem(commentedItem);
+        comment.setAuthor(author);
+        comment.setCreated(OffsetDateTime.now());
+        commentRepository.save(comment);
+    }
+
+}
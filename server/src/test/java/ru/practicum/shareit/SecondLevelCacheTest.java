@@ -0,0 +1,56 @@
+package ru.practicum.shareit;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserRepository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@AutoConfigureTestDatabase
+class SecondLevelCacheTest {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private User user;
+
+    @AfterEach
+    void tearDown() {
+        if (user != null) userRepository.deleteById(user.getId());
+    }
+
+    @Test
+    void userIsServedFromSecondLevelCache() {
+        user = new User();
+        user.setName("cached");
+        user.setEmail("cached@yandex.ru");
+        userRepository.save(user);
+        entityManagerFactory.getCache().evict(User.class, user.getId());
+
+        transactionTemplate.executeWithoutResult(status -> userRepository.findById(user.getId()));
+        assertThat(entityManagerFactory.getCache().contains(User.class, user.getId())).isTrue();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        long hits = statistics.getSecondLevelCacheHitCount();
+        User found = transactionTemplate.execute(status -> userRepository.findById(user.getId()).orElseThrow());
+
+        assertThat(found.getName()).isEqualTo("cached");
+        assertThat(statistics.getSecondLevelCacheHitCount()).isGreaterThan(hits);
+    }
+
+}
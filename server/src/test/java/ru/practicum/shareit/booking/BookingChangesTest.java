@@ -0,0 +1,163 @@
+package ru.practicum.shareit.booking;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.exception.BadRequestException;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserRepository;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.doReturn;
+
+@SpringBootTest(properties = {
+        "shareit.booking.changes.page-size=2",
+        "shareit.booking.changes.transaction-watermark-enabled=true"
+})
+@Transactional
+@AutoConfigureTestDatabase
+class BookingChangesTest {
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    // H2 has no transaction ids, so each test decides where the watermark stands
+    @MockitoSpyBean
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private User owner;
+    private User booker;
+    private final List<Booking> bookings = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        doReturn(Long.MAX_VALUE).when(bookingRepository).findSnapshotXmin();
+
+        owner = new User();
+        owner.setName("owner");
+        owner.setEmail("owner@yandex.ru");
+        userRepository.save(owner);
+
+        booker = new User();
+        booker.setName("booker");
+        booker.setEmail("booker@yandex.ru");
+        userRepository.save(booker);
+
+        Item item = new Item();
+        item.setName("saw");
+        item.setDescription("real saw");
+        item.setAvailable(true);
+        item.setOwner(owner);
+        itemRepository.save(item);
+
+        for (int i = 1; i <= 3; i++) {
+            Booking booking = new Booking();
+            booking.setStart(OffsetDateTime.now().plusDays(i * 2));
+            booking.setEnd(OffsetDateTime.now().plusDays(i * 2 + 1));
+            booking.setBooker(booker);
+            booking.setItem(item);
+            booking.setStatus(BookingStatus.WAITING);
+            bookings.add(bookingRepository.save(booking));
+        }
+        // change numbers come from the column default, so they are only visible once reloaded
+        bookingRepository.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void pagesThroughChangesAndPicksUpUpdates() {
+        BookingChangesDto firstPage = bookingService.getBookerChanges(booker.getId(), null);
+        assertThat(firstPage.getBookings()).extracting("id")
+                .containsExactly(bookings.get(0).getId(), bookings.get(1).getId());
+        assertThat(firstPage.isHasMore()).isTrue();
+
+        BookingChangesDto secondPage = bookingService.getBookerChanges(booker.getId(), firstPage.getToken());
+        assertThat(secondPage.getBookings()).extracting("id").containsExactly(bookings.get(2).getId());
+        assertThat(secondPage.isHasMore()).isFalse();
+
+        BookingChangesDto upToDate = bookingService.getBookerChanges(booker.getId(), secondPage.getToken());
+        assertThat(upToDate.getBookings()).isEmpty();
+        assertThat(upToDate.getToken()).isEqualTo(secondPage.getToken());
+
+        bookingService.approveReject(owner.getId(), bookings.get(0).getId(), true, null);
+
+        BookingChangesDto bookerChanges = bookingService.getBookerChanges(booker.getId(), secondPage.getToken());
+        assertThat(bookerChanges.getBookings()).hasSize(1);
+        assertThat(bookerChanges.getBookings().getFirst().getId()).isEqualTo(bookings.get(0).getId());
+        assertThat(bookerChanges.getBookings().getFirst().getStatus()).isEqualTo(BookingStatus.APPROVED);
+
+        BookingChangesDto ownerChanges = bookingService.getOwnerChanges(owner.getId(), secondPage.getToken());
+        assertThat(ownerChanges.getBookings()).extracting("id").containsExactly(bookings.get(0).getId());
+        assertThat(ownerChanges.getToken()).isEqualTo(bookerChanges.getToken());
+
+        assertThat(bookingService.getOwnerChanges(booker.getId(), null).getBookings()).isEmpty();
+    }
+
+    @Test
+    void tokenStopsAtRowsOfUnfinishedTransactions() {
+        // the third booking was written by the earliest transaction, the second by one the watermark has not passed
+        stampTransaction(bookings.get(0), 5);
+        stampTransaction(bookings.get(1), 7);
+        stampTransaction(bookings.get(2), 6);
+        doReturn(7L).when(bookingRepository).findSnapshotXmin();
+
+        BookingChangesDto firstPage = bookingService.getBookerChanges(booker.getId(), null);
+        assertThat(firstPage.getBookings()).extracting("id")
+                .containsExactly(bookings.get(0).getId(), bookings.get(2).getId());
+        assertThat(firstPage.isHasMore()).isTrue();
+
+        BookingChangesDto unsettled = bookingService.getBookerChanges(booker.getId(), firstPage.getToken());
+        assertThat(unsettled.getBookings()).extracting("id").containsExactly(bookings.get(1).getId());
+        assertThat(unsettled.getToken()).isEqualTo(firstPage.getToken());
+        assertThat(unsettled.isHasMore()).isFalse();
+
+        doReturn(8L).when(bookingRepository).findSnapshotXmin();
+        BookingChangesDto settled = bookingService.getBookerChanges(booker.getId(), firstPage.getToken());
+        assertThat(settled.getBookings()).extracting("id").containsExactly(bookings.get(1).getId());
+        assertThat(settled.getToken()).isNotEqualTo(firstPage.getToken());
+
+        assertThat(bookingService.getBookerChanges(booker.getId(), settled.getToken()).getBookings()).isEmpty();
+    }
+
+    @Test
+    void changeErrors() {
+        assertThrows(BadRequestException.class, () -> bookingService.getBookerChanges(booker.getId(), "abc"));
+        assertThrows(BadRequestException.class, () -> bookingService.getBookerChanges(booker.getId(), "12"));
+
+        assertThrows(BadRequestException.class, () -> bookingService.getOwnerChanges(owner.getId(), "-1"));
+
+        assertThrows(BadRequestException.class, () -> bookingService.getOwnerChanges(owner.getId(), "1-x"));
+
+        assertThrows(NotFoundException.class, () -> bookingService.getBookerChanges(99999L, null));
+    }
+
+    private void stampTransaction(Booking booking, long xid) {
+        entityManager.createNativeQuery("UPDATE bookings SET change_xid = ? WHERE id = ?")
+                .setParameter(1, xid)
+                .setParameter(2, booking.getId())
+                .executeUpdate();
+    }
+
+}
@@ -38,6 +38,9 @@ public class BookingControllerTest {
     @MockitoBean
     private BookingService bookingService;
 
+    @MockitoBean
+    private BookingNotificationHub bookingNotificationHub;
+
     @Autowired
     private WebApplicationContext context;
 
@@ -78,7 +81,7 @@ public class BookingControllerTest {
                 .andExpect(jsonPath("$.error", is("Not Found")));
         verify(bookingService, times(1)).getById(any(), any());
 
-        when(bookingService.approveReject(eq(1L), eq(1L), eq(false))).thenThrow(
+        when(bookingService.approveReject(eq(1L), eq(1L), eq(false), any())).thenThrow(
                 new NotFoundException("Not found"));
         ItemUpdateDto itemUpdateDto = new ItemUpdateDto();
         itemUpdateDto.setName("new name");
@@ -86,7 +89,7 @@ public class BookingControllerTest {
                 .andDo(MockMvcResultHandlers.print())
                 .andExpect(status().isNotFound())
                 .andExpect(jsonPath("$.error", is("Not Found")));
-        verify(bookingService, times(1)).approveReject(any(), any(), anyBoolean());
+        verify(bookingService, times(1)).approveReject(any(), any(), anyBoolean(), any());
     }
 
     @Test
@@ -131,7 +134,7 @@ public class BookingControllerTest {
                 .andExpect(jsonPath("$.status", is(bookingResponseDto.getStatus().toString())));
         verify(bookingService, times(1)).create(any(), any());
 
-        when(bookingService.approveReject(eq(1L), eq(1L), eq(true))).thenReturn(bookingResponseDto);
+        when(bookingService.approveReject(eq(1L), eq(1L), eq(true), any())).thenReturn(bookingResponseDto);
         mvc.perform(patch("/bookings/1?approved=true"))
                 .andDo(MockMvcResultHandlers.print())
                 .andExpect(status().isOk())
@@ -146,7 +149,7 @@ public class BookingControllerTest {
                 .andExpect(jsonPath("$.start", is(bookingResponseDto.getStart().atZoneSameInstant(zoneId).format(formatter))))
                 .andExpect(jsonPath("$.end", is(bookingResponseDto.getEnd().atZoneSameInstant(zoneId).format(formatter))))
                 .andExpect(jsonPath("$.status", is(bookingResponseDto.getStatus().toString())));
-        verify(bookingService, times(1)).approveReject(any(), any(), anyBoolean());
+        verify(bookingService, times(1)).approveReject(any(), any(), anyBoolean(), any());
 
         when(bookingService.getById(eq(1L), eq(1L))).thenReturn(bookingResponseDto);
         mvc.perform(get("/bookings/1"))
@@ -0,0 +1,129 @@
+package ru.practicum.shareit.booking;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.item.ItemCreateDto;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.user.UserCreateDto;
+import ru.practicum.shareit.user.UserService;
+
+import java.time.OffsetDateTime;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "shareit.booking.expiry.enabled=true",
+        "shareit.booking.expiry.chunk-size=2",
+        "shareit.booking.expiry.initial-delay-millis=3600000"
+})
+@Transactional
+@AutoConfigureTestDatabase
+class BookingExpiryJobTest {
+
+    @Autowired
+    private BookingExpiryJob bookingExpiryJob;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Long ownerId;
+    private Long bookerId;
+    private Long itemId;
+
+    @BeforeEach
+    void setUp() {
+        ownerId = createUser("owner");
+        bookerId = createUser("booker");
+
+        ItemCreateDto itemDto = new ItemCreateDto();
+        itemDto.setName("saw");
+        itemDto.setDescription("real saw");
+        itemDto.setAvailable(true);
+        itemId = itemService.create(ownerId, itemDto).getId();
+    }
+
+    @Test
+    void expiresStartedWaitingBookingsInChunks() {
+        Long first = book(-3);
+        Long second = book(-2);
+        Long third = book(-1);
+        Long future = book(2);
+        Long approved = book(-4);
+        bookingService.approveReject(ownerId, approved, true, null);
+        assertThat(bookingService.getOwnerBookingCount(ownerId).getWaiting()).isEqualTo(4);
+        double processedBefore = meterRegistry.get("shareit.booking.expiry.processed").counter().count();
+
+        assertThat(bookingExpiryJob.expireWaitingBookings()).isEqualTo(3);
+
+        entityManager.clear();
+        assertThat(status(first)).isEqualTo(BookingStatus.CANCELED);
+        assertThat(status(second)).isEqualTo(BookingStatus.CANCELED);
+        assertThat(status(third)).isEqualTo(BookingStatus.CANCELED);
+        assertThat(status(future)).isEqualTo(BookingStatus.WAITING);
+        assertThat(status(approved)).isEqualTo(BookingStatus.APPROVED);
+        assertThat(bookingRepository.findById(first).orElseThrow().getVersion()).isEqualTo(1L);
+
+        assertThat(bookingService.getOwnerBookingCount(ownerId).getWaiting()).isEqualTo(1);
+        assertThat(meterRegistry.get("shareit.booking.expiry.processed").counter().count() - processedBefore)
+                .isEqualTo(3);
+        assertThat(meterRegistry.get("shareit.booking.expiry.lag").timeGauge().value(TimeUnit.MILLISECONDS))
+                .isZero();
+
+        assertThat(bookingExpiryJob.expireWaitingBookings()).isZero();
+    }
+
+    @Test
+    void expiryMovesChangeSequence() {
+        Long expired = book(-1);
+        entityManager.flush();
+        entityManager.clear();
+        Long changeSeqBefore = bookingRepository.findById(expired).orElseThrow().getChangeSeq();
+
+        bookingExpiryJob.expireWaitingBookings();
+        entityManager.clear();
+
+        assertThat(bookingRepository.findById(expired).orElseThrow().getChangeSeq()).isGreaterThan(changeSeqBefore);
+    }
+
+    private BookingStatus status(Long bookingId) {
+        return bookingRepository.findById(bookingId).orElseThrow().getStatus();
+    }
+
+    private Long book(int daysFromNow) {
+        BookingCreateDto dto = new BookingCreateDto();
+        dto.setItemId(itemId);
+        dto.setStart(OffsetDateTime.now().plusDays(daysFromNow));
+        dto.setEnd(OffsetDateTime.now().plusDays(daysFromNow).plusHours(12));
+        return bookingService.create(bookerId, dto).getId();
+    }
+
+    private Long createUser(String name) {
+        UserCreateDto dto = new UserCreateDto();
+        dto.setName(name);
+        dto.setEmail(name + "@yandex.ru");
+        return userService.create(dto).getId();
+    }
+
+}
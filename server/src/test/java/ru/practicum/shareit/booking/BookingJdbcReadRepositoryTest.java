@@ -0,0 +1,123 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserRepository;
+
+import java.time.OffsetDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+@AutoConfigureTestDatabase
+class BookingJdbcReadRepositoryTest {
+
+    @Autowired
+    private BookingJdbcReadRepository bookingJdbcReadRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private User owner;
+    private User booker;
+    private OffsetDateTime now;
+
+    @BeforeEach
+    void setUp() {
+        owner = new User();
+        owner.setName("owner");
+        owner.setEmail("owner@yandex.ru");
+        userRepository.save(owner);
+
+        booker = new User();
+        booker.setName("booker");
+        booker.setEmail("booker@yandex.ru");
+        userRepository.save(booker);
+
+        Item item = new Item();
+        item.setName("saw");
+        item.setDescription("real saw");
+        item.setAvailable(true);
+        item.setOwner(owner);
+        itemRepository.save(item);
+
+        now = OffsetDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        saveBooking(item, now.minusDays(3), now.minusDays(2), BookingStatus.APPROVED);
+        saveBooking(item, now.minusDays(1), now.plusDays(1), BookingStatus.APPROVED);
+        saveBooking(item, now.plusDays(2), now.plusDays(3), BookingStatus.APPROVED);
+        saveBooking(item, now.plusDays(4), now.plusDays(5), BookingStatus.WAITING);
+        saveBooking(item, now.plusDays(6), now.plusDays(7), BookingStatus.REJECTED);
+        bookingRepository.flush();
+    }
+
+    @ParameterizedTest
+    @EnumSource(BookingApiState.class)
+    void findByBookerIdMatchesJpa(BookingApiState state) {
+        List<BookingResponseDto> jpaResult = bookingRepository.findByBookerId(booker.getId(),
+                        Sort.by("start").descending()).stream()
+                .filter(booking -> matches(booking, state))
+                .map(BookingResponseDto::from)
+                .toList();
+
+        List<BookingResponseDto> result = bookingJdbcReadRepository.findByBookerId(booker.getId(), state, now);
+
+        assertThat(result).isNotEmpty();
+        assertThat(result)
+                .usingRecursiveFieldByFieldElementComparator()
+                .usingComparatorForType(Comparator.comparing(OffsetDateTime::toInstant), OffsetDateTime.class)
+                .containsExactlyElementsOf(jpaResult);
+    }
+
+    @ParameterizedTest
+    @EnumSource(BookingApiState.class)
+    void findByItemOwnerIdMatchesBooker(BookingApiState state) {
+        List<BookingResponseDto> byBooker = bookingJdbcReadRepository.findByBookerId(booker.getId(), state, now);
+        List<BookingResponseDto> byOwner = bookingJdbcReadRepository.findByItemOwnerId(owner.getId(), state, now);
+
+        assertThat(byOwner).extracting(BookingResponseDto::getId)
+                .containsExactlyElementsOf(byBooker.stream().map(BookingResponseDto::getId).toList());
+        assertThat(bookingJdbcReadRepository.findByItemOwnerId(booker.getId(), state, now)).isEmpty();
+    }
+
+    private boolean matches(Booking booking, BookingApiState state) {
+        boolean approved = booking.getStatus() == BookingStatus.APPROVED;
+        return switch (state) {
+            case CURRENT -> approved && booking.getStart().isBefore(now) && booking.getEnd().isAfter(now);
+            case PAST -> approved && booking.getEnd().isBefore(now);
+            case FUTURE -> approved && booking.getStart().isAfter(now);
+            case WAITING -> booking.getStatus() == BookingStatus.WAITING;
+            case REJECTED -> booking.getStatus() == BookingStatus.REJECTED;
+            case ALL -> true;
+        };
+    }
+
+    private void saveBooking(Item item, OffsetDateTime start, OffsetDateTime end, BookingStatus status) {
+        Booking booking = new Booking();
+        booking.setItem(item);
+        booking.setBooker(booker);
+        booking.setStart(start);
+        booking.setEnd(end);
+        booking.setStatus(status);
+        bookingRepository.save(booking);
+    }
+
+}
@@ -0,0 +1,127 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserRepository;
+
+import java.time.OffsetDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "shareit.booking.notifications.heartbeat-interval-millis=3600000")
+@AutoConfigureMockMvc
+@Transactional
+@AutoConfigureTestDatabase
+class BookingNotificationHubTest {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private BookingNotificationHub bookingNotificationHub;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Value("${shareit.api.auth.userheader}")
+    private String userIdHeader;
+
+    private User owner;
+    private User booker;
+    private User stranger;
+
+    @BeforeEach
+    void setUp() {
+        owner = userRepository.save(user("owner"));
+        booker = userRepository.save(user("booker"));
+        stranger = userRepository.save(user("stranger"));
+    }
+
+    @Test
+    void pushesToOwnerAndBooker() throws Exception {
+        MvcResult ownerStream = subscribe(owner);
+        MvcResult bookerStream = subscribe(booker);
+        MvcResult strangerStream = subscribe(stranger);
+
+        OffsetDateTime start = OffsetDateTime.now().plusDays(1);
+        OffsetDateTime end = start.plusDays(1);
+        bookingNotificationHub.onBookingEvent(new BookingEvent(7L, 3L, owner.getId(), booker.getId(),
+                start, end, null, BookingStatus.WAITING));
+        bookingNotificationHub.onBookingEvent(new BookingEvent(7L, 3L, owner.getId(), booker.getId(),
+                start, end, BookingStatus.WAITING, BookingStatus.APPROVED));
+
+        for (MvcResult stream : new MvcResult[]{ownerStream, bookerStream}) {
+            String content = awaitContent(stream, "event:approved");
+            assertThat(content).contains("event:created");
+            assertThat(content.indexOf("event:created")).isLessThan(content.indexOf("event:approved"));
+            assertThat(content).contains("\"bookingId\":7", "\"status\":\"APPROVED\"");
+        }
+        assertThat(strangerStream.getResponse().getContentAsString()).doesNotContain("event:");
+    }
+
+    @Test
+    void pushesTransitionsFromOtherInstances() throws Exception {
+        MvcResult ownerStream = subscribe(owner);
+        MvcResult bookerStream = subscribe(booker);
+
+        OffsetDateTime start = OffsetDateTime.now().plusDays(1);
+        bookingNotificationHub.onRemoteBookingEvent(new RemoteBookingEvent(new BookingEvent(7L, 3L, owner.getId(),
+                booker.getId(), start, start.plusDays(1), BookingStatus.WAITING, BookingStatus.REJECTED)));
+
+        assertThat(awaitContent(ownerStream, "event:rejected")).contains("\"status\":\"REJECTED\"");
+        assertThat(awaitContent(bookerStream, "event:rejected")).contains("\"status\":\"REJECTED\"");
+    }
+
+    @Test
+    void heartbeat() throws Exception {
+        MvcResult ownerStream = subscribe(owner);
+
+        bookingNotificationHub.heartbeat();
+
+        assertThat(awaitContent(ownerStream, ":heartbeat")).doesNotContain("event:");
+    }
+
+    @Test
+    void unknownUser() throws Exception {
+        mvc.perform(get("/bookings/notifications").header(userIdHeader, 999L))
+                .andExpect(status().isNotFound());
+    }
+
+    private MvcResult subscribe(User user) throws Exception {
+        return mvc.perform(get("/bookings/notifications").header(userIdHeader, user.getId()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+    }
+
+    // events are written from a dispatch thread in several pieces, so wait until the blank line that ends one
+    private static String awaitContent(MvcResult result, String expected) throws Exception {
+        long deadline = System.currentTimeMillis() + 5000;
+        String content = result.getResponse().getContentAsString();
+        while (!(content.contains(expected) && content.endsWith("\n\n")) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            content = result.getResponse().getContentAsString();
+        }
+        assertThat(content).contains(expected);
+        return content;
+    }
+
+    private static User user(String name) {
+        User user = new User();
+        user.setName(name);
+        user.setEmail(name + "@yandex.ru");
+        return user;
+    }
+
+}
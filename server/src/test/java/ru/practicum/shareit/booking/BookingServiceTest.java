@@ -1,5 +1,7 @@
 package ru.practicum.shareit.booking;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -7,13 +9,17 @@ import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabas
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.exception.BadRequestException;
+import ru.practicum.shareit.exception.ConflictException;
 import ru.practicum.shareit.exception.ForbiddenException;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.exception.PreconditionFailedException;
 import ru.practicum.shareit.item.Item;
 import ru.practicum.shareit.item.ItemRepository;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.UserRepository;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.OffsetDateTime;
 import java.util.Collection;
 import java.util.List;
@@ -38,6 +44,12 @@ class BookingServiceTest {
     @Autowired
     private BookingRepository bookingRepository;
 
+    @Autowired
+    private ObjectMapper mapper;
+
+    @Autowired
+    private EntityManager entityManager;
+
     private User owner;
     private User booker;
     private User anotherUser;
@@ -101,6 +113,7 @@ class BookingServiceTest {
         rejectedBooking.setItem(availableItem);
         rejectedBooking.setStatus(BookingStatus.REJECTED);
         bookingRepository.save(rejectedBooking);
+        bookingRepository.flush();
     }
 
     @Test
@@ -189,7 +202,7 @@ class BookingServiceTest {
         BookingResponseDto created = bookingService.create(booker.getId(), createDto);
         assertThat(created.getStatus()).isEqualTo(BookingStatus.WAITING);
 
-        BookingResponseDto approved = bookingService.approveReject(owner.getId(), created.getId(), true);
+        BookingResponseDto approved = bookingService.approveReject(owner.getId(), created.getId(), true, null);
         assertThat(approved.getStatus()).isEqualTo(BookingStatus.APPROVED);
         assertThat(approved.getId()).isEqualTo(created.getId());
     }
@@ -204,7 +217,7 @@ class BookingServiceTest {
         BookingResponseDto created = bookingService.create(booker.getId(), createDto);
         assertThat(created.getStatus()).isEqualTo(BookingStatus.WAITING);
 
-        BookingResponseDto rejected = bookingService.approveReject(owner.getId(), created.getId(), false);
+        BookingResponseDto rejected = bookingService.approveReject(owner.getId(), created.getId(), false, null);
         assertThat(rejected.getStatus()).isEqualTo(BookingStatus.REJECTED);
         assertThat(rejected.getId()).isEqualTo(created.getId());
     }
@@ -228,20 +241,109 @@ class BookingServiceTest {
 
         assertThat(booking2.getBooker().getId()).isEqualTo(anotherUser.getId());
         assertThat(booking2.getItem().getId()).isEqualTo(availableItem.getId());
+        bookingRepository.flush();
 
         Collection<BookingResponseDto> ownerBookings = bookingService.getOwnerBookings(owner.getId(), BookingApiState.ALL);
         assertThat(ownerBookings).hasSize(5);
     }
 
+    @Test
+    void createOverlappingApprovedBooking() {
+        BookingCreateDto createDto = new BookingCreateDto();
+        createDto.setItemId(availableItem.getId());
+        createDto.setStart(OffsetDateTime.now().plusDays(30));
+        createDto.setEnd(OffsetDateTime.now().plusDays(32));
+        BookingResponseDto created = bookingService.create(booker.getId(), createDto);
+        bookingService.approveReject(owner.getId(), created.getId(), true, null);
+
+        BookingCreateDto overlappingDto = new BookingCreateDto();
+        overlappingDto.setItemId(availableItem.getId());
+        overlappingDto.setStart(OffsetDateTime.now().plusDays(31));
+        overlappingDto.setEnd(OffsetDateTime.now().plusDays(33));
+
+        assertThrows(ConflictException.class, () -> bookingService.create(anotherUser.getId(), overlappingDto));
+    }
+
+    @Test
+    void approveOverlappingBooking() {
+        BookingCreateDto createDto1 = new BookingCreateDto();
+        createDto1.setItemId(availableItem.getId());
+        createDto1.setStart(OffsetDateTime.now().plusDays(40));
+        createDto1.setEnd(OffsetDateTime.now().plusDays(42));
+        BookingResponseDto booking1 = bookingService.create(booker.getId(), createDto1);
+
+        BookingCreateDto createDto2 = new BookingCreateDto();
+        createDto2.setItemId(availableItem.getId());
+        createDto2.setStart(OffsetDateTime.now().plusDays(41));
+        createDto2.setEnd(OffsetDateTime.now().plusDays(43));
+        BookingResponseDto booking2 = bookingService.create(anotherUser.getId(), createDto2);
+
+        bookingService.approveReject(owner.getId(), booking1.getId(), true, null);
+
+        assertThrows(ConflictException.class, () -> bookingService.approveReject(owner.getId(), booking2.getId(), true, null));
+
+        BookingResponseDto rejected = bookingService.approveReject(owner.getId(), booking2.getId(), false, null);
+        assertThat(rejected.getStatus()).isEqualTo(BookingStatus.REJECTED);
+    }
+
     @Test
     void approveRejectErrors() {
-        assertThrows(NotFoundException.class, () -> bookingService.approveReject(owner.getId(), 99999L, true));
+        assertThrows(NotFoundException.class, () -> bookingService.approveReject(owner.getId(), 99999L, true, null));
+
+        assertThrows(ForbiddenException.class, () -> bookingService.approveReject(99999L, waitingBooking.getId(), true, null));
 
-        assertThrows(ForbiddenException.class, () -> bookingService.approveReject(99999L, waitingBooking.getId(), true));
+        assertThrows(ForbiddenException.class, () -> bookingService.approveReject(booker.getId(), waitingBooking.getId(), true, null));
 
-        assertThrows(ForbiddenException.class, () -> bookingService.approveReject(booker.getId(), waitingBooking.getId(), true));
+        assertThrows(ConflictException.class, () -> bookingService.approveReject(owner.getId(), approvedBooking.getId(), true, null));
 
-        assertThrows(ForbiddenException.class, () -> bookingService.approveReject(owner.getId(), approvedBooking.getId(), true));
+        assertThrows(ConflictException.class, () -> bookingService.approveReject(owner.getId(), rejectedBooking.getId(), false, null));
+    }
+
+    @Test
+    void approveRejectWithExpectedVersion() {
+        long version = waitingBooking.getVersion();
+
+        assertThrows(PreconditionFailedException.class,
+                () -> bookingService.approveReject(owner.getId(), waitingBooking.getId(), true, version + 1));
+
+        BookingResponseDto approved = bookingService.approveReject(owner.getId(), waitingBooking.getId(), true, version);
+        assertThat(approved.getStatus()).isEqualTo(BookingStatus.APPROVED);
+        assertThat(approved.getVersion()).isEqualTo(version + 1);
+
+        assertThrows(PreconditionFailedException.class,
+                () -> bookingService.cancel(booker.getId(), waitingBooking.getId(), version));
+    }
+
+    @Test
+    void cancel() {
+        BookingResponseDto canceled = bookingService.cancel(booker.getId(), waitingBooking.getId(), null);
+        assertThat(canceled.getStatus()).isEqualTo(BookingStatus.CANCELED);
+        assertThat(bookingRepository.findById(waitingBooking.getId()).orElseThrow().getStatus())
+                .isEqualTo(BookingStatus.CANCELED);
+
+        Booking futureApproved = waitingBooking(availableItem, booker, 50, 52);
+        bookingService.approveReject(owner.getId(), futureApproved.getId(), true, null);
+        assertThat(bookingService.cancel(booker.getId(), futureApproved.getId(), null).getStatus())
+                .isEqualTo(BookingStatus.CANCELED);
+
+        // the canceled approval no longer blocks the interval
+        Booking sameInterval = waitingBooking(availableItem, anotherUser, 50, 52);
+        assertThat(bookingService.approveReject(owner.getId(), sameInterval.getId(), true, null).getStatus())
+                .isEqualTo(BookingStatus.APPROVED);
+    }
+
+    @Test
+    void cancelErrors() {
+        assertThrows(NotFoundException.class, () -> bookingService.cancel(booker.getId(), 99999L, null));
+
+        assertThrows(ForbiddenException.class, () -> bookingService.cancel(owner.getId(), waitingBooking.getId(), null));
+
+        assertThrows(ConflictException.class, () -> bookingService.cancel(booker.getId(), approvedBooking.getId(), null));
+
+        assertThrows(ConflictException.class, () -> bookingService.cancel(booker.getId(), rejectedBooking.getId(), null));
+
+        bookingService.cancel(booker.getId(), waitingBooking.getId(), null);
+        assertThrows(ConflictException.class, () -> bookingService.cancel(booker.getId(), waitingBooking.getId(), null));
     }
 
     @Test
@@ -270,7 +372,7 @@ class BookingServiceTest {
         futureBooking.setBooker(booker);
         futureBooking.setItem(availableItem);
         futureBooking.setStatus(BookingStatus.APPROVED);
-        bookingRepository.save(futureBooking);
+        bookingRepository.saveAndFlush(futureBooking);
 
         result = bookingService.getBookerBookings(booker.getId(), BookingApiState.FUTURE);
         assertThat(result).hasSize(1);
@@ -283,7 +385,7 @@ class BookingServiceTest {
         currentBooking.setBooker(booker);
         currentBooking.setItem(availableItem);
         currentBooking.setStatus(BookingStatus.APPROVED);
-        bookingRepository.save(currentBooking);
+        bookingRepository.saveAndFlush(currentBooking);
 
         result = bookingService.getBookerBookings(booker.getId(), BookingApiState.CURRENT);
         assertThat(result).hasSize(1);
@@ -324,7 +426,7 @@ class BookingServiceTest {
         futureBooking.setBooker(booker);
         futureBooking.setItem(availableItem);
         futureBooking.setStatus(BookingStatus.APPROVED);
-        bookingRepository.save(futureBooking);
+        bookingRepository.saveAndFlush(futureBooking);
 
         result = bookingService.getOwnerBookings(owner.getId(), BookingApiState.FUTURE);
         assertThat(result).hasSize(1);
@@ -337,7 +439,7 @@ class BookingServiceTest {
         currentBooking.setBooker(booker);
         currentBooking.setItem(availableItem);
         currentBooking.setStatus(BookingStatus.APPROVED);
-        bookingRepository.save(currentBooking);
+        bookingRepository.saveAndFlush(currentBooking);
 
         result = bookingService.getOwnerBookings(owner.getId(), BookingApiState.CURRENT);
         assertThat(result).hasSize(1);
@@ -378,4 +480,107 @@ class BookingServiceTest {
             assertThat(bookingsList.get(i).getStart()).isAfterOrEqualTo(bookingsList.get(i + 1).getStart());
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    void exportOwnerBookings() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        bookingService.exportOwnerBookings(owner.getId(), out);
+
+        List<BookingResponseDto> exported = out.toString(StandardCharsets.UTF_8).lines()
+                .map(line -> {
+                    try {
+                        return mapper.readValue(line, BookingResponseDto.class);
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                })
+                .toList();
+        assertThat(exported).extracting(BookingResponseDto::getId)
+                .containsExactly(waitingBooking.getId(), approvedBooking.getId(), rejectedBooking.getId());
+        assertThat(exported.getFirst().getItem().getName()).isEqualTo("saw");
+        assertThat(exported.getFirst().getBooker().getName()).isEqualTo("booker");
+
+        out.reset();
+        bookingService.exportOwnerBookings(booker.getId(), out);
+        assertThat(out.size()).isZero();
+
+        assertThrows(NotFoundException.class, () -> bookingService.exportOwnerBookings(99999L, out));
+    }
+
+    private Booking waitingBooking(Item item, User user, int startDays, int endDays) {
+        Booking booking = new Booking();
+        booking.setStart(OffsetDateTime.now().plusDays(startDays));
+        booking.setEnd(OffsetDateTime.now().plusDays(endDays));
+        booking.setBooker(user);
+        booking.setItem(item);
+        booking.setStatus(BookingStatus.WAITING);
+        return bookingRepository.save(booking);
+    }
+
+    @Test
+    void approveRejectBatch() {
+        Item anotherOwnersItem = new Item();
+        anotherOwnersItem.setName("drill");
+        anotherOwnersItem.setDescription("another drill");
+        anotherOwnersItem.setAvailable(true);
+        anotherOwnersItem.setOwner(anotherUser);
+        itemRepository.save(anotherOwnersItem);
+
+        Booking approvedFuture = waitingBooking(availableItem, anotherUser, 30, 32);
+        approvedFuture.setStatus(BookingStatus.APPROVED);
+        Booking overlapsApproved = waitingBooking(availableItem, booker, 31, 33);
+        Booking first = waitingBooking(availableItem, booker, 40, 42);
+        Booking overlapsFirst = waitingBooking(availableItem, anotherUser, 41, 43);
+        Booking toReject = waitingBooking(availableItem, anotherUser, 50, 52);
+        Booking foreign = waitingBooking(anotherOwnersItem, booker, 40, 42);
+        bookingRepository.flush();
+
+        List<BookingDecisionResultDto> results = bookingService.approveRejectBatch(owner.getId(),
+                BookingBatchDecisionDto.of(List.of(
+                        BookingDecisionDto.of(first.getId(), true),
+                        BookingDecisionDto.of(overlapsFirst.getId(), true),
+                        BookingDecisionDto.of(overlapsApproved.getId(), true),
+                        BookingDecisionDto.of(toReject.getId(), false),
+                        BookingDecisionDto.of(foreign.getId(), true),
+                        BookingDecisionDto.of(approvedBooking.getId(), false),
+                        BookingDecisionDto.of(99999L, true)
+                )));
+
+        assertThat(results).extracting(BookingDecisionResultDto::getBookingId).containsExactly(first.getId(),
+                overlapsFirst.getId(), overlapsApproved.getId(), toReject.getId(), foreign.getId(),
+                approvedBooking.getId(), 99999L);
+        assertThat(results).extracting(BookingDecisionResultDto::getOutcome).containsExactly(
+                BookingDecisionOutcome.APPROVED,
+                BookingDecisionOutcome.OVERLAPS_APPROVED,
+                BookingDecisionOutcome.OVERLAPS_APPROVED,
+                BookingDecisionOutcome.REJECTED,
+                BookingDecisionOutcome.FORBIDDEN,
+                BookingDecisionOutcome.NOT_WAITING,
+                BookingDecisionOutcome.NOT_FOUND);
+
+        entityManager.clear();
+        assertThat(bookingRepository.findById(first.getId()).orElseThrow().getStatus())
+                .isEqualTo(BookingStatus.APPROVED);
+        assertThat(bookingRepository.findById(overlapsFirst.getId()).orElseThrow().getStatus())
+                .isEqualTo(BookingStatus.WAITING);
+        assertThat(bookingRepository.findById(overlapsApproved.getId()).orElseThrow().getStatus())
+                .isEqualTo(BookingStatus.WAITING);
+        assertThat(bookingRepository.findById(toReject.getId()).orElseThrow().getStatus())
+                .isEqualTo(BookingStatus.REJECTED);
+        assertThat(bookingRepository.findById(foreign.getId()).orElseThrow().getStatus())
+                .isEqualTo(BookingStatus.WAITING);
+    }
+
+    @Test
+    void approveRejectBatchErrors() {
+        BookingBatchDecisionDto duplicates = BookingBatchDecisionDto.of(List.of(
+                BookingDecisionDto.of(waitingBooking.getId(), true),
+                BookingDecisionDto.of(waitingBooking.getId(), false)));
+        assertThrows(BadRequestException.class, () -> bookingService.approveRejectBatch(owner.getId(), duplicates));
+
+        BookingBatchDecisionDto single = BookingBatchDecisionDto.of(List.of(
+                BookingDecisionDto.of(waitingBooking.getId(), true)));
+        assertThrows(NotFoundException.class, () -> bookingService.approveRejectBatch(99999L, single));
+    }
+
+}
@@ -0,0 +1,112 @@
+package ru.practicum.shareit.booking;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.item.ItemCreateDto;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.item.TimeIntervalDto;
+import ru.practicum.shareit.user.UserCreateDto;
+import ru.practicum.shareit.user.UserService;
+
+import java.time.OffsetDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// not transactional: the index follows committed bookings only, so every service call here commits on its own
+@SpringBootTest
+@AutoConfigureTestDatabase
+class ItemAvailabilityIndexTest {
+
+    @Autowired
+    private ItemAvailabilityIndex itemAvailabilityIndex;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Long ownerId;
+    private Long bookerId;
+    private Long itemId;
+    private OffsetDateTime from;
+    private OffsetDateTime to;
+
+    @BeforeEach
+    void setUp() {
+        ownerId = createUser("index-owner");
+        bookerId = createUser("index-booker");
+
+        ItemCreateDto itemDto = new ItemCreateDto();
+        itemDto.setName("saw");
+        itemDto.setDescription("real saw");
+        itemDto.setAvailable(true);
+        itemId = itemService.create(ownerId, itemDto).getId();
+
+        from = OffsetDateTime.now().plusDays(1).truncatedTo(ChronoUnit.SECONDS);
+        to = from.plusDays(10);
+    }
+
+    @AfterEach
+    void tearDown() {
+        userService.deleteById(bookerId);
+        userService.deleteById(ownerId);
+    }
+
+    @Test
+    void followsCommittedApproveAndCancel() {
+        Long bookingId = book(from.plusDays(2), from.plusDays(4));
+        assertThat(itemAvailabilityIndex.getBusyIntervals(itemId, from, to)).isEmpty();
+
+        bookingService.approveReject(ownerId, bookingId, true, null);
+
+        List<TimeIntervalDto> busy = busyWithoutQueries();
+        assertThat(busy).hasSize(1);
+        assertThat(busy.getFirst().getStart()).isEqualTo(from.plusDays(2));
+        assertThat(busy.getFirst().getEnd()).isEqualTo(from.plusDays(4));
+
+        bookingService.cancel(bookerId, bookingId, null);
+
+        assertThat(busyWithoutQueries()).isEmpty();
+    }
+
+    // the answer must come from the loaded timeline, updated in place by the committed event
+    private List<TimeIntervalDto> busyWithoutQueries() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        long queries = statistics.getQueryExecutionCount();
+        List<TimeIntervalDto> busy = itemAvailabilityIndex.getBusyIntervals(itemId, from, to);
+        assertThat(statistics.getQueryExecutionCount()).isEqualTo(queries);
+        return busy;
+    }
+
+    private Long book(OffsetDateTime start, OffsetDateTime end) {
+        BookingCreateDto dto = new BookingCreateDto();
+        dto.setItemId(itemId);
+        dto.setStart(start);
+        dto.setEnd(end);
+        return bookingService.create(bookerId, dto).getId();
+    }
+
+    private Long createUser(String name) {
+        UserCreateDto dto = new UserCreateDto();
+        dto.setName(name);
+        dto.setEmail(name + "@yandex.ru");
+        return userService.create(dto).getId();
+    }
+
+}
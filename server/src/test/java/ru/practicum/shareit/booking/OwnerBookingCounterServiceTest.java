@@ -0,0 +1,156 @@
+package ru.practicum.shareit.booking;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.ItemCreateDto;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.user.UserCreateDto;
+import ru.practicum.shareit.user.UserService;
+
+import java.time.OffsetDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+@Transactional
+@AutoConfigureTestDatabase
+class OwnerBookingCounterServiceTest {
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private OwnerBookingCounterRepository ownerBookingCounterRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Long ownerId;
+    private Long bookerId;
+    private Long itemId;
+
+    @BeforeEach
+    void setUp() {
+        ownerId = createUser("owner");
+        bookerId = createUser("booker");
+        itemId = createItem(ownerId);
+    }
+
+    @Test
+    void countFollowsTransitions() {
+        assertThat(waiting(ownerId)).isZero();
+
+        Long first = book(itemId, 1);
+        Long second = book(itemId, 3);
+        Long third = book(itemId, 5);
+        assertThat(waiting(ownerId)).isEqualTo(3);
+        assertThat(waiting(bookerId)).isZero();
+
+        bookingService.approveReject(ownerId, first, true, null);
+        bookingService.approveReject(ownerId, second, false, null);
+        assertThat(waiting(ownerId)).isEqualTo(1);
+
+        bookingService.cancel(bookerId, third, null);
+        assertThat(waiting(ownerId)).isZero();
+
+        bookingService.cancel(bookerId, first, null);
+        assertThat(waiting(ownerId)).isZero();
+    }
+
+    @Test
+    void countFollowsDeletes() {
+        Long otherItemId = createItem(ownerId);
+        book(itemId, 1);
+        book(itemId, 3);
+        book(otherItemId, 1);
+        Long otherBookerId = createUser("other");
+        book(otherBookerId, otherItemId, 5);
+        Long otherOwnerId = createUser("other-owner");
+        book(createItem(otherOwnerId), 1);
+        assertThat(waiting(ownerId)).isEqualTo(4);
+        assertThat(waiting(otherOwnerId)).isEqualTo(1);
+
+        detachAll();
+        itemService.deleteById(ownerId, itemId);
+        assertThat(waiting(ownerId)).isEqualTo(2);
+
+        detachAll();
+        userService.deleteById(bookerId);
+        assertThat(waiting(ownerId)).isEqualTo(1);
+        assertThat(waiting(otherOwnerId)).isZero();
+    }
+
+    @Test
+    void countSumsAllStripes() {
+        book(itemId, 1);
+        book(itemId, 3);
+        detachAll();
+        assertThat(ownerBookingCounterRepository.findAll()).filteredOn(c -> c.getOwnerId().equals(ownerId))
+                .hasSize(OwnerBookingCounterService.STRIPES)
+                .filteredOn(c -> c.getWaitingCount() != 0)
+                .singleElement()
+                .satisfies(c -> assertThat(c.getWaitingCount()).isEqualTo(2));
+
+        // other transactions land on other stripes, and may drive a single stripe below zero
+        ownerBookingCounterRepository.addToWaitingCount(ownerId, 0, -1);
+        ownerBookingCounterRepository.addToWaitingCount(ownerId, OwnerBookingCounterService.STRIPES - 1, 3);
+
+        assertThat(waiting(ownerId)).isEqualTo(4);
+    }
+
+    @Test
+    void userNotFound() {
+        assertThrows(NotFoundException.class, () -> bookingService.getOwnerBookingCount(999L));
+    }
+
+    // managed bookings would keep the deleted rows alive; in production every delete runs in a fresh context
+    private void detachAll() {
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private long waiting(Long userId) {
+        return bookingService.getOwnerBookingCount(userId).getWaiting();
+    }
+
+    private Long book(Long itemId, int daysFromNow) {
+        return book(bookerId, itemId, daysFromNow);
+    }
+
+    private Long book(Long userId, Long itemId, int daysFromNow) {
+        BookingCreateDto dto = new BookingCreateDto();
+        dto.setItemId(itemId);
+        dto.setStart(OffsetDateTime.now().plusDays(daysFromNow));
+        dto.setEnd(OffsetDateTime.now().plusDays(daysFromNow + 1));
+        return bookingService.create(userId, dto).getId();
+    }
+
+    private Long createUser(String name) {
+        UserCreateDto dto = new UserCreateDto();
+        dto.setName(name);
+        dto.setEmail(name + "@yandex.ru");
+        return userService.create(dto).getId();
+    }
+
+    private Long createItem(Long ownerId) {
+        ItemCreateDto dto = new ItemCreateDto();
+        dto.setName("saw");
+        dto.setDescription("real saw");
+        dto.setAvailable(true);
+        return itemService.create(ownerId, dto).getId();
+    }
+
+}
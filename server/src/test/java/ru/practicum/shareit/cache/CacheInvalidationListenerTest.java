@@ -0,0 +1,159 @@
+package ru.practicum.shareit.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.ApplicationEventPublisher;
+import ru.practicum.shareit.booking.BookingEvent;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.RemoteBookingEvent;
+import ru.practicum.shareit.request.ItemRequestNotificationDto;
+import ru.practicum.shareit.request.ItemRequestNotificationEvent;
+import ru.practicum.shareit.request.RemoteItemRequestNotificationEvent;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.OffsetDateTime;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CacheInvalidationListenerTest {
+
+    @Mock
+    private CacheInvalidationNotifier cacheInvalidationNotifier;
+
+    @Mock
+    private LocalCacheEvictor localCacheEvictor;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private final ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+
+    private CacheInvalidationListener listener;
+
+    @BeforeEach
+    void setUp() {
+        listener = new CacheInvalidationListener(new DataSourceProperties(), cacheInvalidationNotifier,
+                localCacheEvictor, eventPublisher, objectMapper, "shareit_cache", 1000, 1000);
+    }
+
+    @Test
+    void evictsInvalidationsFromOtherNodes() {
+        when(cacheInvalidationNotifier.getNodeId()).thenReturn("this-node");
+
+        listener.handle("other-node|ITEM|42");
+
+        verify(localCacheEvictor).evict(CacheRegion.ITEM, 42L);
+    }
+
+    @Test
+    void ignoresOwnInvalidations() {
+        when(cacheInvalidationNotifier.getNodeId()).thenReturn("this-node");
+
+        listener.handle("this-node|USER|7");
+
+        verify(localCacheEvictor, never()).evict(any(), any());
+    }
+
+    @Test
+    void relaysBookingEventsFromOtherNodes() throws Exception {
+        when(cacheInvalidationNotifier.getNodeId()).thenReturn("this-node");
+        OffsetDateTime start = OffsetDateTime.parse("2030-01-01T10:00:00Z");
+        BookingEvent event = new BookingEvent(7L, 3L, 1L, 2L, start, start.plusDays(1), BookingStatus.WAITING,
+                BookingStatus.APPROVED);
+
+        listener.handle("other-node|BOOKING|" + objectMapper.writeValueAsString(event));
+        listener.handle("this-node|BOOKING|" + objectMapper.writeValueAsString(event));
+        listener.handle("other-node|BOOKING|{broken");
+
+        verify(eventPublisher).publishEvent(new RemoteBookingEvent(event));
+        verifyNoMoreInteractions(eventPublisher);
+        verify(localCacheEvictor, never()).evict(any(), any());
+    }
+
+    @Test
+    void relaysItemRequestNotificationsFromOtherNodes() throws Exception {
+        when(cacheInvalidationNotifier.getNodeId()).thenReturn("this-node");
+        ItemRequestNotificationEvent event = new ItemRequestNotificationEvent(2L, 5,
+                ItemRequestNotificationDto.of(10L, 3L, "saw | axe", 1L));
+
+        listener.handle("other-node|ITEM_REQUEST_NOTIFICATION|" + objectMapper.writeValueAsString(event));
+
+        verify(eventPublisher).publishEvent(new RemoteItemRequestNotificationEvent(event));
+    }
+
+    @Test
+    void ignoresMalformedInvalidations() {
+        when(cacheInvalidationNotifier.getNodeId()).thenReturn("this-node");
+
+        listener.handle("garbage");
+        listener.handle("other-node|UNKNOWN|7");
+        listener.handle("other-node|USER|seven");
+
+        verify(localCacheEvictor, never()).evict(any(), any());
+    }
+
+    @Test
+    void flushesLocalCachesAfterReconnect() throws Exception {
+        when(cacheInvalidationNotifier.getNodeId()).thenReturn("this-node");
+        PGNotification notification = mock(PGNotification.class);
+        when(notification.getParameter()).thenReturn("other-node|ITEM|42");
+
+        Connection dropped = connection();
+        when(dropped.unwrap(PGConnection.class).getNotifications(anyInt()))
+                .thenReturn(new PGNotification[]{notification})
+                .thenThrow(new SQLException("connection reset"));
+        Connection reconnected = connection();
+        Deque<Connection> connections = new ArrayDeque<>(List.of(dropped, reconnected));
+
+        CacheInvalidationListener reconnecting = new CacheInvalidationListener(new DataSourceProperties(),
+                cacheInvalidationNotifier, localCacheEvictor, eventPublisher, objectMapper, "shareit_cache", 10, 10) {
+            @Override
+            Connection connect() throws SQLException {
+                Connection next = connections.poll();
+                if (next == null) throw new SQLException("no more connections");
+                return next;
+            }
+        };
+        reconnecting.start();
+        try {
+            verify(reconnected.unwrap(PGConnection.class), timeout(5000).atLeastOnce()).getNotifications(anyInt());
+            verify(localCacheEvictor).evict(CacheRegion.ITEM, 42L);
+            // invalidations sent while the connection was down are lost, so the first connect flushes nothing
+            // and the reconnect flushes everything exactly once
+            verify(localCacheEvictor, after(100).times(1)).evictAll();
+            verify(dropped).close();
+        } finally {
+            reconnecting.stop();
+        }
+    }
+
+    private static Connection connection() throws SQLException {
+        Connection connection = mock(Connection.class);
+        when(connection.createStatement()).thenReturn(mock(Statement.class));
+        when(connection.unwrap(PGConnection.class)).thenReturn(mock(PGConnection.class));
+        return connection;
+    }
+
+}
@@ -0,0 +1,96 @@
+package ru.practicum.shareit.cache;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserLookupCache;
+import ru.practicum.shareit.user.UserRepository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// not transactional: eviction waits for the commit, so every step here commits on its own
+@SpringBootTest
+@AutoConfigureTestDatabase
+class LocalCacheEvictorTest {
+
+    @Autowired
+    private LocalCacheEvictor localCacheEvictor;
+
+    @Autowired
+    private UserLookupCache userLookupCache;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = new User();
+        user.setName("cached");
+        user.setEmail("evictor@yandex.ru");
+        userRepository.save(user);
+    }
+
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteById(user.getId());
+    }
+
+    @Test
+    void evictAllFlushesLocalCaches() {
+        cacheUser();
+        // a write that bypasses Hibernate, like one committed by another instance
+        jdbcTemplate.update("UPDATE users SET name = 'renamed' WHERE id = ?", user.getId());
+        assertThat(userLookupCache.find(user.getId()).orElseThrow().getName()).isEqualTo("cached");
+
+        localCacheEvictor.evictAll();
+
+        assertThat(entityManagerFactory.getCache().contains(User.class, user.getId())).isFalse();
+        assertThat(userLookupCache.find(user.getId()).orElseThrow().getName()).isEqualTo("renamed");
+    }
+
+    @Test
+    void evictsAfterCommitOnly() {
+        cacheUser();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            eventPublisher.publishEvent(new CacheInvalidationEvent(CacheRegion.USER, user.getId()));
+            status.setRollbackOnly();
+        });
+        assertThat(entityManagerFactory.getCache().contains(User.class, user.getId())).isTrue();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            eventPublisher.publishEvent(new CacheInvalidationEvent(CacheRegion.USER, user.getId()));
+            assertThat(entityManagerFactory.getCache().contains(User.class, user.getId())).isTrue();
+        });
+        assertThat(entityManagerFactory.getCache().contains(User.class, user.getId())).isFalse();
+    }
+
+    private void cacheUser() {
+        transactionTemplate.executeWithoutResult(status -> userRepository.findById(user.getId()));
+        userLookupCache.find(user.getId());
+        assertThat(entityManagerFactory.getCache().contains(User.class, user.getId())).isTrue();
+    }
+
+}
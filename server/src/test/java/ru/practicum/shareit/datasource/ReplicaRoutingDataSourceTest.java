@@ -0,0 +1,271 @@
+package ru.practicum.shareit.datasource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReplicaRoutingDataSourceTest {
+
+    private final H2ReplicationProbe replicationProbe = new H2ReplicationProbe();
+
+    private DriverManagerDataSource primary;
+    private DriverManagerDataSource primaryRead;
+    private DriverManagerDataSource replica;
+    private ReplicaRoutingDataSource routingDataSource;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readTransaction;
+    private TransactionTemplate writeTransaction;
+
+    @BeforeEach
+    void setUp() {
+        primary = database("primary");
+        // the primary's read pool reaches the same database as its write pool, but names itself on every connection
+        primaryRead = new DriverManagerDataSource(primary.getUrl() + ";INIT=SET @NODE = 'primary_read'");
+        replica = database("replica");
+
+        routingDataSource = new ReplicaRoutingDataSource(primary, primaryRead, Map.of("replica-0", replica),
+                replicationProbe, Duration.ofSeconds(2), new ReplicaDataSourceProperties.WriteMarks());
+        routingDataSource.checkReplicaHealth(1);
+        use(routingDataSource);
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestUserContext.clear();
+        new JdbcTemplate(primary).execute("DROP ALL OBJECTS");
+        new JdbcTemplate(replica).execute("DROP ALL OBJECTS");
+    }
+
+    @Test
+    void readOnlyTransactionsGoToReplica() {
+        assertThat(readNode()).isEqualTo("replica");
+        assertThat(writeNode()).isEqualTo("primary");
+    }
+
+    @Test
+    void readsWithoutReplicasUsePrimaryReadPool() {
+        use(new ReplicaRoutingDataSource(primary, primaryRead, Map.of(), replicationProbe, Duration.ofSeconds(2),
+                new ReplicaDataSourceProperties.WriteMarks()));
+
+        assertThat(readNode()).isEqualTo("primary_read");
+        assertThat(writeNode()).isEqualTo("primary");
+    }
+
+    @Test
+    void replicaTakesNoReadsBeforeFirstHealthCheck() {
+        use(new ReplicaRoutingDataSource(primary, primaryRead, Map.of("replica-0", replica), replicationProbe,
+                Duration.ofSeconds(2), new ReplicaDataSourceProperties.WriteMarks()));
+
+        assertThat(readNode()).isEqualTo("primary_read");
+    }
+
+    @Test
+    void readsAfterOwnWriteWaitForReplicaToReplayIt() {
+        RequestUserContext.setUserId(1L);
+        writeTransaction.executeWithoutResult(status -> jdbcTemplate.update("UPDATE node SET name = name"));
+
+        assertThat(readNode()).isEqualTo("primary_read");
+
+        // the write mark is shared through the primary, so another instance keeps the user off the replica too
+        ReplicaRoutingDataSource otherInstance = new ReplicaRoutingDataSource(primary, primaryRead,
+                Map.of("replica-0", replica), replicationProbe, Duration.ofSeconds(2),
+                new ReplicaDataSourceProperties.WriteMarks());
+        otherInstance.checkReplicaHealth(1);
+        use(otherInstance);
+        assertThat(readNode()).isEqualTo("primary_read");
+
+        RequestUserContext.setUserId(2L);
+        assertThat(readNode()).isEqualTo("replica");
+
+        replayWriteMarks();
+        RequestUserContext.setUserId(1L);
+        assertThat(readNode()).isEqualTo("replica");
+    }
+
+    @Test
+    void userWriteMarksAreLookedUpOnPrimaryOnlyWhenNotKnownLocally() {
+        RequestUserContext.setUserId(1L);
+        writeTransaction.executeWithoutResult(status -> jdbcTemplate.update("UPDATE node SET name = name"));
+        assertThat(readNode()).isEqualTo("primary_read");
+        assertThat(readNode()).isEqualTo("primary_read");
+        assertThat(replicationProbe.primaryMarkReads).hasValue(0);
+
+        RequestUserContext.setUserId(2L);
+        assertThat(readNode()).isEqualTo("replica");
+        assertThat(readNode()).isEqualTo("replica");
+        assertThat(replicationProbe.primaryMarkReads).hasValue(1);
+    }
+
+    @Test
+    void rolledBackWriteDoesNotPinUserToPrimary() {
+        RequestUserContext.setUserId(1L);
+        writeTransaction.executeWithoutResult(status -> {
+            jdbcTemplate.update("UPDATE node SET name = name");
+            status.setRollbackOnly();
+        });
+
+        assertThat(readNode()).isEqualTo("replica");
+    }
+
+    @Test
+    void readsWaitForReplicaToPassRequiredPosition() {
+        replicationProbe.replayedPosition.set(10);
+        routingDataSource.checkReplicaHealth(1);
+        routingDataSource.advanceRequiredPosition(20);
+
+        assertThat(readNode()).isEqualTo("primary_read");
+
+        // the position is checked on the connection itself, without waiting for the next health check
+        replicationProbe.replayedPosition.set(20);
+        assertThat(readNode()).isEqualTo("replica");
+    }
+
+    @Test
+    void requiresCurrentPrimaryPosition() {
+        replicationProbe.primaryPosition.set(30);
+        routingDataSource.requireCurrentPrimaryPosition();
+
+        assertThat(readNode()).isEqualTo("primary_read");
+
+        replicationProbe.replayedPosition.set(30);
+        assertThat(readNode()).isEqualTo("replica");
+    }
+
+    @Test
+    void unhealthyReplicaIsSkipped() {
+        replica.setUrl("jdbc:h2:tcp://localhost:1/unreachable");
+        routingDataSource.checkReplicaHealth(1);
+
+        assertThat(readNode()).isEqualTo("primary_read");
+
+        replica.setUrl("jdbc:h2:mem:replica;DB_CLOSE_DELAY=-1");
+        routingDataSource.checkReplicaHealth(1);
+
+        assertThat(readNode()).isEqualTo("replica");
+    }
+
+    @Test
+    void laggingReplicaIsSkipped() {
+        replicationProbe.lagMillis.set(5000);
+        routingDataSource.checkReplicaHealth(1);
+
+        assertThat(readNode()).isEqualTo("primary_read");
+
+        replicationProbe.lagMillis.set(0);
+        routingDataSource.checkReplicaHealth(1);
+
+        assertThat(readNode()).isEqualTo("replica");
+    }
+
+    private void use(ReplicaRoutingDataSource routing) {
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routing);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        readTransaction = new TransactionTemplate(transactionManager);
+        readTransaction.setReadOnly(true);
+        writeTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    private void replayWriteMarks() {
+        JdbcTemplate replicaTemplate = new JdbcTemplate(replica);
+        replicaTemplate.update("DELETE FROM user_write_marks");
+        new JdbcTemplate(primary).queryForList("SELECT user_id, write_seq FROM user_write_marks").forEach(row ->
+                replicaTemplate.update("INSERT INTO user_write_marks VALUES (?, ?)", row.get("USER_ID"),
+                        row.get("WRITE_SEQ")));
+    }
+
+    private String readNode() {
+        return readTransaction.execute(status -> currentNode());
+    }
+
+    private String writeNode() {
+        return writeTransaction.execute(status -> currentNode());
+    }
+
+    private String currentNode() {
+        return jdbcTemplate.queryForObject("SELECT COALESCE(@NODE, name) FROM node", String.class);
+    }
+
+    private static DriverManagerDataSource database(String name) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE node (name VARCHAR(16))");
+        jdbcTemplate.execute("CREATE TABLE user_write_marks (user_id BIGINT PRIMARY KEY, write_seq BIGINT NOT NULL)");
+        jdbcTemplate.update("INSERT INTO node VALUES (?)", name);
+        return dataSource;
+    }
+
+    // H2 has no WAL, so positions and lag are whatever the test sets; write marks are real rows
+    private static class H2ReplicationProbe implements ReplicationProbe {
+
+        private final AtomicLong primaryPosition = new AtomicLong();
+        private final AtomicLong replayedPosition = new AtomicLong();
+        private final AtomicLong lagMillis = new AtomicLong();
+        private final AtomicInteger primaryMarkReads = new AtomicInteger();
+
+        @Override
+        public long primaryPosition(Connection primary) {
+            return primaryPosition.get();
+        }
+
+        @Override
+        public ReplicaState replicaState(Connection replica) {
+            return new ReplicaState(replayedPosition.get(), lagMillis.get());
+        }
+
+        @Override
+        public long markWrite(Connection primary, Long userId) throws SQLException {
+            try (PreparedStatement statement = primary.prepareStatement("""
+                    MERGE INTO user_write_marks AS m
+                    USING (VALUES (CAST(? AS BIGINT))) AS w (user_id)
+                    ON m.user_id = w.user_id
+                    WHEN MATCHED THEN UPDATE SET write_seq = m.write_seq + 1
+                    WHEN NOT MATCHED THEN INSERT (user_id, write_seq) VALUES (w.user_id, 1)
+                    """)) {
+                statement.setLong(1, userId);
+                statement.executeUpdate();
+            }
+            return readMark(primary, userId);
+        }
+
+        @Override
+        public long writeMark(Connection connection, Long userId) throws SQLException {
+            try (Statement statement = connection.createStatement();
+                 ResultSet resultSet = statement.executeQuery("SELECT @NODE")) {
+                resultSet.next();
+                if ("primary_read".equals(resultSet.getString(1))) primaryMarkReads.incrementAndGet();
+            }
+            return readMark(connection, userId);
+        }
+
+        private static long readMark(Connection connection, Long userId) throws SQLException {
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "SELECT write_seq FROM user_write_marks WHERE user_id = ?")) {
+                statement.setLong(1, userId);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    return resultSet.next() ? resultSet.getLong(1) : 0;
+                }
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,147 @@
+package ru.practicum.shareit.item;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingCreateDto;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.BookingResponseDto;
+import ru.practicum.shareit.booking.BookingService;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserRepository;
+
+import java.time.OffsetDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+@AutoConfigureTestDatabase
+class ItemBookingSummaryServiceTest {
+
+    @Autowired
+    private ItemBookingSummaryService itemBookingSummaryService;
+
+    @Autowired
+    private ItemBookingSummaryRepository itemBookingSummaryRepository;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private User owner;
+    private User booker;
+    private Long itemId;
+
+    @BeforeEach
+    void setUp() {
+        owner = new User();
+        owner.setName("owner");
+        owner.setEmail("owner@example.com");
+        userRepository.save(owner);
+
+        booker = new User();
+        booker.setName("booker");
+        booker.setEmail("booker@example.com");
+        userRepository.save(booker);
+
+        ItemCreateDto createDto = new ItemCreateDto();
+        createDto.setName("saw");
+        createDto.setDescription("real");
+        createDto.setAvailable(true);
+        itemId = itemService.create(owner.getId(), createDto).getId();
+    }
+
+    @Test
+    void summaryFollowsBookings() {
+        OffsetDateTime now = OffsetDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+
+        BookingCreateDto createDto = new BookingCreateDto();
+        createDto.setItemId(itemId);
+        createDto.setStart(now.plusDays(1));
+        createDto.setEnd(now.plusDays(2));
+        BookingResponseDto booking = bookingService.create(booker.getId(), createDto);
+
+        ItemBookingSummary summary = findSummary();
+        assertThat(summary.getNextBooking()).isNull();
+
+        bookingService.approveReject(owner.getId(), booking.getId(), true, null);
+
+        summary = findSummary();
+        assertThat(summary.getNextBooking()).isEqualTo(now.plusDays(1));
+        assertThat(summary.getValidUntil()).isEqualTo(now.plusDays(1));
+
+        ItemResponseExtendedViewDto dto = itemService.getById(owner.getId(), itemId);
+        assertThat(dto.getNextBooking()).isEqualTo(now.plusDays(1));
+        assertThat(dto.getLastBooking()).isNull();
+    }
+
+    @Test
+    void refreshStaleSummaries() {
+        OffsetDateTime now = OffsetDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        Item item = entityManager.getReference(Item.class, itemId);
+
+        Booking pastBooking = new Booking();
+        pastBooking.setItem(item);
+        pastBooking.setBooker(booker);
+        pastBooking.setStatus(BookingStatus.APPROVED);
+        pastBooking.setStart(now.minusDays(3));
+        pastBooking.setEnd(now.minusDays(2));
+        bookingRepository.save(pastBooking);
+
+        Booking currentBooking = new Booking();
+        currentBooking.setItem(item);
+        currentBooking.setBooker(booker);
+        currentBooking.setStatus(BookingStatus.APPROVED);
+        currentBooking.setStart(now.minusDays(1));
+        currentBooking.setEnd(now.plusDays(1));
+        bookingRepository.save(currentBooking);
+
+        Booking futureBooking = new Booking();
+        futureBooking.setItem(item);
+        futureBooking.setBooker(booker);
+        futureBooking.setStatus(BookingStatus.APPROVED);
+        futureBooking.setStart(now.plusDays(3));
+        futureBooking.setEnd(now.plusDays(4));
+        bookingRepository.save(futureBooking);
+
+        itemBookingSummaryRepository.markStale(itemId, now.minusMinutes(1));
+        entityManager.clear();
+
+        assertThat(itemBookingSummaryService.getSummaries(Set.of(itemId), now).get(itemId).getLastBooking())
+                .isEqualTo(now.minusDays(2));
+
+        itemBookingSummaryService.refreshStaleSummaries();
+
+        ItemBookingSummary summary = findSummary();
+        assertThat(summary.getLastBooking()).isEqualTo(now.minusDays(2));
+        assertThat(summary.getNextBooking()).isEqualTo(now.plusDays(3));
+        assertThat(summary.getValidUntil()).isEqualTo(now.plusDays(1));
+    }
+
+    private ItemBookingSummary findSummary() {
+        entityManager.flush();
+        entityManager.clear();
+        return itemBookingSummaryRepository.findById(itemId).orElseThrow();
+    }
+
+}
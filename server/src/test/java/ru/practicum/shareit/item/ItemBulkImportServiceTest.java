@@ -0,0 +1,161 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.cache.CacheInvalidationEvent;
+import ru.practicum.shareit.cache.CacheRegion;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.request.ItemRequest;
+import ru.practicum.shareit.request.ItemRequestNotificationService;
+import ru.practicum.shareit.request.ItemRequestRepository;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserRepository;
+import ru.practicum.shareit.user.UserService;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest(properties = {
+        "shareit.item.bulk-import.chunk-size=2",
+        "shareit.item.bulk-import.max-reported-errors=1"
+})
+@Transactional
+@AutoConfigureTestDatabase
+@RecordApplicationEvents
+class ItemBulkImportServiceTest {
+
+    @Autowired
+    private ItemBulkImportService itemBulkImportService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private ItemRequestRepository itemRequestRepository;
+
+    @Autowired
+    private ItemBookingSummaryRepository itemBookingSummaryRepository;
+
+    @Autowired
+    private ItemRequestNotificationService itemRequestNotificationService;
+
+    @Autowired
+    private ApplicationEvents applicationEvents;
+
+    private User owner;
+    private User requestor;
+    private ItemRequest itemRequest;
+
+    @BeforeEach
+    void setUp() {
+        owner = new User();
+        owner.setName("owner");
+        owner.setEmail("owner@example.com");
+        userRepository.save(owner);
+
+        requestor = new User();
+        requestor.setName("requestor");
+        requestor.setEmail("requestor@example.com");
+        userRepository.save(requestor);
+
+        itemRequest = new ItemRequest();
+        itemRequest.setDescription("wanna saw");
+        itemRequest.setRequestor(requestor);
+        itemRequest.setCreated(OffsetDateTime.now());
+        itemRequestRepository.save(itemRequest);
+    }
+
+    private static ByteArrayInputStream body(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String row(long row, String name, Long requestId) {
+        return "{\"row\":" + row + ",\"item\":{\"name\":\"" + name + "\",\"description\":\"bulk\","
+                + "\"available\":true,\"requestId\":" + requestId + "}}\n";
+    }
+
+    @Test
+    void importItemsInChunks() throws Exception {
+        ItemBulkImportResultDto result = itemBulkImportService.importItems(owner.getId(), body(
+                row(1, "saw", null) + row(2, "axe", itemRequest.getId()) + "\n" + row(4, "drill", 99999L)
+                        + row(5, "hammer", 99998L) + row(6, "knife", null)));
+
+        assertThat(result.getReceived()).isEqualTo(5);
+        assertThat(result.getImported()).isEqualTo(3);
+        assertThat(result.getFailed()).isEqualTo(2);
+        assertThat(result.getErrors()).hasSize(1);
+        assertThat(result.getErrors().getFirst().getRow()).isEqualTo(4L);
+        assertThat(result.getErrors().getFirst().getMessage()).isEqualTo("Item Request 99999 not found");
+
+        List<Item> items = itemRepository.findByOwnerId(owner.getId());
+        assertThat(items).extracting(Item::getName).containsExactlyInAnyOrder("saw", "axe", "knife");
+        assertThat(itemRepository.findByItemRequestIds(List.of(itemRequest.getId())))
+                .extracting(ItemForItemRequestJpaProjection::getName).containsExactly("axe");
+        assertThat(itemBookingSummaryRepository.findAllById(items.stream().map(Item::getId).toList())).hasSize(3);
+        assertThat(itemRequestNotificationService.findAfter(requestor.getId(), 0))
+                .extracting(event -> event.notification().getItemName()).containsExactly("axe");
+        assertThat(applicationEvents.stream(CacheInvalidationEvent.class))
+                .filteredOn(event -> event.region() != CacheRegion.ITEM_REQUEST)
+                .containsOnly(new CacheInvalidationEvent(CacheRegion.OWNER_ITEMS, owner.getId()));
+    }
+
+    @Test
+    void importItemsErrors() {
+        assertThrows(NotFoundException.class, () -> itemBulkImportService.importItems(99999L, body("")));
+    }
+
+    @Test
+    void unreadableLinesAreReportedAsRowErrors() throws Exception {
+        ItemBulkImportResultDto result = itemBulkImportService.importItems(owner.getId(), body(
+                row(1, "saw", null) + row(2, "axe", null) + "not json\n" + "{\"row\":4}\n" + row(5, "drill", null)));
+
+        assertThat(result.getReceived()).isEqualTo(5);
+        assertThat(result.getImported()).isEqualTo(3);
+        assertThat(result.getFailed()).isEqualTo(2);
+        assertThat(result.getErrors()).extracting(ItemBulkImportErrorDto::getRow).containsExactly(3L);
+        assertThat(itemRepository.findByOwnerId(owner.getId())).extracting(Item::getName)
+                .containsExactlyInAnyOrder("saw", "axe", "drill");
+    }
+
+    // every chunk commits on its own, so this one runs outside the test transaction and cleans up after itself
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void rejectedChunkIsRetriedRowByRow() throws Exception {
+        try {
+            ItemBulkImportResultDto result = itemBulkImportService.importItems(owner.getId(), body(
+                    row(1, "saw", null) + row(2, "x".repeat(101), null) + row(3, "axe", 99999L)
+                            + row(4, "drill", null)));
+
+            assertThat(result.getReceived()).isEqualTo(4);
+            assertThat(result.getImported()).isEqualTo(2);
+            assertThat(result.getFailed()).isEqualTo(2);
+            assertThat(result.getErrors()).hasSize(1);
+            assertThat(result.getErrors().getFirst().getRow()).isEqualTo(2L);
+            assertThat(result.getErrors().getFirst().getMessage()).isEqualTo("Row rejected by database");
+            assertThat(itemRepository.findByOwnerId(owner.getId())).extracting(Item::getName)
+                    .containsExactlyInAnyOrder("saw", "drill");
+        } finally {
+            userService.deleteById(itemRequest.getRequestor().getId());
+            userService.deleteById(owner.getId());
+        }
+    }
+
+}
@@ -6,7 +6,9 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
@@ -25,6 +27,7 @@ import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -34,6 +37,9 @@ public class ItemControllerTest {
     @MockitoBean
     private ItemService itemService;
 
+    @MockitoBean
+    private ItemBulkImportService itemBulkImportService;
+
     @Autowired
     private WebApplicationContext context;
 
@@ -81,14 +87,42 @@ public class ItemControllerTest {
                 .andExpect(jsonPath("$.error", is("Not Found")));
         verify(itemService, times(1)).deleteById(any(), any());
 
-        when(itemService.update(eq(1L), eq(1L), any())).thenThrow(new NotFoundException("Item not found"));
+        when(itemService.update(eq(1L), eq(1L), any(), any())).thenThrow(new NotFoundException("Item not found"));
         ItemUpdateDto itemUpdateDto = new ItemUpdateDto();
         itemUpdateDto.setName("new name");
         mvc.perform(patch("/items/1").content(mapper.writeValueAsString(itemUpdateDto)))
                 .andDo(MockMvcResultHandlers.print())
                 .andExpect(status().isNotFound())
                 .andExpect(jsonPath("$.error", is("Not Found")));
-        verify(itemService, times(1)).update(any(), any(), any());
+        verify(itemService, times(1)).update(any(), any(), any(), any());
+    }
+
+    @Test
+    void conditionalUpdate() throws Exception {
+        ItemUpdateDto itemUpdateDto = new ItemUpdateDto();
+        itemUpdateDto.setName("new name");
+
+        ItemResponseDto itemResponseDto = new ItemResponseDto();
+        itemResponseDto.setId(1L);
+        itemResponseDto.setVersion(4L);
+        itemResponseDto.setName("new name");
+
+        when(itemService.update(eq(1L), eq(1L), any(), eq(3L))).thenReturn(itemResponseDto);
+        mvc.perform(patch("/items/1").header(HttpHeaders.IF_MATCH, "\"3\"")
+                        .content(mapper.writeValueAsString(itemUpdateDto)))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"4\""))
+                .andExpect(jsonPath("$.version").doesNotExist());
+
+        mvc.perform(patch("/items/1").header(HttpHeaders.IF_MATCH, "W/\"3\"")
+                        .content(mapper.writeValueAsString(itemUpdateDto)))
+                .andExpect(status().isPreconditionFailed());
+
+        when(itemService.update(eq(1L), eq(1L), any(), eq(5L)))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Item.class, 1L));
+        mvc.perform(patch("/items/1").header(HttpHeaders.IF_MATCH, "\"5\"")
+                        .content(mapper.writeValueAsString(itemUpdateDto)))
+                .andExpect(status().isConflict());
     }
 
     @Test
@@ -131,13 +165,13 @@ public class ItemControllerTest {
                 .andExpect(jsonPath("$.description", is(itemResponseDto.getDescription())));
         verify(itemService, times(1)).create(any(), any());
 
-        when(itemService.update(eq(1L), eq(1L), any())).thenReturn(itemResponseDto);
+        when(itemService.update(eq(1L), eq(1L), any(), any())).thenReturn(itemResponseDto);
         mvc.perform(patch("/items/1").content(mapper.writeValueAsString(itemUpdateDto)))
                 .andDo(MockMvcResultHandlers.print())
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.name", is(itemResponseDto.getName())))
                 .andExpect(jsonPath("$.description", is(itemResponseDto.getDescription())));
-        verify(itemService, times(1)).update(any(), any(), any());
+        verify(itemService, times(1)).update(any(), any(), any(), any());
 
         doNothing().when(itemService).deleteById(eq(1L), eq(1L));
         mvc.perform(delete("/items/1"))
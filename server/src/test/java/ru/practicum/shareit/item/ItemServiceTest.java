@@ -2,23 +2,35 @@ package ru.practicum.shareit.item;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.booking.Booking;
 import ru.practicum.shareit.booking.BookingRepository;
 import ru.practicum.shareit.booking.BookingStatus;
 import ru.practicum.shareit.exception.BadRequestException;
 import ru.practicum.shareit.exception.ForbiddenException;
+import ru.practicum.shareit.exception.PreconditionFailedException;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.request.ItemRequest;
+import ru.practicum.shareit.request.ItemRequestAnsweredEvent;
 import ru.practicum.shareit.request.ItemRequestRepository;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.UserRepository;
+import ru.practicum.shareit.user.UserService;
+import ru.practicum.shareit.user.UserUpdateDto;
 
 import java.time.OffsetDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.Collection;
+import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -26,11 +38,15 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 @SpringBootTest
 @Transactional
 @AutoConfigureTestDatabase
+@RecordApplicationEvents
 class ItemServiceTest {
 
     @Autowired
     private ItemService itemService;
 
+    @Autowired
+    private UserService userService;
+
     @Autowired
     private UserRepository userRepository;
 
@@ -46,6 +62,9 @@ class ItemServiceTest {
     @Autowired
     private ItemRequestRepository itemRequestRepository;
 
+    @Autowired
+    private ApplicationEvents applicationEvents;
+
     private User owner;
     private User requestor;
     private User booker;
@@ -83,6 +102,7 @@ class ItemServiceTest {
         createDto.setAvailable(true);
 
         ItemResponseDto result = itemService.create(owner.getId(), createDto);
+        assertThat(applicationEvents.stream(ItemRequestAnsweredEvent.class)).isEmpty();
         assertThat(result).isNotNull();
         assertThat(result.getName()).isEqualTo("saw");
         assertThat(result.getDescription()).isEqualTo("real");
@@ -98,6 +118,9 @@ class ItemServiceTest {
         ItemResponseDto result2 = itemService.create(owner.getId(), createDtoWithRequestId);
         assertThat(result2).isNotNull();
         assertThat(result2.getRequestId()).isEqualTo(itemRequest.getId());
+        assertThat(applicationEvents.stream(ItemRequestAnsweredEvent.class)).containsExactly(
+                new ItemRequestAnsweredEvent(itemRequest.getId(), requestor.getId(), result2.getId(), "saw",
+                        owner.getId()));
     }
 
     @Test
@@ -135,12 +158,71 @@ class ItemServiceTest {
         updateDto.setDescription("new saw");
         updateDto.setAvailable(false);
 
-        ItemResponseDto result = itemService.update(owner.getId(), item.getId(), updateDto);
+        ItemResponseDto result = itemService.update(owner.getId(), item.getId(), updateDto, null);
         assertThat(result.getName()).isEqualTo("updated saw");
         assertThat(result.getDescription()).isEqualTo("new saw");
         assertThat(result.getAvailable()).isFalse();
     }
 
+    @Test
+    void updateWithExpectedVersion() {
+        Item item = new Item();
+        item.setName("saw");
+        item.setDescription("real");
+        item.setAvailable(true);
+        item.setOwner(owner);
+        itemRepository.saveAndFlush(item);
+        long version = item.getVersion();
+
+        ItemUpdateDto updateDto = new ItemUpdateDto();
+        updateDto.setName("updated saw");
+
+        ItemResponseDto result = itemService.update(owner.getId(), item.getId(), updateDto, version);
+        assertThat(result.getVersion()).isEqualTo(version + 1);
+
+        updateDto.setName("stale write");
+        assertThrows(PreconditionFailedException.class,
+                () -> itemService.update(owner.getId(), item.getId(), updateDto, version));
+        assertThat(itemRepository.findById(item.getId()).orElseThrow().getName()).isEqualTo("updated saw");
+    }
+
+    @Test
+    void getETag() {
+        Item item = new Item();
+        item.setName("saw");
+        item.setDescription("real");
+        item.setAvailable(true);
+        item.setOwner(owner);
+        itemRepository.saveAndFlush(item);
+
+        String bookerTag = itemService.getETag(booker.getId(), item.getId());
+        assertThat(bookerTag).isEqualTo(itemService.getETag(booker.getId(), item.getId()));
+        assertThat(itemService.getETag(owner.getId(), item.getId())).isNotEqualTo(bookerTag);
+
+        ItemUpdateDto updateDto = new ItemUpdateDto();
+        updateDto.setName("updated saw");
+        itemService.update(owner.getId(), item.getId(), updateDto, null);
+        assertThat(itemService.getETag(booker.getId(), item.getId())).isNotEqualTo(bookerTag);
+
+        Comment comment = new Comment();
+        comment.setText("real");
+        comment.setItem(item);
+        comment.setAuthor(booker);
+        comment.setCreated(OffsetDateTime.now());
+        commentRepository.save(comment);
+        String commentedTag = itemService.getETag(booker.getId(), item.getId());
+        String ownerTag = itemService.getETag(owner.getId(), item.getId());
+
+        // the view shows the author's name, so renaming the author changes it
+        UserUpdateDto rename = new UserUpdateDto();
+        rename.setName("renamed booker");
+        userService.update(rename, booker.getId(), null);
+        assertThat(itemService.getETag(booker.getId(), item.getId())).isNotEqualTo(commentedTag);
+        assertThat(itemService.getETag(owner.getId(), item.getId())).isNotEqualTo(ownerTag);
+
+        assertThrows(NotFoundException.class, () -> itemService.getETag(booker.getId(), 99999L));
+    }
+
     @Test
     void updateWrongOwner() {
         Item item = new Item();
@@ -153,7 +235,7 @@ class ItemServiceTest {
         ItemUpdateDto updateDto = new ItemUpdateDto();
         updateDto.setName("updated saw");
 
-        assertThrows(ForbiddenException.class, () -> itemService.update(booker.getId(), item.getId(), updateDto));
+        assertThrows(ForbiddenException.class, () -> itemService.update(booker.getId(), item.getId(), updateDto, null));
     }
 
     @Test
@@ -194,6 +276,60 @@ class ItemServiceTest {
         assertThat(result2.getNextBooking()).isNull();
     }
 
+    @Test
+    void getAvailability() {
+        Item item = new Item();
+        item.setName("saw");
+        item.setDescription("real");
+        item.setAvailable(true);
+        item.setOwner(owner);
+        itemRepository.save(item);
+
+        OffsetDateTime from = OffsetDateTime.now().plusDays(1).truncatedTo(ChronoUnit.SECONDS);
+        OffsetDateTime to = from.plusDays(10);
+
+        Booking approvedBooking = new Booking();
+        approvedBooking.setItem(item);
+        approvedBooking.setBooker(booker);
+        approvedBooking.setStatus(BookingStatus.APPROVED);
+        approvedBooking.setStart(from.plusDays(2));
+        approvedBooking.setEnd(from.plusDays(4));
+        bookingRepository.save(approvedBooking);
+
+        Booking waitingBooking = new Booking();
+        waitingBooking.setItem(item);
+        waitingBooking.setBooker(booker);
+        waitingBooking.setStatus(BookingStatus.WAITING);
+        waitingBooking.setStart(from.plusDays(6));
+        waitingBooking.setEnd(from.plusDays(7));
+        bookingRepository.save(waitingBooking);
+
+        ItemAvailabilityDto result = itemService.getAvailability(booker.getId(), item.getId(), from, to);
+        assertThat(result.getItemId()).isEqualTo(item.getId());
+        assertThat(result.getBusy()).hasSize(1);
+        assertThat(result.getBusy().getFirst().getStart()).isEqualTo(approvedBooking.getStart());
+        assertThat(result.getBusy().getFirst().getEnd()).isEqualTo(approvedBooking.getEnd());
+        assertThat(result.getFree()).hasSize(2);
+        assertThat(result.getFree().getFirst().getStart()).isEqualTo(from);
+        assertThat(result.getFree().getLast().getEnd()).isEqualTo(to);
+
+        ItemAvailabilityDto clipped = itemService.getAvailability(booker.getId(), item.getId(), from.plusDays(3), to);
+        assertThat(clipped.getBusy()).hasSize(1);
+        assertThat(clipped.getBusy().getFirst().getStart()).isEqualTo(from.plusDays(3));
+        assertThat(clipped.getFree()).hasSize(1);
+
+        OffsetDateTime past = from.minusDays(5);
+        ItemAvailabilityDto fromNow = itemService.getAvailability(booker.getId(), item.getId(), past, to);
+        assertThat(fromNow.getFrom()).isAfter(past).isBefore(from);
+        assertThat(fromNow.getFree().getFirst().getStart()).isEqualTo(fromNow.getFrom());
+        assertThat(fromNow.getBusy()).hasSize(1);
+
+        assertThrows(BadRequestException.class, () -> itemService.getAvailability(booker.getId(), item.getId(), to, from));
+        assertThrows(BadRequestException.class,
+                () -> itemService.getAvailability(booker.getId(), item.getId(), past, past.plusDays(1)));
+        assertThrows(NotFoundException.class, () -> itemService.getAvailability(booker.getId(), 99999L, from, to));
+    }
+
     @Test
     void findByOwnerId() {
         Item item1 = new Item();
@@ -215,6 +351,84 @@ class ItemServiceTest {
         assertThat(result).extracting("name").containsExactlyInAnyOrder("saw 1", "saw 2");
     }
 
+    @Test
+    void findByOwnerIdWithBookingDates() {
+        Item item = new Item();
+        item.setName("saw");
+        item.setDescription("real");
+        item.setAvailable(true);
+        item.setOwner(owner);
+        itemRepository.save(item);
+
+        OffsetDateTime now = OffsetDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+
+        Booking pastBooking = new Booking();
+        pastBooking.setItem(item);
+        pastBooking.setBooker(booker);
+        pastBooking.setStatus(BookingStatus.APPROVED);
+        pastBooking.setStart(now.minusDays(3));
+        pastBooking.setEnd(now.minusDays(2));
+        bookingRepository.save(pastBooking);
+
+        Booking rejectedBooking = new Booking();
+        rejectedBooking.setItem(item);
+        rejectedBooking.setBooker(booker);
+        rejectedBooking.setStatus(BookingStatus.REJECTED);
+        rejectedBooking.setStart(now.minusDays(2));
+        rejectedBooking.setEnd(now.minusDays(1));
+        bookingRepository.save(rejectedBooking);
+
+        Booking waitingBooking = new Booking();
+        waitingBooking.setItem(item);
+        waitingBooking.setBooker(booker);
+        waitingBooking.setStatus(BookingStatus.WAITING);
+        waitingBooking.setStart(now.plusDays(1));
+        waitingBooking.setEnd(now.plusDays(2));
+        bookingRepository.save(waitingBooking);
+
+        Booking futureBooking = new Booking();
+        futureBooking.setItem(item);
+        futureBooking.setBooker(booker);
+        futureBooking.setStatus(BookingStatus.APPROVED);
+        futureBooking.setStart(now.plusDays(3));
+        futureBooking.setEnd(now.plusDays(4));
+        bookingRepository.save(futureBooking);
+
+        Collection<ItemResponseExtendedViewDto> result = itemService.findByOwnerId(owner.getId());
+        assertThat(result).hasSize(1);
+        ItemResponseExtendedViewDto dto = result.iterator().next();
+        assertThat(dto.getLastBooking()).isEqualTo(pastBooking.getEnd());
+        assertThat(dto.getNextBooking()).isEqualTo(futureBooking.getStart());
+    }
+
+    @Test
+    void findByOwnerIdWithRecentComments() {
+        Item item = new Item();
+        item.setName("saw");
+        item.setDescription("real");
+        item.setAvailable(true);
+        item.setOwner(owner);
+        itemRepository.save(item);
+
+        OffsetDateTime now = OffsetDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        for (int i = 1; i <= 12; i++) {
+            Comment comment = new Comment();
+            comment.setText("comment " + i);
+            comment.setItem(item);
+            comment.setAuthor(booker);
+            comment.setCreated(now.minusDays(12 - i));
+            commentRepository.save(comment);
+        }
+
+        Collection<ItemResponseExtendedViewDto> result = itemService.findByOwnerId(owner.getId());
+        assertThat(result).hasSize(1);
+        List<CommentResponseDto> comments = result.iterator().next().getComments();
+        assertThat(comments).hasSize(10);
+        assertThat(comments.getFirst().getText()).isEqualTo("comment 3");
+        assertThat(comments.getLast().getText()).isEqualTo("comment 12");
+        assertThat(comments.getLast().getAuthorName()).isEqualTo("booker");
+    }
+
     @Test
     void findByText() {
         Item item1 = new Item();
@@ -230,12 +444,41 @@ class ItemServiceTest {
         item2.setAvailable(true);
         item2.setOwner(owner);
         itemRepository.save(item2);
+        itemRepository.flush();
 
         Collection<ItemResponseDto> result = itemService.findByText("saw");
         assertThat(result).hasSize(1);
         assertThat(result.iterator().next().getDescription()).isEqualTo("real 1");
     }
 
+    @ParameterizedTest
+    @CsvSource({"50%, 50% off", "a_b, a_b", "\\, back\\slash"})
+    void findByTextMatchesWildcardsLiterallyOnBothPaths(String text, String expectedName) {
+        for (String name : List.of("50% off", "500 saws", "a_b", "axb", "back\\slash", "plain")) {
+            Item item = new Item();
+            item.setName(name);
+            item.setDescription("bulk");
+            item.setAvailable(true);
+            item.setOwner(owner);
+            itemRepository.save(item);
+        }
+        itemRepository.flush();
+
+        ItemServiceImpl target = AopTestUtils.getTargetObject(itemService);
+        ReflectionTestUtils.setField(target, "jdbcReadPath", true);
+        Collection<ItemResponseDto> jdbcResult = itemService.findByText(text);
+        ReflectionTestUtils.setField(target, "jdbcReadPath", false);
+        Collection<ItemResponseDto> jpaResult;
+        try {
+            jpaResult = itemService.findByText(text);
+        } finally {
+            ReflectionTestUtils.setField(target, "jdbcReadPath", true);
+        }
+
+        assertThat(jdbcResult).extracting(ItemResponseDto::getName).containsExactly(expectedName);
+        assertThat(jpaResult).extracting(ItemResponseDto::getName).containsExactly(expectedName);
+    }
+
     @Test
     void delete() {
         Item item = new Item();
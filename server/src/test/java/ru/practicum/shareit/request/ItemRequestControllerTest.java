@@ -37,6 +37,9 @@ public class ItemRequestControllerTest {
     @MockitoBean
     private ItemRequestService itemRequestService;
 
+    @MockitoBean
+    private ItemRequestNotificationHub itemRequestNotificationHub;
+
     @Autowired
     private WebApplicationContext context;
 
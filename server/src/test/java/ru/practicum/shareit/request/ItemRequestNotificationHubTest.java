@@ -0,0 +1,182 @@
+package ru.practicum.shareit.request;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "shareit.request.notifications.history-size=2",
+        "shareit.request.notifications.heartbeat-interval-millis=3600000"
+})
+@AutoConfigureMockMvc
+@Transactional
+@AutoConfigureTestDatabase
+class ItemRequestNotificationHubTest {
+
+    private static final Pattern EVENT_ID = Pattern.compile("^id:(\\S+)$", Pattern.MULTILINE);
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private ItemRequestNotificationHub itemRequestNotificationHub;
+
+    @Autowired
+    private ItemRequestNotificationService itemRequestNotificationService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Value("${shareit.api.auth.userheader}")
+    private String userIdHeader;
+
+    private User requestor;
+    private User owner;
+
+    @BeforeEach
+    void setUp() {
+        requestor = userRepository.save(user("requestor"));
+        owner = userRepository.save(user("owner"));
+    }
+
+    @Test
+    void pushesToRequestor() throws Exception {
+        MvcResult requestorStream = subscribe(requestor, null);
+        MvcResult ownerStream = subscribe(owner, null);
+
+        answer(1);
+
+        String content = awaitContent(requestorStream, "\"itemName\":\"saw 1\"");
+        assertThat(content).contains("event:item-added", "\"requestId\":10", "\"ownerId\":" + owner.getId());
+        assertThat(ownerStream.getResponse().getContentAsString()).doesNotContain("event:");
+    }
+
+    @Test
+    void replaysFromLastEventId() throws Exception {
+        MvcResult firstStream = subscribe(requestor, null);
+        for (int i = 1; i <= 4; i++) {
+            answer(i);
+        }
+        List<String> ids = eventIds(awaitContent(firstStream, "saw 4"));
+        assertThat(ids).hasSize(4);
+
+        String replayed = awaitContent(subscribe(requestor, ids.get(2)), "saw 4");
+        assertThat(replayed).doesNotContain("saw 3", "event:resync");
+
+        // history keeps two events, so the third and fourth are replayed after the second
+        replayed = awaitContent(subscribe(requestor, ids.get(1)), "saw 4");
+        assertThat(replayed).contains("saw 3").doesNotContain("saw 2", "event:resync");
+
+        String resync = awaitContent(subscribe(requestor, ids.get(0)), "event:resync");
+        assertThat(resync).doesNotContain("event:item-added");
+        String resyncId = eventIds(resync).getFirst();
+
+        answer(5);
+        assertThat(awaitContent(subscribe(requestor, resyncId), "saw 5")).doesNotContain("saw 4");
+    }
+
+    @Test
+    void replaysNotificationsThisInstanceNeverPushed() throws Exception {
+        answer(1);
+        String lastSeen = eventIds(awaitContent(subscribe(requestor, "0"), "saw 1")).getFirst();
+
+        // stored by another instance or before a restart: only the database knows about them
+        for (int i = 2; i <= 3; i++) {
+            itemRequestNotificationService.store(answered(i));
+        }
+
+        String replayed = awaitContent(subscribe(requestor, lastSeen), "saw 3");
+        assertThat(replayed).contains("saw 2").doesNotContain("saw 1", "event:resync");
+    }
+
+    @Test
+    void pushesNotificationsFromOtherInstances() throws Exception {
+        MvcResult requestorStream = subscribe(requestor, null);
+
+        itemRequestNotificationHub.onRemoteItemRequestNotification(new RemoteItemRequestNotificationEvent(
+                new ItemRequestNotificationEvent(requestor.getId(), 9, ItemRequestNotificationDto.of(10L, 9L,
+                        "saw 9", owner.getId()))));
+
+        assertThat(eventIds(awaitContent(requestorStream, "saw 9"))).containsExactly("9");
+    }
+
+    @Test
+    void resyncOnUnknownEventId() throws Exception {
+        answer(1);
+        awaitContent(subscribe(requestor, "2"), "event:resync");
+        awaitContent(subscribe(requestor, "0-1"), "event:resync");
+        awaitContent(subscribe(requestor, "garbage"), "event:resync");
+    }
+
+    @Test
+    void unknownUser() throws Exception {
+        mvc.perform(get("/requests/notifications").header(userIdHeader, 999L))
+                .andExpect(status().isNotFound());
+    }
+
+    // the test transaction never commits, so the push that would follow the commit is made here
+    private void answer(int number) {
+        itemRequestNotificationHub.onItemRequestNotification(itemRequestNotificationService.store(answered(number)));
+    }
+
+    private ItemRequestAnsweredEvent answered(int number) {
+        return new ItemRequestAnsweredEvent(10L, requestor.getId(), (long) number, "saw " + number, owner.getId());
+    }
+
+    private MvcResult subscribe(User user, String lastEventId) throws Exception {
+        MockHttpServletRequestBuilder builder = get("/requests/notifications").header(userIdHeader, user.getId());
+        if (lastEventId != null) builder.header("Last-Event-ID", lastEventId);
+        return mvc.perform(builder)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+    }
+
+    private static List<String> eventIds(String content) {
+        List<String> ids = new ArrayList<>();
+        Matcher matcher = EVENT_ID.matcher(content);
+        while (matcher.find()) {
+            ids.add(matcher.group(1));
+        }
+        return ids;
+    }
+
+    // events are written from a dispatch thread in several pieces, so wait until the blank line that ends one
+    private static String awaitContent(MvcResult result, String expected) throws Exception {
+        long deadline = System.currentTimeMillis() + 5000;
+        String content = result.getResponse().getContentAsString();
+        while (!(content.contains(expected) && content.endsWith("\n\n")) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            content = result.getResponse().getContentAsString();
+        }
+        assertThat(content).contains(expected);
+        return content;
+    }
+
+    private static User user(String name) {
+        User user = new User();
+        user.setName(name);
+        user.setEmail(name + "@yandex.ru");
+        return user;
+    }
+
+}
@@ -1,5 +1,6 @@
 package ru.practicum.shareit.request;
 
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -8,9 +9,13 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemCreateDto;
 import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.item.ItemUpdateDto;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.UserRepository;
+import ru.practicum.shareit.user.UserService;
 
 import java.time.OffsetDateTime;
 import java.util.ArrayList;
@@ -37,6 +42,15 @@ class ItemRequestServiceTest {
     @Autowired
     private ItemRepository itemRepository;
 
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private EntityManager entityManager;
+
     private User requestor;
     private User secondUser;
     private User thirdUser;
@@ -126,6 +140,41 @@ class ItemRequestServiceTest {
         assertThat(result.getItems().get(0).getName()).isEqualTo("saw");
     }
 
+    @Test
+    void getETag() {
+        String emptyTag = itemRequestService.getETag(itemRequest1.getId());
+
+        ItemCreateDto createDto = new ItemCreateDto();
+        createDto.setName("saw");
+        createDto.setDescription("real saw");
+        createDto.setAvailable(true);
+        createDto.setRequestId(itemRequest1.getId());
+        Long itemId = itemService.create(secondUser.getId(), createDto).getId();
+        String offeredTag = itemRequestService.getETag(itemRequest1.getId());
+        assertThat(offeredTag).isNotEqualTo(emptyTag);
+        assertThat(itemRequestService.getETag(itemRequest1.getId())).isEqualTo(offeredTag);
+
+        ItemUpdateDto updateDto = new ItemUpdateDto();
+        updateDto.setName("renamed saw");
+        itemService.update(secondUser.getId(), itemId, updateDto, null);
+        String renamedTag = itemRequestService.getETag(itemRequest1.getId());
+        assertThat(renamedTag).isNotEqualTo(offeredTag);
+
+        itemService.deleteById(secondUser.getId(), itemId);
+        String withdrawnTag = itemRequestService.getETag(itemRequest1.getId());
+        assertThat(withdrawnTag).isNotIn(emptyTag, offeredTag, renamedTag);
+
+        itemService.create(thirdUser.getId(), createDto);
+        String reofferedTag = itemRequestService.getETag(itemRequest1.getId());
+        // the owner's items are cascaded away in the database, as they would be outside this test's context
+        entityManager.flush();
+        entityManager.clear();
+        userService.deleteById(thirdUser.getId());
+        assertThat(itemRequestService.getETag(itemRequest1.getId())).isNotEqualTo(reofferedTag);
+
+        assertThrows(NotFoundException.class, () -> itemRequestService.getETag(99999L));
+    }
+
     @Test
     void getRequestByIdNotFound() {
         assertThrows(NotFoundException.class, () -> itemRequestService.getRequestById(99999L));
@@ -147,6 +196,41 @@ class ItemRequestServiceTest {
         assertThat(resultList.get(1).getDescription()).isEqualTo("need saw");
     }
 
+    @Test
+    void getMyRequestsWithItemsOfSeveralRequests() {
+        ItemRequest additionalRequest = new ItemRequest();
+        additionalRequest.setDescription("need cup");
+        additionalRequest.setRequestor(requestor);
+        additionalRequest.setCreated(OffsetDateTime.now().minusHours(1));
+        itemRequestRepository.save(additionalRequest);
+
+        Item saw = new Item();
+        saw.setName("saw");
+        saw.setDescription("real saw");
+        saw.setAvailable(true);
+        saw.setOwner(secondUser);
+        saw.setItemRequest(itemRequest1);
+        itemRepository.save(saw);
+
+        Item cup = new Item();
+        cup.setName("cup");
+        cup.setDescription("real cup");
+        cup.setAvailable(true);
+        cup.setOwner(thirdUser);
+        cup.setItemRequest(additionalRequest);
+        itemRepository.save(cup);
+
+        List<ItemRequestResponseDto> result = itemRequestService.getMyRequests(requestor.getId()).stream().toList();
+
+        assertThat(result).hasSize(2);
+        assertThat(result.get(0).getItems()).hasSize(1);
+        assertThat(result.get(0).getItems().get(0).getName()).isEqualTo("cup");
+        assertThat(result.get(0).getItems().get(0).getOwnerId()).isEqualTo(thirdUser.getId());
+        assertThat(result.get(1).getItems()).hasSize(1);
+        assertThat(result.get(1).getItems().get(0).getName()).isEqualTo("saw");
+        assertThat(result.get(1).getItems().get(0).getOwnerId()).isEqualTo(secondUser.getId());
+    }
+
     @Test
     void getMyRequestsEmpty() {
         Collection<ItemRequestResponseDto> result = itemRequestService.getMyRequests(thirdUser.getId());
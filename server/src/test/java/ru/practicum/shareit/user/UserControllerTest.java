@@ -5,6 +5,7 @@ import jakarta.annotation.PostConstruct;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
@@ -22,6 +23,8 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -51,7 +54,7 @@ public class UserControllerTest {
 
     @Test
     void notFoundRequests() throws Exception {
-        when(userService.update(any(), eq(1L))).thenThrow(new NotFoundException("User 1 not found"));
+        when(userService.update(any(), eq(1L), any())).thenThrow(new NotFoundException("User 1 not found"));
         UserUpdateDto userUpdateDto = new UserUpdateDto();
         userUpdateDto.setEmail("notfound@test.ru");
         mvc.perform(patch("/users/1").content(mapper.writeValueAsString(userUpdateDto)))
@@ -94,13 +97,13 @@ public class UserControllerTest {
                 .andExpect(jsonPath("$.name", is(userResponseDto.getName())));
         verify(userService, times(1)).create(any());
 
-        when(userService.update(any(), eq(1L))).thenReturn(userResponseDto);
+        when(userService.update(any(), eq(1L), any())).thenReturn(userResponseDto);
         mvc.perform(patch("/users/1").content(mapper.writeValueAsString(userUpdateDto)))
                 .andDo(MockMvcResultHandlers.print())
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.email", is(userResponseDto.getEmail())))
                 .andExpect(jsonPath("$.name", is(userResponseDto.getName())));
-        verify(userService, times(1)).update(any(), any());
+        verify(userService, times(1)).update(any(), any(), any());
 
         when(userService.getById(eq(1L))).thenReturn(userResponseDto);
         mvc.perform(get("/users/1"))
@@ -110,6 +113,15 @@ public class UserControllerTest {
                 .andExpect(jsonPath("$.name", is(userResponseDto.getName())));
         verify(userService, times(1)).getById(any());
 
+        userResponseDto.setVersion(2L);
+        mvc.perform(get("/users/1").header(HttpHeaders.IF_NONE_MATCH, "\"1\", W/\"2\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"2\""))
+                .andExpect(content().string(""));
+        mvc.perform(get("/users/1").header(HttpHeaders.IF_NONE_MATCH, "\"1\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"2\""));
+
         when(userService.getList()).thenReturn(List.of(userResponseDto));
         mvc.perform(get("/users"))
                 .andDo(MockMvcResultHandlers.print())
@@ -39,6 +39,7 @@ class UserServiceTest {
         testUser2.setName("sofa");
         testUser2.setEmail("sofa@yandex.ru");
         userRepository.save(testUser2);
+        userRepository.flush();
     }
 
     @Test
@@ -95,7 +96,7 @@ class UserServiceTest {
         updateDto.setName("updated ivan");
         updateDto.setEmail("ivan2@yandex.ru");
 
-        UserResponseDto result = userService.update(updateDto, testUser1.getId());
+        UserResponseDto result = userService.update(updateDto, testUser1.getId(), null);
 
         assertThat(result.getName()).isEqualTo("updated ivan");
         assertThat(result.getEmail()).isEqualTo("ivan2@yandex.ru");
@@ -107,7 +108,7 @@ class UserServiceTest {
         UserUpdateDto updateDto = new UserUpdateDto();
         updateDto.setName("updated ivan");
 
-        UserResponseDto result = userService.update(updateDto, testUser1.getId());
+        UserResponseDto result = userService.update(updateDto, testUser1.getId(), null);
 
         assertThat(result.getName()).isEqualTo("updated ivan");
         assertThat(result.getEmail()).isEqualTo("ivan@yandex.ru"); // Остался прежним
@@ -119,7 +120,7 @@ class UserServiceTest {
         UserUpdateDto updateDto = new UserUpdateDto();
         updateDto.setEmail("ivan.updated@yandex.ru");
 
-        UserResponseDto result = userService.update(updateDto, testUser1.getId());
+        UserResponseDto result = userService.update(updateDto, testUser1.getId(), null);
 
         assertThat(result.getName()).isEqualTo("ivan");
         assertThat(result.getEmail()).isEqualTo("ivan.updated@yandex.ru");
@@ -131,7 +132,7 @@ class UserServiceTest {
         UserUpdateDto updateDto = new UserUpdateDto();
         updateDto.setName("updated Name");
 
-        assertThrows(NotFoundException.class, () -> userService.update(updateDto, 99999L));
+        assertThrows(NotFoundException.class, () -> userService.update(updateDto, 99999L, null));
     }
 
     @Test
@@ -139,7 +140,7 @@ class UserServiceTest {
         UserUpdateDto updateDto = new UserUpdateDto();
         updateDto.setEmail("sofa@yandex.ru");
 
-        assertThrows(ConflictException.class, () -> userService.update(updateDto, testUser1.getId()));
+        assertThrows(ConflictException.class, () -> userService.update(updateDto, testUser1.getId(), null));
     }
 
     @Test
@@ -148,7 +149,7 @@ class UserServiceTest {
         updateDto.setEmail("ivan@yandex.ru");
         updateDto.setName("updated ivan");
 
-        UserResponseDto result = userService.update(updateDto, testUser1.getId());
+        UserResponseDto result = userService.update(updateDto, testUser1.getId(), null);
 
         assertThat(result.getEmail()).isEqualTo("ivan@yandex.ru");
         assertThat(result.getName()).isEqualTo("updated ivan");
@@ -159,7 +160,7 @@ class UserServiceTest {
         UserUpdateDto updateDto = new UserUpdateDto();
         updateDto.setEmail("sofa@yandex.ru".toUpperCase());
 
-        assertThrows(ConflictException.class, () -> userService.update(updateDto, testUser1.getId()));
+        assertThrows(ConflictException.class, () -> userService.update(updateDto, testUser1.getId(), null));
     }
 
     @Test
@@ -176,9 +177,23 @@ class UserServiceTest {
         assertThrows(NotFoundException.class, () -> userService.deleteById(99999L));
     }
 
+    @Test
+    void getByIdIsNotStaleAfterUpdateAndDelete() {
+        assertThat(userService.getById(testUser1.getId()).getName()).isEqualTo("ivan");
+
+        UserUpdateDto updateDto = new UserUpdateDto();
+        updateDto.setName("ivan ivanov");
+        userService.update(updateDto, testUser1.getId(), null);
+        assertThat(userService.getById(testUser1.getId()).getName()).isEqualTo("ivan ivanov");
+
+        userService.deleteById(testUser1.getId());
+        assertThrows(NotFoundException.class, () -> userService.getById(testUser1.getId()));
+    }
+
     @Test
     void getListEmptyDatabase() {
         userRepository.deleteAll();
+        userRepository.flush();
         List<UserResponseDto> result = userService.getList();
 
         assertThat(result).isEmpty();
@@ -195,6 +210,7 @@ class UserServiceTest {
         createDto2.setName("User Two");
         createDto2.setEmail("user2@test.com");
         UserResponseDto user2 = userService.create(createDto2);
+        userRepository.flush();
 
         List<UserResponseDto> allUsers = userService.getList();
         assertThat(allUsers).hasSize(4);
@@ -209,6 +225,6 @@ class UserServiceTest {
         UserUpdateDto updateDto = new UserUpdateDto();
         updateDto.setName("not work");
 
-        assertThrows(NotFoundException.class, () -> userService.update(updateDto, userId));
+        assertThrows(NotFoundException.class, () -> userService.update(updateDto, userId, null));
     }
 }
\ No newline at end of file